@@ -0,0 +1,88 @@
+package bench.jmh;
+
+import manager.SlotManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.LatencyHistogram;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What BookingMetrics costs: the same book-and-clear cycle in a JVM with
+ * recording on and one started with -Dbooking.metrics=false (which folds the
+ * instrumentation away), plus a bare histogram timing every call, one call
+ * in 16, and every call from four threads at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MetricsOverheadBenchmark {
+    @State(Scope.Thread)
+    public static class Grid {
+        SlotManager slotManager;
+        LocalDate date = LocalDate.of(2030, 1, 7);
+        int cell;
+
+        @Setup
+        public void setUp() {
+            slotManager = new SlotManager(20, 10, 0);
+        }
+
+        boolean bookAndClear() {
+            int c = cell++;
+            int pc = c % 20;
+            int t = (c / 20) % 10;
+            boolean booked = slotManager.bookSlot(date, pc, t, "walk-in");
+            slotManager.clearSlot(date, pc, t);
+            return booked;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        LatencyHistogram everyCall = new LatencyHistogram("bench");
+        LatencyHistogram sampled = new LatencyHistogram("bench", 16);
+    }
+
+    @Benchmark
+    @Fork(1)
+    public boolean bookAndClearMetricsOn(Grid grid) {
+        return grid.bookAndClear();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dbooking.metrics=false")
+    public boolean bookAndClearMetricsOff(Grid grid) {
+        return grid.bookAndClear();
+    }
+
+    @Benchmark
+    @Fork(1)
+    public void histogramEveryCall(Shared shared) {
+        shared.everyCall.stop(shared.everyCall.start());
+    }
+
+    @Benchmark
+    @Fork(1)
+    public void histogramSampled(Shared shared) {
+        shared.sampled.stop(shared.sampled.start());
+    }
+
+    @Benchmark
+    @Fork(1)
+    @Threads(4)
+    public void histogramEveryCallContended(Shared shared) {
+        shared.everyCall.stop(shared.everyCall.start());
+    }
+}
@@ -0,0 +1,73 @@
+package bench.jmh;
+
+import manager.PricingEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quote cost with a full tariff (peak hours, premium PCs, two tiers, two
+ * promotions): the same day over and over, as a hovered grid would ask, and a
+ * different day each call across a year, which exercises the day cache.
+ * Run with -prof gc to confirm quotes allocate nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PricingBenchmark {
+    private static final String[] TIERS = {"customer", "silver", "gold"};
+
+    PricingEngine pricing;
+    LocalDate[] days = new LocalDate[365];
+    int call;
+
+    @Setup
+    public void setUp() {
+        Properties rules = new Properties();
+        rules.setProperty("rate.standard", "20");
+        rules.setProperty("rate.premium", "35");
+        rules.setProperty("premium.computers", "17,18,19,20");
+        rules.setProperty("peak.hours", "18-22");
+        rules.setProperty("peak.days", "FRIDAY,SATURDAY,SUNDAY");
+        rules.setProperty("peak.surcharge", "5");
+        rules.setProperty("tier.silver", "5");
+        rules.setProperty("tier.gold", "10");
+        rules.setProperty("promo.summer.from", "2030-04-01");
+        rules.setProperty("promo.summer.to", "2030-05-31");
+        rules.setProperty("promo.summer.percent", "15");
+        rules.setProperty("promo.matinee.days", "MONDAY,TUESDAY,WEDNESDAY");
+        rules.setProperty("promo.matinee.hours", "13-15");
+        rules.setProperty("promo.matinee.percent", "25");
+        pricing = PricingEngine.of(20, 10, rules);
+        LocalDate first = LocalDate.of(2030, 1, 1);
+        for (int d = 0; d < days.length; d++) days[d] = first.plusDays(d);
+    }
+
+    @Benchmark
+    public long quoteSameDay() {
+        int c = call++;
+        int from = c % 10;
+        return pricing.quote(days[0], c % 20, from, Math.min(9, from + c % 3), TIERS[c % 3]);
+    }
+
+    @Benchmark
+    public long quoteAcrossYear() {
+        int c = call++;
+        int from = c % 10;
+        return pricing.quote(days[c % days.length], c % 20, from, Math.min(9, from + c % 3), TIERS[c % 3]);
+    }
+}
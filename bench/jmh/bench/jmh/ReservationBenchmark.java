@@ -0,0 +1,99 @@
+package bench.jmh;
+
+import manager.SlotManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same 24-hour day of 15-minute sessions held two ways: a dense
+ * SlotManager with 96 slots a day, and minute reservations. Every other
+ * quarter hour is taken on both, for 60 days of 20 computers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationBenchmark {
+    static final int DAYS = 60;
+    static final int CELLS = 96;
+    static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 7);
+
+    SlotManager dense;
+    SlotManager intervals;
+    LocalDate[] dates = new LocalDate[DAYS];
+    LocalDateTime[] quarters = new LocalDateTime[DAYS * CELLS + 1];
+    int[] row = new int[CELLS];
+    int call;
+
+    @Setup
+    public void setUp() {
+        dense = new SlotManager(20, CELLS, 0);
+        intervals = new SlotManager(20, 1, 0);
+        for (int d = 0; d < DAYS; d++) dates[d] = FIRST_DAY.plusDays(d);
+        for (int q = 0; q < quarters.length; q++) quarters[q] = FIRST_DAY.atStartOfDay().plusMinutes(15L * q);
+        for (int d = 0; d < DAYS; d++) {
+            for (int pc = 0; pc < 20; pc++) {
+                for (int t = 0; t < CELLS; t += 2) {
+                    dense.bookSlot(dates[d], pc, t, "customer" + (t % 50));
+                    intervals.reserve(pc, quarters[d * CELLS + t], quarters[d * CELLS + t + 1], "customer" + (t % 50));
+                }
+            }
+        }
+    }
+
+    // Books a free quarter hour and gives it back, so every call sees the same state
+    @Benchmark
+    public boolean denseBookAndClear() {
+        int c = call++;
+        LocalDate date = dates[c % DAYS];
+        int pc = (c / DAYS) % 20;
+        int t = 1 + 2 * ((c / DAYS / 20) % (CELLS / 2));
+        boolean booked = dense.bookSlot(date, pc, t, "walk-in");
+        dense.clearSlot(date, pc, t);
+        return booked;
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease() {
+        int c = call++;
+        int pc = (c / DAYS) % 20;
+        int q = (c % DAYS) * CELLS + 1 + 2 * ((c / DAYS / 20) % (CELLS / 2));
+        boolean reserved = intervals.reserve(pc, quarters[q], quarters[q + 1], "walk-in");
+        intervals.release(pc, quarters[q]);
+        return reserved;
+    }
+
+    @Benchmark
+    public boolean denseIsBooked() {
+        int c = call++;
+        return dense.isSlotBooked(dates[c % DAYS], (c / DAYS) % 20, (c / DAYS / 20) % CELLS);
+    }
+
+    @Benchmark
+    public boolean intervalIsFree() {
+        int c = call++;
+        int q = (c % DAYS) * CELLS + (c / DAYS / 20) % CELLS;
+        return intervals.isFree((c / DAYS) % 20, quarters[q], quarters[q + 1]);
+    }
+
+    @Benchmark
+    public int[] intervalRenderDay() {
+        int c = call++;
+        intervals.renderOccupants(c % 20, quarters[(c / 20 % DAYS) * CELLS], 15, row);
+        return row;
+    }
+}
@@ -0,0 +1,59 @@
+package bench.jmh;
+
+import manager.ExpiryScheduler;
+import manager.SlotManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Releasing expired bookings through ExpiryScheduler's first pass, as after a
+ * restart: every slot of the last 30 days of 20 computers was booked and has
+ * ended. The days stay within retention, so the pass releases slots and
+ * archives nothing. Each call releases 6000 slots and includes starting and
+ * stopping the scheduler's thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlotExpiryBenchmark {
+    static final int DAYS = 30;
+    static final int COMPUTERS = 20;
+    static final int SLOTS = 10;
+
+    SlotManager slotManager;
+
+    // A few milliseconds of work per call, so per-invocation setup stays out of the way
+    @Setup(Level.Invocation)
+    public void bookPastDays() {
+        slotManager = new SlotManager(COMPUTERS, SLOTS, DAYS + 1);
+        LocalDate today = LocalDate.now();
+        for (int day = 1; day <= DAYS; day++) {
+            for (int pc = 0; pc < COMPUTERS; pc++) {
+                slotManager.bookRange(today.minusDays(day), pc, 0, SLOTS - 1, "walk-in");
+            }
+        }
+    }
+
+    @Benchmark
+    public SlotManager releaseExpiredBookings() {
+        ExpiryScheduler scheduler = new ExpiryScheduler(slotManager);
+        scheduler.start();
+        scheduler.stop();
+        return slotManager;
+    }
+}
@@ -0,0 +1,88 @@
+package bench.jmh;
+
+import manager.FreeWindow;
+import manager.SlotManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking-grid hot paths on a café-sized SlotManager (20 x 10) holding 60
+ * days that are about half booked.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlotManagerBenchmark {
+    static final int DAYS = 60;
+    static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 7);
+
+    SlotManager slotManager;
+    LocalDate[] dates;
+    int cell;
+
+    @Setup
+    public void setUp() {
+        slotManager = new SlotManager(20, 10, 0);
+        dates = new LocalDate[DAYS];
+        fill(slotManager, dates);
+    }
+
+    // Books every other cell so lookups hit both answers
+    static void fill(SlotManager slotManager, LocalDate[] dates) {
+        Random random = new Random(42);
+        for (int d = 0; d < dates.length; d++) {
+            dates[d] = FIRST_DAY.plusDays(d);
+            for (int pc = 0; pc < slotManager.getNumComputers(); pc++) {
+                for (int t = 0; t < slotManager.getNumTimeSlots(); t++) {
+                    if (((pc + t) & 1) == 0) slotManager.bookSlot(dates[d], pc, t, "customer" + random.nextInt(200));
+                }
+            }
+        }
+    }
+
+    // Books a free cell and clears it again so every call sees the same grid
+    @Benchmark
+    public boolean bookSlot() {
+        int c = cell++;
+        LocalDate date = dates[c % DAYS];
+        int pc = (c / DAYS) % 20;
+        int t = ((pc + 1) & 1) + 2 * ((c / DAYS / 20) % 5);
+        boolean booked = slotManager.bookSlot(date, pc, t, "walk-in");
+        slotManager.clearSlot(date, pc, t);
+        return booked;
+    }
+
+    @Benchmark
+    public boolean bookSlotTaken() {
+        int c = cell++;
+        int pc = (c / DAYS) % 20;
+        return slotManager.bookSlot(dates[c % DAYS], pc, (pc & 1) + 2 * ((c / DAYS / 20) % 5), "walk-in");
+    }
+
+    @Benchmark
+    public boolean isSlotBooked() {
+        int c = cell++;
+        return slotManager.isSlotBooked(dates[c % DAYS], (c / DAYS) % 20, (c / DAYS / 20) % 10);
+    }
+
+    @Benchmark
+    public FreeWindow findFirstFree() {
+        int c = cell++;
+        return slotManager.findFirstFree(dates[c % DAYS], 0, dates[DAYS - 1], 3, pc -> true);
+    }
+}
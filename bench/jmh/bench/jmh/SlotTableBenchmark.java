@@ -0,0 +1,60 @@
+package bench.jmh;
+
+import manager.SlotManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ui.SlotTableModel;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the screens used to call populateTable: loading a date into the
+ * SlotTableModel, plus the per-second clock tick that replaced polling.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SlotTableBenchmark {
+    SlotManager slotManager;
+    LocalDate[] dates;
+    SlotTableModel model;
+    int next;
+
+    @Setup
+    public void setUp() {
+        slotManager = new SlotManager(20, 10, 0);
+        dates = new LocalDate[SlotManagerBenchmark.DAYS];
+        SlotManagerBenchmark.fill(slotManager, dates);
+        model = SlotTableModel.open(slotManager, dates[0], "customer7");
+    }
+
+    @TearDown
+    public void tearDown() {
+        model.close();
+    }
+
+    // Switches to another date: a full copy of the grid and one table event
+    @Benchmark
+    public Object populateTable() {
+        model.setDate(dates[++next % dates.length]);
+        return model.getValueAt(next % 20, 1 + next % 10);
+    }
+
+    @Benchmark
+    public void clockTick() {
+        model.refreshExpired();
+    }
+}
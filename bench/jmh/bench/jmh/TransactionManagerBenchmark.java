@@ -0,0 +1,83 @@
+package bench.jmh;
+
+import model.Transaction;
+import model.TransactionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction queries over a year of sales. Each query walks the returned
+ * list, since the views build Transaction objects lazily.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class TransactionManagerBenchmark {
+    static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+
+    @Param({"100000"})
+    int transactions;
+
+    TransactionManager transactionManager;
+    int next;
+
+    @Setup
+    public void setUp() {
+        transactionManager = new TransactionManager();
+        Random random = new Random(42);
+        for (int i = 0; i < transactions; i++) {
+            LocalDate date = FIRST_DAY.plusDays(i * 365L / transactions);
+            int from = random.nextInt(10);
+            int to = Math.min(9, from + random.nextInt(3));
+            transactionManager.addBooking("customer" + random.nextInt(500), random.nextInt(20), from, to,
+                    (to - from + 1) * 2000L, date.atTime(12, 0), date);
+        }
+    }
+
+    @Benchmark
+    public void transactionsByUser(Blackhole blackhole) {
+        consume(transactionManager.getTransactionsByUser("customer" + (next++ % 500)), blackhole);
+    }
+
+    @Benchmark
+    public void transactionsByDate(Blackhole blackhole) {
+        consume(transactionManager.getTransactionsByDate(FIRST_DAY.plusDays(next++ % 365)), blackhole);
+    }
+
+    @Benchmark
+    public void transactionsBetweenMonth(Blackhole blackhole) {
+        LocalDate from = FIRST_DAY.plusDays(next++ % 335);
+        consume(transactionManager.getTransactionsBetween(from, from.plusDays(29)), blackhole);
+    }
+
+    @Benchmark
+    public Transaction addBooking() {
+        LocalDate date = FIRST_DAY.plusDays(next++ % 365);
+        return transactionManager.addBooking("walk-in", 3, 2, 4, 5000, LocalDateTime.of(2030, 1, 1, 12, 0), date);
+    }
+
+    private static void consume(List<Transaction> list, Blackhole blackhole) {
+        for (Transaction t : list) {
+            blackhole.consume(t);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package bench;
+
+import manager.BookingService;
+import manager.PricingEngine;
+import manager.SlotManager;
+import manager.UserDirectory;
+import model.TransactionManager;
+import net.BookingServer;
+import net.RemoteBookingService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts a BookingServer on a loopback ephemeral port and drives it with
+ * many RemoteBookingService terminals booking random single slots, then
+ * reports booking latency percentiles, throughput and whether every
+ * terminal's mirror ended up matching the server.
+ *
+ * Usage: BookingLoadTest [clients=200] [bookingsPerClient=50] [days=365]
+ */
+public class BookingLoadTest {
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int perClient = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int days = args.length > 2 ? Integer.parseInt(args[2]) : 365;
+        System.setProperty("booking.receipts", Files.createTempDirectory("load-receipts").toString());
+        // Terminals sign in before they get anything; a cheap hash keeps 200 sign-ins out of the numbers
+        System.setProperty("booking.pbkdf2Iterations", "1000");
+
+        SlotManager slotManager = new SlotManager();
+        BookingService bookingService = new BookingService(slotManager, new TransactionManager());
+        Path users = Files.createTempDirectory("load-users").resolve("users.db");
+        UserDirectory directory = UserDirectory.load(users);
+        directory.addUser("load", "load".toCharArray(), PricingEngine.DEFAULT_TIER);
+        bookingService.setUserDirectory(directory);
+        BookingServer server = new BookingServer(bookingService, "127.0.0.1", 0);
+        server.start();
+
+        List<RemoteBookingService> terminals = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            RemoteBookingService terminal = RemoteBookingService.connect("127.0.0.1", server.getPort());
+            if (terminal.authenticate("load", "load".toCharArray()).join() == null) {
+                throw new IllegalStateException("Load user was refused");
+            }
+            terminals.add(terminal);
+        }
+        System.out.printf("%d terminals connected%n", clients);
+
+        LocalDate today = LocalDate.now();
+        int computers = slotManager.getNumComputers();
+        int slots = slotManager.getNumTimeSlots();
+        long[] latencies = new long[clients * perClient];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger taken = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        for (RemoteBookingService terminal : terminals) {
+            Thread.ofVirtual().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < perClient; i++) {
+                    LocalDate date = today.plusDays(random.nextInt(days));
+                    int pc = random.nextInt(computers);
+                    int slot = random.nextInt(slots);
+                    long t0 = System.nanoTime();
+                    if (terminal.book(date, pc, slot, slot, "load", PricingEngine.DEFAULT_TIER).join() == null) {
+                        taken.incrementAndGet();
+                    }
+                    latencies[next.getAndIncrement()] = System.nanoTime() - t0;
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        int total = latencies.length;
+        System.out.printf("%d booking requests in %.2f s: %.0f bookings/sec (%d slot already taken)%n",
+                total, seconds, total / seconds, taken.get());
+        System.out.printf("latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                latencies[total / 2] / 1e6, latencies[(int) (total * 0.99)] / 1e6, latencies[total - 1] / 1e6);
+
+        // Pushes are asynchronous: give the last ones a moment to land before comparing
+        Thread.sleep(500);
+        int mismatched = 0;
+        for (RemoteBookingService terminal : terminals) {
+            if (!sameBookings(slotManager, terminal.getSlotManager(), today, days)) mismatched++;
+        }
+        System.out.printf("%d of %d terminal mirrors differ from the server%n", mismatched, clients);
+
+        for (RemoteBookingService terminal : terminals) {
+            terminal.shutdown();
+        }
+        server.close();
+        bookingService.shutdown();
+        System.exit(0);
+    }
+
+    private static boolean sameBookings(SlotManager server, SlotManager mirror, LocalDate from, int days) {
+        for (int d = 0; d < days; d++) {
+            LocalDate date = from.plusDays(d);
+            for (int pc = 0; pc < server.getNumComputers(); pc++) {
+                for (int t = 0; t < server.getNumTimeSlots(); t++) {
+                    String expected = server.getBookedBy(date, pc, t);
+                    String actual = mirror.getBookedBy(date, pc, t);
+                    if (expected == null ? actual != null : !expected.equals(actual)) return false;
+                }
+            }
+        }
+        return true;
+    }
+}
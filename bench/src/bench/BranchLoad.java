@@ -0,0 +1,128 @@
+package bench;
+
+import manager.BookingService;
+import manager.BranchSummary;
+import manager.Branches;
+import manager.PricingEngine;
+import manager.SlotManager;
+import model.TransactionManager;
+import utils.BookingAnalytics;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Booking throughput as branches are added: 1, 2, 4... up to --branches
+ * branches, each its own BookingService, with --clients threads per branch
+ * booking random single slots through book() as fast as it answers. Per-branch
+ * throughput staying flat as branches are added means they scale linearly,
+ * which needs at least as many cores as branches. The cross-branch report is
+ * timed on the largest run.
+ *
+ * Options (all optional): --branches 4 --clients 4 --bookings 20000 --days 365
+ *   --seed 42 --out build/bench/branches.json
+ */
+public class BranchLoad {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 7);
+
+    public static void main(String[] args) throws Exception {
+        CafeDayLoad.Options options = new CafeDayLoad.Options(args);
+        int maxBranches = options.get("branches", 4);
+        int clients = options.get("clients", 4);
+        int bookings = options.get("bookings", 20_000);
+        int days = options.get("days", 365);
+        long seed = options.get("seed", 42);
+        Path out = Path.of(options.get("out", "build/bench/branches.json"));
+        System.setProperty("booking.receipts", Files.createTempDirectory("branch-receipts").toString());
+
+        JsonReport report = new JsonReport()
+                .put("cores", Runtime.getRuntime().availableProcessors())
+                .put("clientsPerBranch", clients)
+                .put("bookingsPerBranch", bookings);
+        // A throwaway run warms up the JIT
+        run(1, clients, bookings, days, seed, false);
+        List<Integer> counts = new ArrayList<>();
+        for (int n = 1; n < maxBranches; n *= 2) counts.add(n);
+        counts.add(maxBranches);
+        for (int n : counts) {
+            report.put("branches" + n, run(n, clients, bookings, days, seed, n == maxBranches));
+        }
+        report.write(out);
+        System.out.println(report);
+        System.out.println("Results written to " + out);
+    }
+
+    private static JsonReport run(int branchCount, int clients, int bookings, int days, long seed,
+                                  boolean timeReport) throws Exception {
+        List<BookingService> services = new ArrayList<>();
+        for (int b = 0; b < branchCount; b++) {
+            SlotManager slotManager = new SlotManager(20, 10, 0);
+            TransactionManager transactionManager = new TransactionManager();
+            BookingAnalytics analytics = new BookingAnalytics(20, 10);
+            slotManager.setAnalytics(analytics);
+            transactionManager.setAnalytics(analytics);
+            services.add(new BookingService("branch" + b, slotManager, transactionManager));
+        }
+        Branches branches = Branches.of(services);
+
+        ExecutorService pool = Executors.newFixedThreadPool(branchCount * clients);
+        long[] booked = new long[branchCount * clients];
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int b = 0; b < branchCount; b++) {
+            BookingService service = services.get(b);
+            for (int c = 0; c < clients; c++) {
+                int client = b * clients + c;
+                Random random = new Random(seed + client);
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < bookings / clients; i++) {
+                        LocalDate date = FIRST_DAY.plusDays(random.nextInt(days));
+                        int slot = random.nextInt(10);
+                        if (service.book(date, random.nextInt(20), slot, slot,
+                                "member" + random.nextInt(1000), PricingEngine.DEFAULT_TIER).join() != null) {
+                            booked[client]++;
+                        }
+                    }
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> future : futures) future.get();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        long total = 0;
+        for (long count : booked) total += count;
+        long attempts = (long) branchCount * (bookings / clients) * clients;
+        JsonReport result = new JsonReport()
+                .put("attempts", attempts)
+                .put("booked", total)
+                .put("seconds", Math.round(seconds * 1000) / 1000.0)
+                .put("attemptsPerSecond", Math.round(attempts / seconds))
+                .put("attemptsPerSecondPerBranch", Math.round(attempts / seconds / branchCount));
+
+        if (timeReport) {
+            // Best of five, the first ones warm up
+            double reportMillis = Double.MAX_VALUE;
+            List<BranchSummary> summaries = null;
+            for (int pass = 0; pass < 5; pass++) {
+                long t = System.nanoTime();
+                summaries = branches.summarize(FIRST_DAY, FIRST_DAY.plusDays(days - 1)).join();
+                reportMillis = Math.min(reportMillis, (System.nanoTime() - t) / 1e6);
+            }
+            long revenue = 0;
+            for (BranchSummary summary : summaries) revenue += summary.revenueCentavos;
+            result.put("branchReportMs", Math.round(reportMillis * 100) / 100.0)
+                    .put("branchReportRevenueCentavos", revenue);
+        }
+        branches.shutdown();
+        return result;
+    }
+}
@@ -0,0 +1,235 @@
+package bench;
+
+import manager.PricingEngine;
+import manager.SlotManager;
+import model.TransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * Replays whole operating days against SlotManager and TransactionManager:
+ * customers book 1-3 hour blocks (mostly in the evening), some cancel, and
+ * everyone looks things up; the admin pulls the day's transactions and the
+ * midnight archive runs between days. A fixed seed gives the same day every
+ * run; with one terminal the outcome counts are identical too.
+ *
+ * Options (all optional): --computers 20 --slots 10 --days 30 --customers 400
+ *   --lookups 3 --cancel-percent 10 --terminals 1 --seed 42 --out build/bench/cafe-day.json
+ */
+public class CafeDayLoad {
+    private static final String[] OPS = {"book", "cancel", "isSlotBooked", "findFirstFree",
+            "transactionsByUser", "transactionsByDate", "archiveDay"};
+    private static final int BOOK = 0, CANCEL = 1, IS_BOOKED = 2, FIND_FREE = 3, BY_USER = 4, BY_DATE = 5, ARCHIVE = 6;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 7);
+
+    private final int computers;
+    private final int slots;
+    private final int days;
+    private final int customers;
+    private final int lookups;
+    private final int cancelPercent;
+    private final int terminals;
+    private final long seed;
+
+    private final SlotManager slotManager;
+    private final TransactionManager transactionManager = new TransactionManager();
+    private final PricingEngine pricing;
+    private final Recorder[][] recorders;
+    private final long[] booked;
+    private final long[] rejected;
+    private final long[] cancelledSlots;
+
+    CafeDayLoad(int computers, int slots, int days, int customers, int lookups, int cancelPercent, int terminals, long seed) {
+        this.computers = computers;
+        this.slots = slots;
+        this.days = days;
+        this.customers = customers;
+        this.lookups = lookups;
+        this.cancelPercent = cancelPercent;
+        this.terminals = terminals;
+        this.seed = seed;
+        this.slotManager = new SlotManager(computers, slots, 0);
+        this.pricing = PricingEngine.defaults(computers, slots);
+        this.recorders = new Recorder[terminals][OPS.length];
+        for (Recorder[] row : recorders) {
+            for (int op = 0; op < OPS.length; op++) row[op] = new Recorder();
+        }
+        this.booked = new long[terminals];
+        this.rejected = new long[terminals];
+        this.cancelledSlots = new long[terminals];
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        CafeDayLoad load = new CafeDayLoad(options.get("computers", 20), options.get("slots", 10),
+                options.get("days", 30), options.get("customers", 400), options.get("lookups", 3),
+                options.get("cancel-percent", 10), options.get("terminals", 1), options.get("seed", 42));
+        Path out = Path.of(options.get("out", "build/bench/cafe-day.json"));
+
+        JsonReport report = load.run();
+        report.write(out);
+        System.out.println(report);
+        System.out.println("Results written to " + out);
+    }
+
+    JsonReport run() throws InterruptedException {
+        // The last terminal to finish a day runs the midnight archive before anyone starts the next
+        int[] day = {0};
+        CyclicBarrier midnight = new CyclicBarrier(terminals, () -> {
+            long start = System.nanoTime();
+            slotManager.archivePastDays(FIRST_DAY.plusDays(day[0] + 1));
+            recorders[0][ARCHIVE].add(System.nanoTime() - start);
+            day[0]++;
+        });
+
+        Thread[] threads = new Thread[terminals];
+        long start = System.nanoTime();
+        for (int t = 0; t < terminals; t++) {
+            int terminal = t;
+            threads[t] = new Thread(() -> runTerminal(terminal, midnight), "terminal-" + t);
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        JsonReport ops = new JsonReport();
+        long totalOps = 0;
+        for (int op = 0; op < OPS.length; op++) {
+            Recorder merged = new Recorder();
+            for (Recorder[] row : recorders) merged.addAll(row[op]);
+            totalOps += merged.size;
+            ops.put(OPS[op], JsonReport.latencies(merged.values, merged.size, seconds));
+        }
+
+        long revenueCentavos = 0;
+        for (int row = 0; row < transactionManager.size(); row++) {
+            revenueCentavos += transactionManager.getAmountCentavos(row);
+        }
+        return new JsonReport()
+                .put("benchmark", "cafe-day")
+                .put("config", new JsonReport().put("computers", computers).put("slots", slots).put("days", days)
+                        .put("customersPerDay", customers).put("lookupsPerCustomer", lookups)
+                        .put("cancelPercent", cancelPercent).put("terminals", terminals).put("seed", seed))
+                .put("java", System.getProperty("java.version"))
+                .put("elapsedSec", Math.round(seconds * 1000) / 1000.0)
+                .put("opsPerSec", Math.round(totalOps / seconds))
+                .put("ops", ops)
+                .put("result", new JsonReport().put("bookings", Arrays.stream(booked).sum())
+                        .put("rejected", Arrays.stream(rejected).sum())
+                        .put("cancelledSlots", Arrays.stream(cancelledSlots).sum())
+                        .put("transactions", transactionManager.size())
+                        .put("revenueCentavos", revenueCentavos)
+                        .put("archivedDates", slotManager.getArchivedDateCount()));
+    }
+
+    private void runTerminal(int terminal, CyclicBarrier midnight) {
+        Random random = new Random(seed * 31 + terminal);
+        Recorder[] rec = recorders[terminal];
+        List<int[]> held = new ArrayList<>();
+        for (int d = 0; d < days; d++) {
+            LocalDate date = FIRST_DAY.plusDays(d);
+            held.clear();
+            for (int c = terminal; c < customers; c += terminals) {
+                String user = "customer" + (c % (customers / 4 + 1));
+                // Evenings are busiest: the start slot leans towards the later hours
+                int from = Math.min(slots - 1, (int) (slots * Math.sqrt(random.nextDouble())));
+                int to = Math.min(slots - 1, from + random.nextInt(3));
+                int pc = random.nextInt(computers);
+
+                long t0 = System.nanoTime();
+                boolean ok = slotManager.bookRange(date, pc, from, to, user);
+                if (ok) {
+                    transactionManager.addBooking(user, pc, from, to,
+                            pricing.quote(date, pc, from, to, PricingEngine.DEFAULT_TIER),
+                            LocalDateTime.of(date, LocalTime.NOON), date);
+                }
+                rec[BOOK].add(System.nanoTime() - t0);
+                if (ok) {
+                    booked[terminal]++;
+                    held.add(new int[]{pc, from, to});
+                } else {
+                    rejected[terminal]++;
+                }
+
+                if (!held.isEmpty() && random.nextInt(100) < cancelPercent) {
+                    int[] booking = held.remove(random.nextInt(held.size()));
+                    t0 = System.nanoTime();
+                    for (int s = booking[1]; s <= booking[2]; s++) {
+                        slotManager.clearSlot(date, booking[0], s);
+                    }
+                    rec[CANCEL].add(System.nanoTime() - t0);
+                    cancelledSlots[terminal] += booking[2] - booking[1] + 1;
+                }
+
+                for (int l = 0; l < lookups; l++) {
+                    int kind = random.nextInt(10);
+                    t0 = System.nanoTime();
+                    if (kind < 7) {
+                        slotManager.isSlotBooked(date, random.nextInt(computers), random.nextInt(slots));
+                        rec[IS_BOOKED].add(System.nanoTime() - t0);
+                    } else if (kind < 9) {
+                        slotManager.findFirstFree(date, 0, date.plusDays(7), 1 + random.nextInt(3), p -> true);
+                        rec[FIND_FREE].add(System.nanoTime() - t0);
+                    } else {
+                        transactionManager.getTransactionsByUser(user).size();
+                        rec[BY_USER].add(System.nanoTime() - t0);
+                    }
+                }
+                // The admin checks the day's takings about once an hour
+                if ((c / terminals) % Math.max(1, customers / terminals / slots) == 0) {
+                    t0 = System.nanoTime();
+                    transactionManager.getTransactionsByDate(date).size();
+                    rec[BY_DATE].add(System.nanoTime() - t0);
+                }
+            }
+            try {
+                midnight.await();
+            } catch (InterruptedException | BrokenBarrierException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static class Recorder {
+        long[] values = new long[1024];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        void addAll(Recorder other) {
+            for (int i = 0; i < other.size; i++) add(other.values[i]);
+        }
+    }
+
+    // --name value pairs
+    static class Options {
+        private final String[] args;
+
+        Options(String[] args) {
+            this.args = args;
+        }
+
+        String get(String name, String fallback) {
+            for (int i = 0; i + 1 < args.length; i++) {
+                if (args[i].equals("--" + name)) return args[i + 1];
+            }
+            return fallback;
+        }
+
+        int get(String name, int fallback) {
+            return Integer.parseInt(get(name, String.valueOf(fallback)));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package bench;
+
+import manager.SlotManager;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Heap held by the slot grid: the packed SlotManager against the layout it
+ * replaced, a boolean[][] plus a parallel String[][] per date. Both get the
+ * same bookings (--percent of the cells on every date, by 500 members) and the
+ * heap each one retains is measured after a full GC.
+ *
+ * Options (all optional): --computers 1000 --slots 10 --days 365 --percent 10
+ *   --seed 42 --out build/bench/grid-heap.json
+ */
+public class GridHeapLoad {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 7);
+
+    public static void main(String[] args) throws Exception {
+        CafeDayLoad.Options options = new CafeDayLoad.Options(args);
+        int computers = options.get("computers", 1000);
+        int slots = options.get("slots", 10);
+        int days = options.get("days", 365);
+        int percent = options.get("percent", 10);
+        long seed = options.get("seed", 42);
+        Path out = Path.of(options.get("out", "build/bench/grid-heap.json"));
+
+        String[] users = new String[500];
+        for (int u = 0; u < users.length; u++) users[u] = "member" + u;
+        LocalDate[] dates = new LocalDate[days];
+        for (int d = 0; d < days; d++) dates[d] = FIRST_DAY.plusDays(d);
+
+        long baseline = usedHeap();
+        OldGrid old = new OldGrid(computers, slots);
+        int booked = fill(old, dates, computers, slots, percent, seed, users);
+        long oldBytes = usedHeap() - baseline;
+        if (old.bookedMap.size() != days) throw new IllegalStateException("Old grid lost a date");
+        old = null;
+
+        baseline = usedHeap();
+        SlotManager packed = new SlotManager(computers, slots, 0);
+        int packedBooked = fill(packed, dates, computers, slots, percent, seed, users);
+        long packedBytes = usedHeap() - baseline;
+        if (packedBooked != booked || packed.getLiveDateCount() != days) {
+            throw new IllegalStateException("Layouts disagree: " + booked + " vs " + packedBooked);
+        }
+
+        JsonReport report = new JsonReport()
+                .put("computers", computers)
+                .put("slots", slots)
+                .put("days", days)
+                .put("bookedCells", booked)
+                .put("oldLayoutMB", Math.round(oldBytes / 1e5) / 10.0)
+                .put("packedLayoutMB", Math.round(packedBytes / 1e5) / 10.0);
+        report.write(out);
+        System.out.println(report);
+        System.out.println("Results written to " + out);
+    }
+
+    private interface Grid {
+        boolean bookSlot(LocalDate date, int computerIndex, int timeIndex, String username);
+    }
+
+    private static int fill(Grid grid, LocalDate[] dates, int computers, int slots, int percent, long seed,
+                            String[] users) {
+        Random random = new Random(seed);
+        int booked = 0;
+        for (LocalDate date : dates) {
+            for (int pc = 0; pc < computers; pc++) {
+                for (int t = 0; t < slots; t++) {
+                    if (random.nextInt(100) < percent
+                            && grid.bookSlot(date, pc, t, users[random.nextInt(users.length)])) {
+                        booked++;
+                    }
+                }
+            }
+        }
+        return booked;
+    }
+
+    private static int fill(SlotManager slotManager, LocalDate[] dates, int computers, int slots, int percent,
+                            long seed, String[] users) {
+        return fill(slotManager::bookSlot, dates, computers, slots, percent, seed, users);
+    }
+
+    // SlotManager's storage before the grid was bit-packed
+    private static final class OldGrid implements Grid {
+        final Map<LocalDate, boolean[][]> bookedMap = new HashMap<>();
+        final Map<LocalDate, String[][]> bookedByMap = new HashMap<>();
+        final int computers;
+        final int slots;
+
+        OldGrid(int computers, int slots) {
+            this.computers = computers;
+            this.slots = slots;
+        }
+
+        @Override
+        public boolean bookSlot(LocalDate date, int computerIndex, int timeIndex, String username) {
+            boolean[][] booked = bookedMap.computeIfAbsent(date, d -> new boolean[computers][slots]);
+            String[][] bookedBy = bookedByMap.computeIfAbsent(date, d -> new String[computers][slots]);
+            if (booked[computerIndex][timeIndex]) return false;
+            booked[computerIndex][timeIndex] = true;
+            bookedBy[computerIndex][timeIndex] = username;
+            return true;
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
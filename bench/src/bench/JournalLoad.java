@@ -0,0 +1,102 @@
+package bench;
+
+import manager.SlotManager;
+import model.TransactionManager;
+import utils.BookingJournal;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking journal throughput at several group-commit intervals. For each
+ * interval --threads threads book single slots through a SlotManager with the
+ * journal attached for --seconds, first without waiting (what a booking costs
+ * while the committer keeps up) and then calling sync() after every booking
+ * (what a booking that waits to be durable costs). Every booking lands on a
+ * free cell, walking forward a day at a time. The fsync count is the
+ * journal's commit count for the run.
+ *
+ * Options (all optional): --intervals 1,5,20,100 --threads 8 --seconds 2
+ *   --dir (a temp directory) --out build/bench/journal.json
+ */
+public class JournalLoad {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 7);
+    private static final int COMPUTERS = 100;
+    private static final int SLOTS = 10;
+
+    public static void main(String[] args) throws Exception {
+        CafeDayLoad.Options options = new CafeDayLoad.Options(args);
+        String[] intervals = options.get("intervals", "1,5,20,100").split(",");
+        int threads = options.get("threads", 8);
+        int seconds = options.get("seconds", 2);
+        String dirOption = options.get("dir", null);
+        Path dir = dirOption != null ? Files.createDirectories(Path.of(dirOption))
+                : Files.createTempDirectory("journal-load");
+        Path out = Path.of(options.get("out", "build/bench/journal.json"));
+
+        JsonReport report = new JsonReport()
+                .put("threads", threads)
+                .put("seconds", seconds)
+                .put("cores", Runtime.getRuntime().availableProcessors());
+        // A short throwaway run warms up the JIT
+        run(dir, 10, threads, 1, false);
+        for (String interval : intervals) {
+            long millis = Long.parseLong(interval.trim());
+            long[] async = run(dir, millis, threads, seconds, false);
+            long[] synced = run(dir, millis, threads, seconds, true);
+            report.put("interval" + millis + "ms", new JsonReport()
+                    .put("asyncBookingsPerSec", async[0] / seconds)
+                    .put("asyncFsyncs", async[1])
+                    .put("syncedBookingsPerSec", synced[0] / seconds)
+                    .put("syncedFsyncs", synced[1]));
+        }
+        report.write(out);
+        System.out.println(report);
+        System.out.println("Results written to " + out);
+    }
+
+    // Bookings made and commits in one run against a fresh journal
+    private static long[] run(Path dir, long intervalMillis, int threads, int seconds, boolean sync) throws Exception {
+        Path file = dir.resolve("load.journal");
+        Files.deleteIfExists(file);
+        BookingJournal journal = new BookingJournal(file, intervalMillis);
+        SlotManager slotManager = new SlotManager(COMPUTERS, SLOTS, 0);
+        // Replaying the empty file starts the committer
+        journal.replay(slotManager, new TransactionManager());
+        slotManager.setJournal(journal);
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong cells = new AtomicLong();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            workers[t] = new Thread(() -> {
+                String user = "member" + worker;
+                try {
+                    while (!stop.get()) {
+                        long cell = cells.getAndIncrement();
+                        int inDay = (int) (cell % (COMPUTERS * SLOTS));
+                        if (!slotManager.bookSlot(FIRST_DAY.plusDays(cell / (COMPUTERS * SLOTS)),
+                                inDay / SLOTS, inDay % SLOTS, user)) {
+                            throw new IllegalStateException("Cell " + cell + " was already booked");
+                        }
+                        if (sync) journal.sync();
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }, "journal-load-" + t);
+            workers[t].start();
+        }
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        for (Thread worker : workers) worker.join();
+        long commits = journal.getCommitCount();
+        journal.close();
+        Files.deleteIfExists(file);
+        return new long[]{cells.get(), commits};
+    }
+}
@@ -0,0 +1,87 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Flat-ish JSON results file for the benchmark runners: string keys in
+ * insertion order, values that are numbers, strings, booleans or nested
+ * JsonReports. Kept dependency-free so the runners need nothing but the app.
+ */
+public class JsonReport {
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    public JsonReport put(String key, Object value) {
+        values.put(key, value);
+        return this;
+    }
+
+    // count, throughput and latency percentiles (microseconds) of one operation
+    public static JsonReport latencies(long[] nanos, int count, double seconds) {
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        JsonReport report = new JsonReport().put("count", count)
+                .put("opsPerSec", seconds > 0 ? Math.round(count / seconds) : 0);
+        if (count == 0) return report;
+        return report.put("p50Us", micros(sorted[count / 2]))
+                .put("p99Us", micros(sorted[Math.min(count - 1, (int) (count * 0.99))]))
+                .put("maxUs", micros(sorted[count - 1]));
+    }
+
+    public void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Files.writeString(file, toString() + "\n", StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        append(out, 0);
+        return out.toString();
+    }
+
+    private void append(StringBuilder out, int indent) {
+        out.append("{\n");
+        int i = 0;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            out.append("  ".repeat(indent + 1));
+            quote(out, entry.getKey());
+            out.append(": ");
+            Object value = entry.getValue();
+            if (value instanceof JsonReport) {
+                ((JsonReport) value).append(out, indent + 1);
+            } else if (value instanceof Number || value instanceof Boolean) {
+                out.append(value);
+            } else {
+                quote(out, String.valueOf(value));
+            }
+            out.append(++i < values.size() ? ",\n" : "\n");
+        }
+        out.append("  ".repeat(indent)).append('}');
+    }
+
+    private static void quote(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    private static double micros(long nanos) {
+        return Math.round(nanos / 100.0) / 10.0;
+    }
+}
@@ -0,0 +1,146 @@
+package bench;
+
+import manager.SlotManager;
+import ui.SlotCellRenderer;
+import ui.SlotTableModel;
+
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableCellRenderer;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Time and garbage per frame of the booking grid: the shared SlotCellRenderer
+ * against the per-screen renderer it replaced, which made new Colors for every
+ * cell and lower-cased the text to find "booked". Each frame either prepares
+ * the renderer for every cell (the renderer on its own) or paints the whole
+ * table into an image in bands (what the user waits for). Runs headless, on
+ * the EDT; allocation is read from the JDK's per-thread counter.
+ *
+ * Options (all optional): --computers 1000 --frames 200 --out build/bench/renderer.json
+ */
+public class RendererLoad {
+    private static final LocalDate DATE = LocalDate.of(2030, 1, 7);
+    private static final int BAND_HEIGHT = 800;
+    // Keeps the prepared cells from being optimised away
+    static volatile int sink;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        CafeDayLoad.Options options = new CafeDayLoad.Options(args);
+        int computers = options.get("computers", 1000);
+        int frames = options.get("frames", 200);
+        Path out = Path.of(options.get("out", "build/bench/renderer.json"));
+
+        // Every other computer booked all day
+        SlotManager slotManager = new SlotManager(computers, 10, 0);
+        for (int pc = 0; pc < computers; pc += 2) {
+            slotManager.bookRange(DATE, pc, 0, 9, "member" + pc % 500);
+        }
+
+        JsonReport report = new JsonReport()
+                .put("computers", computers)
+                .put("slots", 10)
+                .put("frames", frames);
+        SwingUtilities.invokeAndWait(() -> {
+            SlotTableModel model = SlotTableModel.open(slotManager, DATE);
+            JTable table = new JTable(model);
+            table.setSize(1100, table.getRowHeight() * computers);
+            BufferedImage image = new BufferedImage(1100, BAND_HEIGHT, BufferedImage.TYPE_INT_RGB);
+            TableCellRenderer[] renderers = {new OldRenderer(), new SlotCellRenderer()};
+            String[] names = {"oldRenderer", "slotCellRenderer"};
+            for (int r = 0; r < renderers.length; r++) {
+                table.setDefaultRenderer(Object.class, renderers[r]);
+                // The first half of the frames warm up
+                measure(table, renderers[r], image, frames / 2);
+                double[] prepare = measure(table, renderers[r], null, frames);
+                measure(table, renderers[r], image, frames / 2);
+                double[] paint = measure(table, renderers[r], image, frames);
+                report.put(names[r], new JsonReport()
+                        .put("prepareMsPerFrame", prepare[0])
+                        .put("prepareKBPerFrame", prepare[1])
+                        .put("paintMsPerFrame", paint[0])
+                        .put("paintKBPerFrame", paint[1]));
+            }
+            model.close();
+        });
+        report.write(out);
+        System.out.println(report);
+        System.out.println("Results written to " + out);
+    }
+
+    // Milliseconds and kilobytes allocated per frame; paints when given an image,
+    // otherwise only prepares the renderer for every cell
+    private static double[] measure(JTable table, TableCellRenderer renderer, BufferedImage image, int frames) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long bytes = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        int colors = 0;
+        for (int f = 0; f < frames; f++) {
+            if (image == null) {
+                for (int row = 0; row < table.getRowCount(); row++) {
+                    for (int col = 0; col < table.getColumnCount(); col++) {
+                        colors += table.prepareRenderer(renderer, row, col).getBackground().getRGB();
+                    }
+                }
+            } else {
+                for (int y = 0; y < table.getHeight(); y += BAND_HEIGHT) {
+                    Graphics2D g = image.createGraphics();
+                    g.translate(0, -y);
+                    g.setClip(0, y, image.getWidth(), BAND_HEIGHT);
+                    table.paint(g);
+                    g.dispose();
+                }
+            }
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / frames;
+        double kilobytes = (threads.getThreadAllocatedBytes(thread) - bytes) / 1024.0 / frames;
+        sink = colors;
+        return new double[]{Math.round(millis * 100) / 100.0, Math.round(kilobytes * 10) / 10.0};
+    }
+
+    // The renderer both screens had before SlotCellRenderer, fed the cell's text as the old
+    // string-valued table did
+    private static final class OldRenderer extends DefaultTableCellRenderer {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Component getTableCellRendererComponent(JTable tbl, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int col) {
+            String text = ((SlotTableModel) tbl.getModel()).getLabel(row, col);
+            Component comp = super.getTableCellRendererComponent(tbl, text, isSelected, hasFocus, row, col);
+            String cellValue = text != null ? text : "";
+
+            if (col == 0) {
+                comp.setBackground(new Color(245, 238, 224));
+                comp.setForeground(new Color(70, 50, 30));
+                setHorizontalAlignment(LEFT);
+            } else if (cellValue.toLowerCase().contains("booked")) {
+                comp.setBackground(new Color(248, 215, 218));
+                comp.setForeground(new Color(115, 0, 15));
+                setHorizontalAlignment(CENTER);
+            } else if (cellValue.toLowerCase().contains("available")) {
+                comp.setBackground(new Color(212, 237, 218));
+                comp.setForeground(new Color(21, 87, 36));
+                setHorizontalAlignment(CENTER);
+            } else {
+                comp.setBackground(Color.WHITE);
+                comp.setForeground(Color.BLACK);
+                setHorizontalAlignment(CENTER);
+            }
+
+            if (isSelected) {
+                comp.setBackground(new Color(255, 235, 205));
+            }
+            return comp;
+        }
+    }
+}
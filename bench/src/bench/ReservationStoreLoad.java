@@ -0,0 +1,176 @@
+package bench;
+
+import manager.SlotManager;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Compares the dense slot grid with the minute reservation store on a 24-hour
+ * branch selling sessions of 15 minutes to 3 hours. The dense side is a
+ * SlotManager whose slots are --cell minutes wide (96 a day at 15 minutes);
+ * the interval side holds the same sessions as reservations. Both get the
+ * same sessions, then the same lookups and the same day views, and the heap
+ * each one retains is measured after a full GC.
+ *
+ * Options (all optional): --computers 20 --days 60 --cell 15 --occupancy 70
+ *   --lookups 1000000 --seed 42 --out build/bench/reservations.json
+ */
+public class ReservationStoreLoad {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 7);
+    private static final int[] SESSION_MINUTES = {15, 30, 30, 60, 60, 60, 90, 120, 180};
+
+    public static void main(String[] args) throws Exception {
+        CafeDayLoad.Options options = new CafeDayLoad.Options(args);
+        int computers = options.get("computers", 20);
+        int days = options.get("days", 60);
+        int cell = options.get("cell", 15);
+        int occupancy = options.get("occupancy", 70);
+        int lookups = options.get("lookups", 1_000_000);
+        long seed = options.get("seed", 42);
+        Path out = Path.of(options.get("out", "build/bench/reservations.json"));
+        if (1440 % cell != 0) throw new IllegalArgumentException("--cell must divide a day");
+        int cellsPerDay = 1440 / cell;
+
+        // Sessions start on a cell boundary with a gap before each one, so both stores accept all of them
+        Random random = new Random(seed);
+        int[] session = new int[computers * days * cellsPerDay * 3];
+        int sessions = 0;
+        for (int pc = 0; pc < computers; pc++) {
+            for (int day = 0; day < days; day++) {
+                int minute = 0;
+                while (true) {
+                    int length = SESSION_MINUTES[random.nextInt(SESSION_MINUTES.length)];
+                    int meanGapCells = length * (100 - occupancy) / occupancy / cell;
+                    minute += cell * random.nextInt(2 * meanGapCells + 1);
+                    if (minute + length > 1440) break;
+                    session[sessions * 3] = pc;
+                    session[sessions * 3 + 1] = day * 1440 + minute;
+                    session[sessions * 3 + 2] = length;
+                    sessions++;
+                    minute += length;
+                }
+            }
+        }
+        String[] users = new String[500];
+        for (int u = 0; u < users.length; u++) users[u] = "member" + u;
+
+        LocalDateTime origin = FIRST_DAY.atStartOfDay();
+        LocalDateTime[] minutes = new LocalDateTime[days * 1440 + 1];
+        for (int m = 0; m < minutes.length; m++) minutes[m] = origin.plusMinutes(m);
+
+        // A throwaway fill of each warms up the JIT before the measured one
+        fillDense(computers, cell, session, sessions, users);
+        fillIntervals(computers, minutes, session, sessions, users);
+        long baseline = usedHeap();
+        long denseStart = System.nanoTime();
+        SlotManager dense = fillDense(computers, cell, session, sessions, users);
+        double denseFillNanos = (System.nanoTime() - denseStart) / (double) sessions;
+        long denseBytes = usedHeap() - baseline;
+
+        baseline = usedHeap();
+        long intervalStart = System.nanoTime();
+        SlotManager intervals = fillIntervals(computers, minutes, session, sessions, users);
+        double intervalFillNanos = (System.nanoTime() - intervalStart) / (double) sessions;
+        long intervalBytes = usedHeap() - baseline;
+
+        // Random point lookups and 60-minute overlap checks, best of five passes
+        int[] pcs = random.ints(lookups, 0, computers).toArray();
+        int[] at = random.ints(lookups, 0, days * 1440 - 60).toArray();
+        double denseLookup = Double.MAX_VALUE;
+        double intervalLookup = Double.MAX_VALUE;
+        double intervalOverlap = Double.MAX_VALUE;
+        long agree = 0;
+        for (int pass = 0; pass < 5; pass++) {
+            long t = System.nanoTime();
+            long hits = 0;
+            for (int i = 0; i < lookups; i++) {
+                if (dense.isSlotBooked(FIRST_DAY.plusDays(at[i] / 1440), pcs[i], (at[i] % 1440) / cell)) hits++;
+            }
+            denseLookup = Math.min(denseLookup, (System.nanoTime() - t) / (double) lookups);
+            t = System.nanoTime();
+            long intervalHits = 0;
+            for (int i = 0; i < lookups; i++) {
+                if (intervals.getReservedBy(pcs[i], origin.plusMinutes(at[i])) != null) intervalHits++;
+            }
+            intervalLookup = Math.min(intervalLookup, (System.nanoTime() - t) / (double) lookups);
+            if (hits != intervalHits) throw new IllegalStateException("Stores disagree: " + hits + " vs " + intervalHits);
+            agree = hits;
+            t = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                LocalDateTime start = origin.plusMinutes(at[i]);
+                if (intervals.isFree(pcs[i], start, start.plusMinutes(60))) hits++;
+            }
+            intervalOverlap = Math.min(intervalOverlap, (System.nanoTime() - t) / (double) lookups);
+        }
+
+        // Every computer's day as a grid of cells: the dense copy versus rendering each row
+        int[] denseCells = new int[computers * cellsPerDay];
+        int[] row = new int[cellsPerDay];
+        double denseView = Double.MAX_VALUE;
+        double intervalView = Double.MAX_VALUE;
+        for (int pass = 0; pass < 5; pass++) {
+            long t = System.nanoTime();
+            for (int day = 0; day < days; day++) dense.copyOccupants(FIRST_DAY.plusDays(day), denseCells);
+            denseView = Math.min(denseView, (System.nanoTime() - t) / (double) days);
+            t = System.nanoTime();
+            for (int day = 0; day < days; day++) {
+                for (int pc = 0; pc < computers; pc++) intervals.renderOccupants(pc, minutes[day * 1440], cell, row);
+            }
+            intervalView = Math.min(intervalView, (System.nanoTime() - t) / (double) days);
+        }
+
+        JsonReport report = new JsonReport()
+                .put("computers", computers)
+                .put("days", days)
+                .put("cellMinutes", cell)
+                .put("sessions", sessions)
+                .put("bookedCellsSampled", agree)
+                .put("denseBytes", denseBytes)
+                .put("intervalBytes", intervalBytes)
+                .put("denseFillNsPerSession", Math.round(denseFillNanos))
+                .put("intervalFillNsPerSession", Math.round(intervalFillNanos))
+                .put("denseLookupNs", Math.round(denseLookup))
+                .put("intervalLookupNs", Math.round(intervalLookup))
+                .put("intervalOverlapCheckNs", Math.round(intervalOverlap))
+                .put("denseDayViewUs", Math.round(denseView / 1000))
+                .put("intervalDayViewUs", Math.round(intervalView / 1000));
+        report.write(out);
+        System.out.println(report);
+        System.out.println("Results written to " + out);
+    }
+
+    private static SlotManager fillDense(int computers, int cell, int[] session, int sessions, String[] users) {
+        SlotManager dense = new SlotManager(computers, 1440 / cell, 0);
+        for (int s = 0; s < sessions; s++) {
+            int start = session[s * 3 + 1];
+            int from = (start % 1440) / cell;
+            if (!dense.bookRange(FIRST_DAY.plusDays(start / 1440), session[s * 3], from,
+                    from + session[s * 3 + 2] / cell - 1, users[s % users.length])) {
+                throw new IllegalStateException("Dense grid refused session " + s);
+            }
+        }
+        return dense;
+    }
+
+    private static SlotManager fillIntervals(int computers, LocalDateTime[] minutes, int[] session, int sessions,
+                                             String[] users) {
+        SlotManager intervals = new SlotManager(computers, 1, 0);
+        for (int s = 0; s < sessions; s++) {
+            int start = session[s * 3 + 1];
+            if (!intervals.reserve(session[s * 3], minutes[start], minutes[start + session[s * 3 + 2]],
+                    users[s % users.length])) {
+                throw new IllegalStateException("Reservation store refused session " + s);
+            }
+        }
+        return intervals;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,121 @@
+package bench;
+
+import ComputerBookingSystems.BookingSystemApp;
+import manager.BookingService;
+import manager.SlotManager;
+import model.TransactionManager;
+import utils.BookingJournal;
+import utils.BookingSnapshot;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Startup restore time: replaying a whole journal against the app's own
+ * restore from a snapshot of the same state. For each size in --bookings,
+ * every booking is one slot on a free cell of a --computers x 10 grid plus
+ * its transaction, written through managers attached to a journal. The
+ * journal is then replayed into fresh managers and a snapshot is written
+ * from them. loginReadyMs is BookingSystemApp.restore on that snapshot and
+ * an empty journal tail, members and tariff included: the time until the
+ * login screen lets anyone in. 10M bookings need about -Xmx4g.
+ *
+ * Options (all optional): --bookings 10000,1000000,10000000 --computers 1000 --skipReplayAbove 5000000
+ *   --dir (a temp directory) --out build/bench/restore.json
+ */
+public class RestoreLoad {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 7);
+    private static final int SLOTS = 10;
+
+    public static void main(String[] args) throws Exception {
+        CafeDayLoad.Options options = new CafeDayLoad.Options(args);
+        String[] sizes = options.get("bookings", "10000,1000000,10000000").split(",");
+        int computers = options.get("computers", 1000);
+        int skipReplayAbove = options.get("skipReplayAbove", 5_000_000);
+        String dirOption = options.get("dir", null);
+        Path dir = dirOption != null ? Files.createDirectories(Path.of(dirOption))
+                : Files.createTempDirectory("restore-load");
+        Path out = Path.of(options.get("out", "build/bench/restore.json"));
+        System.setProperty("booking.users", dir.resolve("restore-users.db").toString());
+        System.setProperty("booking.adminPassword", "restore-load");
+        System.setProperty("booking.tariff", dir.resolve("restore-tariff.properties").toString());
+
+        JsonReport report = new JsonReport().put("computers", computers);
+        // A small throwaway round warms up the JIT
+        run(dir, 10_000, computers, true);
+        for (String size : sizes) {
+            int bookings = Integer.parseInt(size.trim());
+            report.put("bookings" + bookings, run(dir, bookings, computers, bookings <= skipReplayAbove));
+        }
+        report.write(out);
+        System.out.println(report);
+        System.out.println("Results written to " + out);
+    }
+
+    private static JsonReport run(Path dir, int bookings, int computers, boolean replay) throws Exception {
+        Path journalFile = dir.resolve("restore.journal");
+        Path snapshotFile = dir.resolve("restore.snapshot");
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(snapshotFile);
+
+        SlotManager slotManager = new SlotManager(computers, SLOTS, 0);
+        TransactionManager transactionManager = new TransactionManager();
+        BookingJournal journal = replay ? new BookingJournal(journalFile, 10) : null;
+        if (journal != null) {
+            journal.replay(slotManager, transactionManager);
+            slotManager.setJournal(journal);
+            transactionManager.setJournal(journal);
+        }
+        LocalDateTime bookedAt = FIRST_DAY.atTime(9, 0);
+        for (int i = 0; i < bookings; i++) {
+            LocalDate date = FIRST_DAY.plusDays(i / (computers * SLOTS));
+            int pc = i / SLOTS % computers;
+            int slot = i % SLOTS;
+            String user = "member" + i % 500;
+            slotManager.bookSlot(date, pc, slot, user);
+            transactionManager.addBooking(user, pc, slot, slot, 2000, bookedAt, date);
+        }
+        JsonReport result = new JsonReport();
+        if (journal != null) {
+            journal.close();
+            result.put("journalMB", Math.round(Files.size(journalFile) / 1e5) / 10.0);
+            slotManager = new SlotManager(computers, SLOTS, 0);
+            transactionManager = new TransactionManager();
+            long start = System.nanoTime();
+            try (BookingJournal replayed = new BookingJournal(journalFile, 10)) {
+                replayed.replay(slotManager, transactionManager);
+            }
+            result.put("journalReplayMs", Math.round((System.nanoTime() - start) / 1e6));
+            check(transactionManager, bookings);
+        }
+
+        BookingSnapshot.write(snapshotFile, slotManager, transactionManager, null);
+        result.put("snapshotMB", Math.round(Files.size(snapshotFile) / 1e5) / 10.0);
+        slotManager = null;
+        transactionManager = null;
+        Files.deleteIfExists(journalFile);
+        System.gc();
+        long start = System.nanoTime();
+        BookingService service = new BookingService(BookingService.DEFAULT_BRANCH,
+                new SlotManager(computers, SLOTS, 0), new TransactionManager());
+        try (BookingJournal tail = new BookingJournal(journalFile, 10)) {
+            BookingSystemApp.restore(snapshotFile, tail, service);
+            result.put("loginReadyMs", Math.round((System.nanoTime() - start) / 1e6));
+            check(service.getTransactionManager(), bookings);
+        } finally {
+            service.shutdown();
+        }
+
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(snapshotFile);
+        return result;
+    }
+
+    private static void check(TransactionManager transactionManager, int bookings) {
+        if (transactionManager.size() != bookings) {
+            throw new IllegalStateException("Restored " + transactionManager.size() + " of " + bookings + " transactions");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package bench;
+
+import manager.SlotManager;
+import model.Transaction;
+import model.TransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Heap held by the transaction history: TransactionManager's primitive
+ * columns against the store they replaced, a list of Transaction objects
+ * plus by-user, by-date and by-computer indexes of them. Both get the same
+ * bookings, built the way the booking screen built them, and the heap each
+ * one retains is measured after a full GC.
+ *
+ * Options (all optional): --transactions 1000000 --users 500 --days 365
+ *   --computers 20 --seed 42 --out build/bench/transaction-heap.json
+ */
+public class TransactionHeapLoad {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public static void main(String[] args) throws Exception {
+        CafeDayLoad.Options options = new CafeDayLoad.Options(args);
+        int transactions = options.get("transactions", 1_000_000);
+        int users = options.get("users", 500);
+        int days = options.get("days", 365);
+        int computers = options.get("computers", 20);
+        long seed = options.get("seed", 42);
+        Path out = Path.of(options.get("out", "build/bench/transaction-heap.json"));
+
+        String[] names = new String[users];
+        for (int u = 0; u < users; u++) names[u] = "member" + u;
+
+        long baseline = usedHeap();
+        OldTransactionStore old = new OldTransactionStore();
+        Random random = new Random(seed);
+        LocalDateTime bookedAt = FIRST_DAY.atTime(9, 0);
+        for (int i = 0; i < transactions; i++) {
+            int pc = random.nextInt(computers);
+            int from = random.nextInt(10);
+            int to = Math.min(9, from + random.nextInt(3));
+            LocalDate date = FIRST_DAY.plusDays(random.nextInt(days));
+            old.addTransaction(new Transaction(names[random.nextInt(users)], "PC-" + (pc + 1),
+                    SlotManager.slotRangeLabel(from, to), 20.0 * (to - from + 1),
+                    bookedAt.plusSeconds(i).format(TIMESTAMP), date));
+        }
+        long oldBytes = usedHeap() - baseline;
+        if (old.transactions.size() != transactions) throw new IllegalStateException("Old store lost rows");
+        old = null;
+
+        baseline = usedHeap();
+        TransactionManager columns = new TransactionManager();
+        random = new Random(seed);
+        for (int i = 0; i < transactions; i++) {
+            int pc = random.nextInt(computers);
+            int from = random.nextInt(10);
+            int to = Math.min(9, from + random.nextInt(3));
+            LocalDate date = FIRST_DAY.plusDays(random.nextInt(days));
+            columns.addBooking(names[random.nextInt(users)], pc, from, to, 2000L * (to - from + 1),
+                    bookedAt.plusSeconds(i), date);
+        }
+        long columnBytes = usedHeap() - baseline;
+        if (columns.size() != transactions) throw new IllegalStateException("Columns lost rows");
+
+        JsonReport report = new JsonReport()
+                .put("transactions", transactions)
+                .put("users", users)
+                .put("days", days)
+                .put("objectStoreMB", Math.round(oldBytes / 1e5) / 10.0)
+                .put("columnStoreMB", Math.round(columnBytes / 1e5) / 10.0);
+        report.write(out);
+        System.out.println(report);
+        System.out.println("Results written to " + out);
+    }
+
+    // TransactionManager's storage before the columns
+    private static final class OldTransactionStore {
+        final List<Transaction> transactions = new ArrayList<>();
+        final Map<String, List<Transaction>> byUser = new HashMap<>();
+        final NavigableMap<LocalDate, List<Transaction>> byBookingDate = new TreeMap<>();
+        final Map<String, List<Transaction>> byComputer = new HashMap<>();
+
+        void addTransaction(Transaction transaction) {
+            transactions.add(transaction);
+            byUser.computeIfAbsent(transaction.user, k -> new ArrayList<>()).add(transaction);
+            byBookingDate.computeIfAbsent(transaction.bookingDate, k -> new ArrayList<>()).add(transaction);
+            byComputer.computeIfAbsent(transaction.computerId, k -> new ArrayList<>()).add(transaction);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
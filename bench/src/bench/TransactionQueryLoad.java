@@ -0,0 +1,163 @@
+package bench;
+
+import model.Transaction;
+import model.TransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Transaction lookups by date, by user and over a 7-day range: the indexed
+ * TransactionManager queries against scanning every transaction, as the
+ * screens did before the indexes. The scan runs over an ArrayList of the same
+ * rows as Transaction objects, which is how they were held then. Indexed
+ * queries are timed both as the bare lookup and walking the rows they return;
+ * times are the best of --passes runs over --queries keys.
+ *
+ * Options (all optional): --transactions 1000000 --users 20000 --days 365
+ *   --computers 200 --queries 20 --passes 5 --seed 42 --out build/bench/transaction-queries.json
+ */
+public class TransactionQueryLoad {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+
+    public static void main(String[] args) throws Exception {
+        CafeDayLoad.Options options = new CafeDayLoad.Options(args);
+        int transactions = options.get("transactions", 1_000_000);
+        int users = options.get("users", 20_000);
+        int days = options.get("days", 365);
+        int computers = options.get("computers", 200);
+        int queries = options.get("queries", 20);
+        int passes = options.get("passes", 5);
+        long seed = options.get("seed", 42);
+        Path out = Path.of(options.get("out", "build/bench/transaction-queries.json"));
+
+        Random random = new Random(seed);
+        TransactionManager transactionManager = new TransactionManager();
+        LocalDateTime bookedAt = FIRST_DAY.atTime(9, 0);
+        for (int i = 0; i < transactions; i++) {
+            int from = random.nextInt(10);
+            transactionManager.addBooking("member" + random.nextInt(users), random.nextInt(computers), from,
+                    Math.min(9, from + random.nextInt(3)), 2000, bookedAt, FIRST_DAY.plusDays(random.nextInt(days)));
+        }
+        List<Transaction> scanned = new ArrayList<>(transactionManager.getAllTransactions());
+
+        LocalDate[] dates = new LocalDate[queries];
+        String[] names = new String[queries];
+        for (int q = 0; q < queries; q++) {
+            dates[q] = FIRST_DAY.plusDays(random.nextInt(days - 7));
+            names[q] = "member" + random.nextInt(users);
+        }
+
+        double dateScan = Double.MAX_VALUE;
+        double dateLookup = Double.MAX_VALUE;
+        double dateIndexed = Double.MAX_VALUE;
+        double userScan = Double.MAX_VALUE;
+        double userLookup = Double.MAX_VALUE;
+        double userIndexed = Double.MAX_VALUE;
+        double rangeLookup = Double.MAX_VALUE;
+        double range = Double.MAX_VALUE;
+        long rangeRows = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            long t = System.nanoTime();
+            long scanHits = 0;
+            for (LocalDate date : dates) {
+                for (Transaction transaction : scanned) {
+                    if (transaction.bookingDate.equals(date)) scanHits++;
+                }
+            }
+            dateScan = Math.min(dateScan, (System.nanoTime() - t) / 1e6 / queries);
+            t = System.nanoTime();
+            long lookupHits = 0;
+            for (LocalDate date : dates) {
+                lookupHits += transactionManager.getTransactionsByDate(date).size();
+            }
+            dateLookup = Math.min(dateLookup, (System.nanoTime() - t) / 1e6 / queries);
+            check("date", scanHits, lookupHits);
+            t = System.nanoTime();
+            long indexHits = 0;
+            for (LocalDate date : dates) {
+                indexHits += walk(transactionManager.getTransactionsByDate(date));
+            }
+            dateIndexed = Math.min(dateIndexed, (System.nanoTime() - t) / 1e6 / queries);
+            check("date", scanHits, indexHits);
+
+            t = System.nanoTime();
+            scanHits = 0;
+            for (String name : names) {
+                for (Transaction transaction : scanned) {
+                    if (transaction.user.equals(name)) scanHits++;
+                }
+            }
+            userScan = Math.min(userScan, (System.nanoTime() - t) / 1e6 / queries);
+            t = System.nanoTime();
+            lookupHits = 0;
+            for (String name : names) {
+                lookupHits += transactionManager.getTransactionsByUser(name).size();
+            }
+            userLookup = Math.min(userLookup, (System.nanoTime() - t) / 1e6 / queries);
+            check("user", scanHits, lookupHits);
+            t = System.nanoTime();
+            indexHits = 0;
+            for (String name : names) {
+                indexHits += walk(transactionManager.getTransactionsByUser(name));
+            }
+            userIndexed = Math.min(userIndexed, (System.nanoTime() - t) / 1e6 / queries);
+            check("user", scanHits, indexHits);
+
+            t = System.nanoTime();
+            lookupHits = 0;
+            for (LocalDate date : dates) {
+                lookupHits += transactionManager.getTransactionsBetween(date, date.plusDays(6)).size();
+            }
+            rangeLookup = Math.min(rangeLookup, (System.nanoTime() - t) / 1e6 / queries);
+            t = System.nanoTime();
+            rangeRows = 0;
+            for (LocalDate date : dates) {
+                rangeRows += walk(transactionManager.getTransactionsBetween(date, date.plusDays(6)));
+            }
+            range = Math.min(range, (System.nanoTime() - t) / 1e6 / queries);
+            check("range", lookupHits, rangeRows);
+        }
+
+        JsonReport report = new JsonReport()
+                .put("transactions", transactions)
+                .put("users", users)
+                .put("days", days)
+                .put("computers", computers)
+                .put("dateScanMs", round(dateScan))
+                .put("dateLookupMs", round(dateLookup))
+                .put("dateIndexedWalkMs", round(dateIndexed))
+                .put("userScanMs", round(userScan))
+                .put("userLookupMs", round(userLookup))
+                .put("userIndexedWalkMs", round(userIndexed))
+                .put("sevenDayRangeLookupMs", round(rangeLookup))
+                .put("sevenDayRangeWalkMs", round(range))
+                .put("sevenDayRangeRows", rangeRows / queries);
+        report.write(out);
+        System.out.println(report);
+        System.out.println("Results written to " + out);
+    }
+
+    // Reads every row, since the indexed views build their Transaction objects lazily
+    private static long walk(List<Transaction> rows) {
+        long count = 0;
+        for (Transaction transaction : rows) {
+            if (transaction.user != null) count++;
+        }
+        return count;
+    }
+
+    private static void check(String query, long scanned, long indexed) {
+        if (scanned != indexed) {
+            throw new IllegalStateException("By " + query + ": scan found " + scanned + ", index " + indexed);
+        }
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 1000) / 1000.0;
+    }
+}
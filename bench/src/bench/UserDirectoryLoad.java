@@ -0,0 +1,128 @@
+package bench;
+
+import manager.UserDirectory;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds a member directory file, then times loading it, username lookups and
+ * logins. Every member gets a real salt and iteration count, but only the
+ * members that log in get a real PBKDF2 hash, so writing 100k members takes
+ * seconds instead of hours; loading costs the same either way.
+ *
+ * Options (all optional): --users 100000 --logins 40 --threads 1 --loads 5
+ *   --iterations 600000 --seed 42 --out build/bench/users.json
+ */
+public class UserDirectoryLoad {
+    public static void main(String[] args) throws Exception {
+        CafeDayLoad.Options options = new CafeDayLoad.Options(args);
+        int users = options.get("users", 100_000);
+        int logins = options.get("logins", 40);
+        int threads = options.get("threads", 1);
+        int loads = options.get("loads", 5);
+        int iterations = options.get("iterations", UserDirectory.DEFAULT_ITERATIONS);
+        Random random = new Random(options.get("seed", 42));
+        Path out = Path.of(options.get("out", "build/bench/users.json"));
+
+        Path file = Files.createTempFile("members", ".db");
+        try {
+            // Members 0, step, 2*step... can log in with password "pw" + index
+            int step = Math.max(1, users / logins);
+            long writeStart = System.nanoTime();
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                byte[] hash = new byte[32];
+                for (int u = 0; u < users; u++) {
+                    byte[] salt = new byte[16];
+                    random.nextBytes(salt);
+                    if (u % step == 0) {
+                        hash = UserDirectory.hash(("pw" + u).toCharArray(), salt, iterations);
+                    } else {
+                        random.nextBytes(hash);
+                    }
+                    writer.write(UserDirectory.line("member" + u, u == 0 ? "admin" : "customer", iterations, salt, hash));
+                }
+            }
+            double writeSeconds = (System.nanoTime() - writeStart) / 1e9;
+
+            long[] loadNanos = new long[loads];
+            UserDirectory directory = null;
+            for (int i = 0; i < loads; i++) {
+                long start = System.nanoTime();
+                directory = UserDirectory.load(file);
+                loadNanos[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(loadNanos);
+
+            // Half the names are members and half are not, looked up in random order
+            int lookups = users * 2;
+            int[] order = random.ints(lookups, 0, users * 2).toArray();
+            String[] names = new String[users * 2];
+            for (int i = 0; i < names.length; i++) names[i] = (i < users ? "member" : "guest") + i;
+            // Best of five passes, the first ones warm up the JIT
+            double lookupNanos = Double.MAX_VALUE;
+            int found = 0;
+            for (int pass = 0; pass < 5; pass++) {
+                long lookupStart = System.nanoTime();
+                found = 0;
+                for (int i : order) {
+                    if (directory.contains(names[i])) found++;
+                }
+                lookupNanos = Math.min(lookupNanos, (System.nanoTime() - lookupStart) / (double) lookups);
+            }
+
+            JsonReport report = new JsonReport()
+                    .put("users", directory.size())
+                    .put("iterations", iterations)
+                    .put("fileBytes", Files.size(file))
+                    .put("writeSeconds", Math.round(writeSeconds * 10) / 10.0)
+                    .put("loadMsMin", loadNanos[0] / 1_000_000)
+                    .put("loadMsMedian", loadNanos[loads / 2] / 1_000_000)
+                    .put("lookupNsPerOp", Math.round(lookupNanos))
+                    .put("lookupHits", found)
+                    .put("login", logins(directory, users, step, logins, threads, 0))
+                    .put("wrongPassword", logins(directory, users, step, logins, threads, 1))
+                    .put("unknownUser", logins(directory, users, step, logins, threads, 2));
+            report.write(out);
+            System.out.println(report);
+            System.out.println("Results written to " + out);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // kind 0: right password, 1: wrong password, 2: no such member
+    private static JsonReport logins(UserDirectory directory, int users, int step, int logins, int threads,
+                                     int kind) throws Exception {
+        long[] nanos = new long[logins];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            Future<?>[] futures = new Future<?>[logins];
+            for (int i = 0; i < logins; i++) {
+                int slot = i;
+                int member = (i * step) % users;
+                futures[i] = pool.submit(() -> {
+                    String name = kind == 2 ? "guest" + member : "member" + member;
+                    char[] password = (kind == 1 ? "nope" : "pw" + member).toCharArray();
+                    long t = System.nanoTime();
+                    boolean accepted = directory.authenticate(name, password) != null;
+                    nanos[slot] = System.nanoTime() - t;
+                    if (accepted != (kind == 0)) throw new IllegalStateException("Unexpected login result for " + name);
+                    return null;
+                });
+            }
+            for (Future<?> future : futures) future.get();
+        } finally {
+            pool.shutdown();
+        }
+        return JsonReport.latencies(nanos, logins, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,41 @@
+package ComputerBookingSystems;
+
+import manager.BookingService;
+import manager.SlotManager;
+import model.TransactionManager;
+import net.BookingProtocol;
+import net.BookingServer;
+import trace.BookingTrace;
+import utils.BookingJournal;
+import utils.BookingMetrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Headless mode: owns the bookings, journal and receipts and serves them to
+ * the terminals started with -Dbooking.server=host:port. It listens on
+ * loopback only unless -Dbooking.host names the café LAN address.
+ */
+public class BookingServerApp {
+    public static void main(String[] args) throws IOException {
+        BookingTrace.startIfRequested();
+        BookingMetrics.get().register();
+        SlotManager slotManager = new SlotManager();
+        TransactionManager transactionManager = new TransactionManager();
+        BookingService bookingService = new BookingService(slotManager, transactionManager);
+
+        Path snapshotFile = Path.of(System.getProperty("booking.snapshot", "bookings.snapshot"));
+        BookingJournal journal = new BookingJournal(
+                Path.of(System.getProperty("booking.journal", "bookings.journal")),
+                Long.getLong("booking.commitIntervalMs", 10));
+        BookingSystemApp.restore(snapshotFile, journal, bookingService);
+        BookingSystemApp.checkpointOnExit(snapshotFile, journal, bookingService);
+
+        BookingServer server = new BookingServer(bookingService,
+                System.getProperty("booking.host", "127.0.0.1"),
+                Integer.getInteger("booking.port", BookingProtocol.DEFAULT_PORT));
+        server.start();
+        System.out.println("Booking server listening on port " + server.getPort());
+    }
+}
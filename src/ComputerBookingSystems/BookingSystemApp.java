@@ -1,18 +1,256 @@
 package ComputerBookingSystems;
 
+import javax.swing.JOptionPane;
+import javax.swing.JPasswordField;
 import javax.swing.SwingUtilities;
 
+import manager.BookingService;
+import manager.Branches;
+import manager.ExpiryScheduler;
+import manager.PricingEngine;
 import manager.SlotManager;
+import manager.UserDirectory;
 import model.TransactionManager;
+import net.RemoteBookingService;
+import trace.BookingTrace;
+import ui.Assets;
+import ui.EdtStallMonitor;
 import ui.LoginScreen;
+import ui.StartupTiming;
+import utils.BookingAnalytics;
+import utils.BookingJournal;
+import utils.BookingMetrics;
+import utils.BookingSnapshot;
+import utils.ReceiptGenerator;
+
+import java.awt.GraphicsEnvironment;
+import java.io.Console;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class BookingSystemApp {
-    public static void main(String[] args) {
-        SlotManager slotManager = new SlotManager();
-        TransactionManager transactionManager = new TransactionManager();
+    private static final int CHECKPOINT_TAIL_RECORDS = 10_000;
+
+    public static void main(String[] args) throws IOException {
+        StartupTiming.launched();
+        // Images decode while the rest of startup runs; the login frame draws without them if it gets there first
+        Assets.preload();
+        BookingTrace.startIfRequested();
+        BookingMetrics.get().register();
+        // -Dbooking.server=host:port runs this terminal as a thin client of a BookingServerApp
+        String server = System.getProperty("booking.server");
+        if (server != null) {
+            RemoteBookingService remote = RemoteBookingService.connect(server);
+            // Quotes on screen use the local tariff file; the server's own tariff sets the charged price
+            loadPricing(remote);
+            Runtime.getRuntime().addShutdownHook(new Thread(remote::shutdown));
+            SwingUtilities.invokeLater(() -> {
+                EdtStallMonitor.install();
+                // Signing in fetches the mirror, so there is nothing to wait for before it
+                new LoginScreen(remote).display();
+            });
+            return;
+        }
+
+        // -Dbooking.branches=Main,North,... serves several branches from this install. The first keeps
+        // the plain bookings.snapshot / bookings.journal, the others get bookings-<branch>.* files
+        List<Branch> stores = new ArrayList<>();
+        for (String name : System.getProperty("booking.branches", BookingService.DEFAULT_BRANCH).split(",")) {
+            if (name.isBlank()) continue;
+            stores.add(openBranch(name.trim(), stores.isEmpty()));
+        }
+        List<BookingService> services = new ArrayList<>();
+        for (Branch store : stores) {
+            services.add(store.service);
+        }
+        // The screens switch between branches through it
+        Branches branches = Branches.of(services);
+
+        // The member file is small and a first run asks for the admin password, so it is read before
+        // the login screen; the bookings restore behind it and logging in waits until they are back
+        UserDirectory users = loadUsers(usersFile());
+        CompletableFuture<Void> restored = CompletableFuture.runAsync(() -> {
+            try {
+                restore(stores, users);
+                checkpointOnExit(stores);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        restored.exceptionally(e -> {
+            e.printStackTrace();
+            return null;
+        });
 
         SwingUtilities.invokeLater(() -> {
-            new LoginScreen(slotManager, transactionManager).display();
+            EdtStallMonitor.install();
+            new LoginScreen(branches.get(branches.getNames().get(0)), restored).display();
         });
     }
+
+    // A branch's managers, service and files; nothing is read until restore
+    private static Branch openBranch(String name, boolean first) throws IOException {
+        Branch branch = new Branch();
+        branch.service = new BookingService(name, new SlotManager(), new TransactionManager());
+        branch.snapshotFile = branchFile(System.getProperty("booking.snapshot", "bookings.snapshot"), name, first);
+        branch.journal = new BookingJournal(
+                branchFile(System.getProperty("booking.journal", "bookings.journal"), name, first),
+                Long.getLong("booking.commitIntervalMs", 10));
+        return branch;
+    }
+
+    // bookings.journal -> bookings-North.journal
+    private static Path branchFile(String file, String branch, boolean first) {
+        if (first) return Path.of(file);
+        int dot = file.lastIndexOf('.');
+        return dot > file.lastIndexOf('/') + 1
+                ? Path.of(file.substring(0, dot) + "-" + branch + file.substring(dot))
+                : Path.of(file + "-" + branch);
+    }
+
+    // Loads the members, the tariff, the newest snapshot and the journal tail written after it,
+    // before anything new is logged; logging in waits on exactly this. Public for bench.RestoreLoad
+    public static void restore(Path snapshotFile, BookingJournal journal, BookingService bookingService) throws IOException {
+        restore(List.of(branch(snapshotFile, journal, bookingService)), loadUsers(usersFile()));
+    }
+
+    // Checkpoints and closes the journal when the JVM exits
+    static void checkpointOnExit(Path snapshotFile, BookingJournal journal, BookingService bookingService) {
+        checkpointOnExit(List.of(branch(snapshotFile, journal, bookingService)));
+    }
+
+    private static Branch branch(Path snapshotFile, BookingJournal journal, BookingService bookingService) {
+        Branch branch = new Branch();
+        branch.service = bookingService;
+        branch.snapshotFile = snapshotFile;
+        branch.journal = journal;
+        return branch;
+    }
+
+    // Branches are restored side by side, one thread each, sharing the member directory and tariff
+    private static void restore(List<Branch> branches, UserDirectory users) throws IOException {
+        loadPricing(branches.get(0).service);
+        List<CompletableFuture<Void>> restores = new ArrayList<>();
+        for (Branch branch : branches) {
+            branch.service.setUserDirectory(users);
+            branch.service.setPricing(branches.get(0).service.getPricing());
+            restores.add(CompletableFuture.runAsync(() -> {
+                try {
+                    restoreBranch(branch);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        try {
+            CompletableFuture.allOf(restores.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) throw ((UncheckedIOException) e.getCause()).getCause();
+            throw e;
+        }
+    }
+
+    // One hook for every branch, so the shared receipt writer closes after the last booking
+    private static void checkpointOnExit(List<Branch> branches) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (Branch branch : branches) {
+                branch.service.shutdown();
+            }
+            for (Branch branch : branches) {
+                checkpoint(branch.snapshotFile, branch.service.getSlotManager(),
+                        branch.service.getTransactionManager(), branch.journal);
+            }
+            try {
+                ReceiptGenerator.closeDefault();
+                for (Branch branch : branches) {
+                    branch.journal.close();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }));
+    }
+
+    private static void restoreBranch(Branch branch) throws IOException {
+        SlotManager slotManager = branch.service.getSlotManager();
+        TransactionManager transactionManager = branch.service.getTransactionManager();
+        BookingJournal journal = branch.journal;
+        long journalOffset = BookingSnapshot.load(branch.snapshotFile, slotManager, transactionManager);
+        int replayed = journal.replayFrom(journalOffset, slotManager, transactionManager);
+        slotManager.setJournal(journal);
+        transactionManager.setJournal(journal);
+
+        // Utilization is seeded from the stored transactions, since expired slots are gone from the grids,
+        // less the cancellations the slot manager restored
+        BookingAnalytics analytics = new BookingAnalytics(slotManager.getNumComputers(), slotManager.getNumTimeSlots());
+        transactionManager.setAnalytics(analytics);
+        slotManager.setAnalytics(analytics);
+
+        // A long tail means the last run did not checkpoint on exit
+        if (replayed > CHECKPOINT_TAIL_RECORDS) {
+            new Thread(() -> checkpoint(branch.snapshotFile, slotManager, transactionManager, journal),
+                    "checkpoint-" + branch.service.getBranch()).start();
+        }
+        new ExpiryScheduler(slotManager).start();
+    }
+
+    // Tariff rules from -Dbooking.tariff; without the file the original ₱20 an hour applies
+    static void loadPricing(BookingService bookingService) throws IOException {
+        SlotManager slotManager = bookingService.getSlotManager();
+        bookingService.setPricing(PricingEngine.load(Path.of(System.getProperty("booking.tariff", "tariff.properties")),
+                slotManager.getNumComputers(), slotManager.getNumTimeSlots()));
+    }
+
+    static Path usersFile() {
+        return Path.of(System.getProperty("booking.users", "users.db"));
+    }
+
+    // A new install has no accounts. Its first run creates "admin" with the password from
+    // -Dbooking.adminPassword, or asks for one; the admin then adds members from the dashboard
+    static UserDirectory loadUsers(Path usersFile) throws IOException {
+        UserDirectory users = UserDirectory.load(usersFile);
+        if (users.size() == 0) {
+            char[] password = firstAdminPassword(usersFile);
+            if (password == null || password.length == 0) {
+                throw new IOException(usersFile + " has no accounts yet; set the admin password with"
+                        + " -Dbooking.adminPassword=... or start from a console");
+            }
+            users.addUser("admin", password, "admin");
+        }
+        return users;
+    }
+
+    private static char[] firstAdminPassword(Path usersFile) {
+        String property = System.getProperty("booking.adminPassword");
+        if (property != null) return property.toCharArray();
+        Console console = System.console();
+        if (console != null) {
+            return console.readPassword("%s has no accounts yet. Choose the admin password: ", usersFile);
+        }
+        if (GraphicsEnvironment.isHeadless()) return null;
+        JPasswordField passwordField = new JPasswordField(20);
+        int choice = JOptionPane.showConfirmDialog(null, new Object[]{"Choose the admin password:", passwordField},
+                "First run", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        return choice == JOptionPane.OK_OPTION ? passwordField.getPassword() : null;
+    }
+
+    private static void checkpoint(Path snapshotFile, SlotManager slotManager,
+                                   TransactionManager transactionManager, BookingJournal journal) {
+        try {
+            BookingSnapshot.write(snapshotFile, slotManager, transactionManager, journal);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static class Branch {
+        BookingService service;
+        Path snapshotFile;
+        BookingJournal journal;
+    }
 }
@@ -0,0 +1,62 @@
+package manager;
+
+import java.util.Arrays;
+
+/**
+ * Read-only, run-length encoded occupancy of a past date.
+ * Cells are laid out row-major (computer, then slot); each run stores the
+ * occupant id it repeats (-1 for free) and the cell index it starts at.
+ */
+class ArchivedGrid {
+    private final int numTimeSlots;
+    private final int[] runStarts;
+    private final int[] runValues;
+    private final long version;
+
+    private ArchivedGrid(int numTimeSlots, int[] runStarts, int[] runValues, long version) {
+        this.numTimeSlots = numTimeSlots;
+        this.runStarts = runStarts;
+        this.runValues = runValues;
+        this.version = version;
+    }
+
+    static ArchivedGrid encode(int numTimeSlots, int[] occupants, int cellCount, long version) {
+        int runs = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (cell == 0 || occupants[cell] != occupants[cell - 1]) runs++;
+        }
+        int[] starts = new int[runs];
+        int[] values = new int[runs];
+        int run = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (cell == 0 || occupants[cell] != occupants[cell - 1]) {
+                starts[run] = cell;
+                values[run] = occupants[cell];
+                run++;
+            }
+        }
+        return new ArchivedGrid(numTimeSlots, starts, values, version);
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    int getRunCount() {
+        return runStarts.length;
+    }
+
+    // Occupant id of the cell, or -1 when it was free
+    int getOccupant(int computerIndex, int timeIndex) {
+        int cell = computerIndex * numTimeSlots + timeIndex;
+        int run = Arrays.binarySearch(runStarts, cell);
+        return runValues[run >= 0 ? run : -run - 2];
+    }
+
+    void decode(int[] occupants, int cellCount) {
+        for (int run = 0; run < runStarts.length; run++) {
+            int end = run + 1 < runStarts.length ? runStarts[run + 1] : cellCount;
+            Arrays.fill(occupants, runStarts[run], end, runValues[run]);
+        }
+    }
+}
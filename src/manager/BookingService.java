@@ -0,0 +1,254 @@
+package manager;
+
+import model.Transaction;
+import model.TransactionManager;
+import model.User;
+import utils.BookingAnalytics;
+import utils.BookingJournal;
+import utils.BookingMetrics;
+import utils.ReceiptGenerator;
+import utils.ReportExporter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * What the screens call instead of touching the managers directly.
+ * Every operation returns a CompletableFuture: writes run one at a time on a
+ * single writer thread, reads and file I/O each get a virtual thread, so no
+ * Swing handler waits on a lock or a disk. Screens apply the results back on
+ * the EDT (thenAcceptAsync(..., SwingUtilities::invokeLater)).
+ */
+public class BookingService {
+    public static final String DEFAULT_BRANCH = "Main";
+
+    private final String branch;
+    private final SlotManager slotManager;
+    private final TransactionManager transactionManager;
+    private final ExecutorService writer;
+    private final ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile UserDirectory userDirectory;
+    private volatile PricingEngine pricing;
+    private volatile Branches branches;
+
+    public BookingService(SlotManager slotManager, TransactionManager transactionManager) {
+        this(DEFAULT_BRANCH, slotManager, transactionManager);
+    }
+
+    // One service per branch; each has its own writer thread
+    public BookingService(String branch, SlotManager slotManager, TransactionManager transactionManager) {
+        this.branch = branch;
+        this.slotManager = slotManager;
+        this.transactionManager = transactionManager;
+        this.pricing = PricingEngine.defaults(slotManager.getNumComputers(), slotManager.getNumTimeSlots());
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, DEFAULT_BRANCH.equals(branch) ? "booking-writer" : "booking-writer-" + branch);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    // The install's other branches, or null when this service runs on its own
+    public Branches getBranches() {
+        return branches;
+    }
+
+    void setBranches(Branches branches) {
+        this.branches = branches;
+    }
+
+    // For table models and other cheap, lock-striped reads that are fine on the EDT
+    public SlotManager getSlotManager() {
+        return slotManager;
+    }
+
+    public TransactionManager getTransactionManager() {
+        return transactionManager;
+    }
+
+    // Quotes are cheap enough to call on the EDT for every selection change
+    public PricingEngine getPricing() {
+        return pricing;
+    }
+
+    public void setPricing(PricingEngine pricing) {
+        this.pricing = pricing;
+    }
+
+    public void setUserDirectory(UserDirectory userDirectory) {
+        this.userDirectory = userDirectory;
+    }
+
+    // Completes with the member, or null when the login is wrong; the password hash runs
+    // on its own virtual thread, and the password array is cleared once it is checked
+    public CompletableFuture<User> authenticate(String username, char[] password) {
+        return CompletableFuture.supplyAsync(() -> {
+            UserDirectory directory = userDirectory;
+            if (directory == null) {
+                Arrays.fill(password, '\0');
+                throw new IllegalStateException("No user directory is loaded");
+            }
+            return directory.authenticate(username, password);
+        }, readers);
+    }
+
+    // Adds a member to the directory, or resets an existing one's password and role; the
+    // password array is cleared once it is hashed
+    public CompletableFuture<Void> addMember(String username, char[] password, String role) {
+        return CompletableFuture.runAsync(() -> {
+            UserDirectory directory = userDirectory;
+            try {
+                if (directory == null) throw new IllegalStateException("No user directory is loaded");
+                directory.addUser(username, password, role);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                Arrays.fill(password, '\0');
+            }
+        }, readers);
+    }
+
+    // Books [fromIndex, toIndex], records the sale at the price the tariff gives the member's
+    // tier and queues its receipt; completes with null when any slot in the range was taken first.
+    // tier is the signed-in User's role, which BookingServer takes from the session, never the wire
+    public CompletableFuture<Booking> book(LocalDate date, int computerIndex, int fromIndex, int toIndex,
+                                           String username, String tier) {
+        return durable(CompletableFuture.supplyAsync(() -> {
+            long amountCentavos = pricing.quote(date, computerIndex, fromIndex, toIndex, tier);
+            if (!slotManager.bookRange(date, computerIndex, fromIndex, toIndex, username)) return null;
+            Transaction transaction = transactionManager.addBooking(username, computerIndex, fromIndex, toIndex,
+                    amountCentavos, LocalDateTime.now().withNano(0), date);
+            return new Booking(transaction, ReceiptGenerator.generateReceipt(transaction));
+        }, writer));
+    }
+
+    // Completes with false when the slot was not booked
+    public CompletableFuture<Boolean> cancel(LocalDate date, int computerIndex, int timeIndex) {
+        return durable(CompletableFuture.supplyAsync(() -> {
+            return slotManager.clearSlot(date, computerIndex, timeIndex);
+        }, writer));
+    }
+
+    // Completes a write only once the journal has it on disk. The wait runs on a reader thread,
+    // so the writer carries on and the writes queued behind it share the same group commit
+    private <T> CompletableFuture<T> durable(CompletableFuture<T> write) {
+        return write.thenApplyAsync(result -> {
+            BookingJournal journal = slotManager.getJournal();
+            if (journal != null) {
+                try {
+                    journal.sync();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return result;
+        }, readers);
+    }
+
+    public CompletableFuture<FreeWindow> findFirstFree(LocalDate fromDate, int firstSlot, LocalDate toDate, int hours) {
+        return CompletableFuture.supplyAsync(() -> slotManager.findFirstFree(fromDate, firstSlot, toDate, hours, pc -> true), readers);
+    }
+
+    // The lists are copied off the EDT so screens never build transaction views themselves
+    public CompletableFuture<List<Transaction>> getTransactionsByUser(String username) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = BookingMetrics.ENABLED ? BookingMetrics.get().transactionQuery.start() : 0;
+            List<Transaction> list = new ArrayList<>(transactionManager.getTransactionsByUser(username));
+            if (BookingMetrics.ENABLED) BookingMetrics.get().transactionQuery.stop(start);
+            return list;
+        }, readers);
+    }
+
+    public CompletableFuture<List<Transaction>> getTransactionsByDate(LocalDate date) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = BookingMetrics.ENABLED ? BookingMetrics.get().transactionQuery.start() : 0;
+            List<Transaction> list = new ArrayList<>(transactionManager.getTransactionsByDate(date));
+            if (BookingMetrics.ENABLED) BookingMetrics.get().transactionQuery.stop(start);
+            return list;
+        }, readers);
+    }
+
+    // This branch's share of a cross-branch report; fails until the saved state is restored
+    public CompletableFuture<BranchSummary> summarize(LocalDate from, LocalDate to) {
+        return CompletableFuture.supplyAsync(() -> {
+            BookingAnalytics analytics = transactionManager.getAnalytics();
+            if (analytics == null) throw new IllegalStateException("Analytics for " + branch + " are still loading");
+            long revenue = 0;
+            for (long day : analytics.getDailyRevenue(from, to)) revenue += day;
+            double occupancy = 0;
+            int days = 0;
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                occupancy += analytics.getOccupancyPercent(date);
+                days++;
+            }
+            return new BranchSummary(branch, from, to, days == 0 ? 0 : occupancy / days,
+                    transactionManager.countBetween(from, to), revenue);
+        }, readers);
+    }
+
+    public CompletableFuture<Integer> export(Path file, LocalDate from, LocalDate to, ReportExporter.Format format,
+                                             BooleanSupplier cancelled, IntConsumer progress) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return ReportExporter.export(file, transactionManager, from, to, format, cancelled, progress);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, readers);
+    }
+
+    // Number of the newest receipt, or 0 when none were issued
+    public CompletableFuture<Long> getLastReceiptId() {
+        return CompletableFuture.supplyAsync(() -> ReceiptGenerator.getDefault().getLastReceiptId(), readers);
+    }
+
+    // Completes with null when there is no such receipt
+    public CompletableFuture<String> reprintReceipt(long receiptNumber) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return ReceiptGenerator.getDefault().reprint(receiptNumber);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, readers);
+    }
+
+    // Lets queued writes finish; call before the journal is closed
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // After the writer, so the last writes still get their journal sync
+        readers.shutdown();
+    }
+
+    /** A confirmed booking: the recorded sale and the number its receipt was filed under. */
+    public static class Booking {
+        public final Transaction transaction;
+        public final long receiptNumber;
+
+        public Booking(Transaction transaction, long receiptNumber) {
+            this.transaction = transaction;
+            this.receiptNumber = receiptNumber;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package manager;
+
+import java.time.LocalDate;
+
+/** One branch's figures over a date range, as gathered by Branches.summarize. */
+public class BranchSummary {
+    public final String branch;
+    public final LocalDate from;
+    public final LocalDate to;
+    // Share of the branch's cells booked, averaged over the range, 0 to 100
+    public final double occupancyPercent;
+    public final int bookings;
+    public final long revenueCentavos;
+
+    public BranchSummary(String branch, LocalDate from, LocalDate to, double occupancyPercent, int bookings,
+                         long revenueCentavos) {
+        this.branch = branch;
+        this.from = from;
+        this.to = to;
+        this.occupancyPercent = occupancyPercent;
+        this.bookings = bookings;
+        this.revenueCentavos = revenueCentavos;
+    }
+}
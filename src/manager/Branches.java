@@ -0,0 +1,74 @@
+package manager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Every branch one install serves. Each branch is a BookingService with its
+ * own SlotManager, TransactionManager and writer thread, so bookings at one
+ * branch never wait on another branch's locks or queue. Cross-branch figures
+ * are asked of every branch at once and combined when all have answered.
+ */
+public class Branches {
+    private final Map<String, BookingService> branches = new LinkedHashMap<>();
+
+    // Branches are listed in the given order; names must be unique. Each service is told
+    // about the others once the whole set is built
+    public static Branches of(List<BookingService> services) {
+        Branches all = new Branches(services);
+        for (BookingService service : services) {
+            service.setBranches(all);
+        }
+        return all;
+    }
+
+    private Branches(List<BookingService> services) {
+        for (BookingService service : services) {
+            if (branches.putIfAbsent(service.getBranch(), service) != null) {
+                throw new IllegalArgumentException("Duplicate branch " + service.getBranch());
+            }
+        }
+        if (branches.isEmpty()) throw new IllegalArgumentException("At least one branch is needed");
+    }
+
+    public List<String> getNames() {
+        return Collections.unmodifiableList(new ArrayList<>(branches.keySet()));
+    }
+
+    // The branch, or null when there is no branch of that name
+    public BookingService get(String name) {
+        return branches.get(name);
+    }
+
+    public int size() {
+        return branches.size();
+    }
+
+    // Occupancy, bookings and revenue of every branch over [from, to], in branch order;
+    // each branch works out its own figures on its own reader thread
+    public CompletableFuture<List<BranchSummary>> summarize(LocalDate from, LocalDate to) {
+        List<CompletableFuture<BranchSummary>> parts = new ArrayList<>();
+        for (BookingService service : branches.values()) {
+            parts.add(service.summarize(from, to));
+        }
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            List<BranchSummary> summaries = new ArrayList<>(parts.size());
+            for (CompletableFuture<BranchSummary> part : parts) {
+                summaries.add(part.join());
+            }
+            return summaries;
+        });
+    }
+
+    // Stops every branch's writer, letting queued bookings finish
+    public void shutdown() {
+        for (BookingService service : branches.values()) {
+            service.shutdown();
+        }
+    }
+}
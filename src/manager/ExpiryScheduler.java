@@ -0,0 +1,130 @@
+package manager;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Releases booked slots when their hour ends.
+ * Booked cells are bucketed by the epoch second their slot ends, and a single
+ * background thread sleeps until the earliest bucket is due, so nothing runs
+ * between slot boundaries no matter how large the grid is.
+ * The thread also wakes at midnight to archive days past the retention window.
+ */
+public class ExpiryScheduler {
+    private final SlotManager slotManager;
+    private final ZoneId zone;
+    private final ConcurrentSkipListMap<Long, Queue<Cell>> buckets = new ConcurrentSkipListMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "slot-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ScheduledFuture<?> nextTick;
+    private LocalDate archivedThrough;
+    private volatile long nextWake = Long.MAX_VALUE;
+
+    public ExpiryScheduler(SlotManager slotManager) {
+        this(slotManager, ZoneId.systemDefault());
+    }
+
+    public ExpiryScheduler(SlotManager slotManager, ZoneId zone) {
+        this.slotManager = slotManager;
+        this.zone = zone;
+    }
+
+    // Tracks every booking already in the manager and every booking made from now on.
+    // The first tick runs before this returns, so slots that ended while the app was down
+    // are released before their days are archived
+    public void start() {
+        slotManager.setExpiryScheduler(this);
+        try {
+            executor.submit(this::tick).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("First expiry pass failed", e.getCause());
+        }
+    }
+
+    public void stop() {
+        slotManager.setExpiryScheduler(null);
+        executor.shutdownNow();
+    }
+
+    void schedule(LocalDate date, int computerIndex, int fromIndex, int toIndex) {
+        for (int t = fromIndex; t <= toIndex; t++) {
+            long end = slotManager.getSlotEnd(date, t).atZone(zone).toEpochSecond();
+            Cell cell = new Cell(date, computerIndex, t);
+            // compute may retry if the bucket is drained concurrently; releasing a cell twice is harmless
+            buckets.compute(end, (k, cells) -> {
+                Queue<Cell> queue = cells != null ? cells : new ConcurrentLinkedQueue<>();
+                queue.add(cell);
+                return queue;
+            });
+            if (end < nextWake) {
+                wakeAt(end);
+            }
+        }
+    }
+
+    private synchronized void wakeAt(long epochSecond) {
+        if (epochSecond >= nextWake || executor.isShutdown()) return;
+        if (nextTick != null) {
+            nextTick.cancel(false);
+        }
+        nextWake = epochSecond;
+        long delayMillis = epochSecond * 1000 - System.currentTimeMillis();
+        nextTick = executor.schedule(this::tick, Math.max(delayMillis, 0), TimeUnit.MILLISECONDS);
+    }
+
+    private void tick() {
+        synchronized (this) {
+            nextWake = Long.MAX_VALUE;
+            nextTick = null;
+        }
+        long now = System.currentTimeMillis() / 1000;
+        Map.Entry<Long, Queue<Cell>> due;
+        while ((due = buckets.firstEntry()) != null && due.getKey() <= now) {
+            if (!buckets.remove(due.getKey(), due.getValue())) continue;
+            for (Cell cell : due.getValue()) {
+                slotManager.releaseExpiredSlot(cell.date, cell.computerIndex, cell.timeIndex);
+            }
+        }
+        archivePastDays();
+        wakeAt(due != null ? Math.min(due.getKey(), nextMidnight()) : nextMidnight());
+    }
+
+    private void archivePastDays() {
+        LocalDate today = LocalDate.now(zone);
+        if (!today.equals(archivedThrough)) {
+            slotManager.archivePastDays(today);
+            archivedThrough = today;
+        }
+    }
+
+    private long nextMidnight() {
+        return LocalDate.now(zone).plusDays(1).atStartOfDay(zone).toEpochSecond();
+    }
+
+    private static final class Cell {
+        final LocalDate date;
+        final int computerIndex;
+        final int timeIndex;
+
+        Cell(LocalDate date, int computerIndex, int timeIndex) {
+            this.date = date;
+            this.computerIndex = computerIndex;
+            this.timeIndex = timeIndex;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package manager;
+
+import java.time.LocalDate;
+
+public class FreeWindow {
+    public final LocalDate date;
+    public final int computerIndex;
+    public final int fromIndex;
+    public final int toIndex;
+
+    public FreeWindow(LocalDate date, int computerIndex, int fromIndex, int toIndex) {
+        this.date = date;
+        this.computerIndex = computerIndex;
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+    }
+}
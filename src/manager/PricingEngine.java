@@ -0,0 +1,282 @@
+package manager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prices a booking from tariff rules read from a properties file:
+ *
+ *   rate.standard=20              pesos per hour
+ *   rate.premium=30               pesos per hour on premium.computers
+ *   premium.computers=9,10        PC numbers as shown on screen
+ *   peak.hours=18-22              slot start hours, 24-hour clock, inclusive
+ *   peak.days=FRIDAY,SUNDAY       days the peak applies, full names (all days when left out)
+ *   peak.surcharge=5              pesos per peak hour
+ *   block.hours=3                 every full block of this many hours...
+ *   block.discount=10             ...takes this many pesos off
+ *   tier.silver=5                 percent off the total for members with that role
+ *   promo.NAME.from / .to         dates the promotion runs, inclusive
+ *   promo.NAME.days / .hours      optional, like peak.days and peak.hours
+ *   promo.NAME.percent            percent off each hour it covers; the best promotion wins
+ *
+ * With no file the tariff is the café's original: ₱20 an hour, ₱10 off every
+ * third hour.
+ *
+ * The rules are compiled into a table of every (computer class, tier, from,
+ * to) price for each distinct kind of day, meaning its weekday plus the
+ * promotions running that day. Days of the same kind share one table, and
+ * recent dates are cached by epoch day, so quote() is a couple of array reads
+ * with no allocation and no price is ever worked out twice.
+ */
+public class PricingEngine {
+    public static final String DEFAULT_TIER = "customer";
+    private static final int DAY_CACHE = 512;
+
+    private final int numTimeSlots;
+    private final long[] hourlyRate;          // per computer class, centavos
+    private final int[] computerClass;        // per computer: 0 standard, 1 premium
+    private final boolean[] peakSlot;
+    private final boolean[] peakDay;          // by DayOfWeek.getValue() - 1
+    private final long peakSurcharge;
+    private final int blockHours;
+    private final long blockDiscount;
+    private final Map<String, Integer> tierIndex = new HashMap<>();
+    private final int[] tierPercent;
+    private final List<Promotion> promotions;
+
+    // Day kind -> compiled prices; day kinds are the weekday plus a bit per running promotion
+    private final Map<Long, long[]> tables = new ConcurrentHashMap<>();
+    private final DayPrices[] dayCache = new DayPrices[DAY_CACHE];
+
+    private PricingEngine(int numComputers, int numTimeSlots, Properties rules) {
+        this.numTimeSlots = numTimeSlots;
+        this.hourlyRate = new long[]{
+                centavos(rules.getProperty("rate.standard", "20")),
+                centavos(rules.getProperty("rate.premium", rules.getProperty("rate.standard", "20")))};
+        this.computerClass = new int[numComputers];
+        for (String pc : list(rules.getProperty("premium.computers", ""))) {
+            int index = Integer.parseInt(pc) - 1;
+            if (index < 0 || index >= numComputers) {
+                throw new IllegalArgumentException("premium.computers: there is no PC-" + pc);
+            }
+            computerClass[index] = 1;
+        }
+        this.peakSlot = slots(rules.getProperty("peak.hours", ""), numTimeSlots);
+        this.peakDay = days(rules.getProperty("peak.days", ""), "peak.days");
+        this.peakSurcharge = centavos(rules.getProperty("peak.surcharge", "0"));
+        this.blockHours = Integer.parseInt(rules.getProperty("block.hours", "3"));
+        this.blockDiscount = centavos(rules.getProperty("block.discount", "10"));
+        if (blockHours <= 0) throw new IllegalArgumentException("block.hours must be positive");
+
+        List<Integer> percents = new ArrayList<>(List.of(0));
+        tierIndex.put(DEFAULT_TIER, 0);
+        List<String> promotionNames = new ArrayList<>();
+        for (String key : rules.stringPropertyNames()) {
+            if (key.startsWith("tier.")) {
+                tierIndex.put(key.substring(5), percents.size());
+                percents.add(percent(rules.getProperty(key), key));
+            } else if (key.startsWith("promo.") && key.endsWith(".percent")) {
+                promotionNames.add(key.substring(6, key.length() - 8));
+            }
+        }
+        this.tierPercent = percents.stream().mapToInt(Integer::intValue).toArray();
+
+        promotionNames.sort(null);
+        if (promotionNames.size() > 60) throw new IllegalArgumentException("At most 60 promotions are supported");
+        this.promotions = new ArrayList<>();
+        for (String name : promotionNames) {
+            String prefix = "promo." + name + ".";
+            String from = rules.getProperty(prefix + "from");
+            String to = rules.getProperty(prefix + "to");
+            promotions.add(new Promotion(
+                    from != null ? LocalDate.parse(from.trim()).toEpochDay() : Long.MIN_VALUE,
+                    to != null ? LocalDate.parse(to.trim()).toEpochDay() : Long.MAX_VALUE,
+                    days(rules.getProperty(prefix + "days", ""), prefix + "days"),
+                    slots(rules.getProperty(prefix + "hours", ""), numTimeSlots),
+                    percent(rules.getProperty(prefix + "percent"), prefix + "percent")));
+        }
+    }
+
+    // The original tariff
+    public static PricingEngine defaults(int numComputers, int numTimeSlots) {
+        return new PricingEngine(numComputers, numTimeSlots, new Properties());
+    }
+
+    public static PricingEngine of(int numComputers, int numTimeSlots, Properties rules) {
+        return new PricingEngine(numComputers, numTimeSlots, rules);
+    }
+
+    // The original tariff when the file does not exist
+    public static PricingEngine load(Path file, int numComputers, int numTimeSlots) throws IOException {
+        Properties rules = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            rules.load(in);
+        } catch (NoSuchFileException e) {
+            // no tariff file: keep the defaults
+        }
+        return new PricingEngine(numComputers, numTimeSlots, rules);
+    }
+
+    // Price in centavos of computerIndex from fromSlot to toSlot (inclusive) on date, for a
+    // member whose role is tier; unknown tiers pay the standard price
+    public long quote(LocalDate date, int computerIndex, int fromSlot, int toSlot, String tier) {
+        if (fromSlot < 0 || toSlot >= numTimeSlots || fromSlot > toSlot) {
+            throw new IllegalArgumentException("Invalid slot range " + fromSlot + ".." + toSlot);
+        }
+        Integer tierNumber = tier != null ? tierIndex.get(tier) : null;
+        int t = tierNumber != null ? tierNumber : 0;
+        long[] table = table(date);
+        return table[((computerClass[computerIndex] * tierPercent.length + t) * numTimeSlots + fromSlot) * numTimeSlots + toSlot];
+    }
+
+    private long[] table(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        int slot = (int) (epochDay & (DAY_CACHE - 1));
+        DayPrices cached = dayCache[slot];
+        if (cached != null && cached.epochDay == epochDay) return cached.prices;
+
+        long kind = date.getDayOfWeek().getValue() - 1;
+        for (int p = 0; p < promotions.size(); p++) {
+            if (promotions.get(p).runsOn(epochDay, date.getDayOfWeek())) kind |= 1L << (p + 3);
+        }
+        long dayKind = kind;
+        long[] prices = tables.computeIfAbsent(dayKind, k -> compile(date.getDayOfWeek(), dayKind >>> 3));
+        dayCache[slot] = new DayPrices(epochDay, prices);
+        return prices;
+    }
+
+    private long[] compile(DayOfWeek day, long runningPromotions) {
+        int tiers = tierPercent.length;
+        long[] prices = new long[2 * tiers * numTimeSlots * numTimeSlots];
+        long[] prefix = new long[numTimeSlots + 1];
+        for (int pcClass = 0; pcClass < 2; pcClass++) {
+            for (int s = 0; s < numTimeSlots; s++) {
+                long rate = hourlyRate[pcClass];
+                if (peakSlot[s] && peakDay[day.getValue() - 1]) rate += peakSurcharge;
+                int best = 0;
+                for (int p = 0; p < promotions.size(); p++) {
+                    if ((runningPromotions & (1L << p)) != 0 && promotions.get(p).slots[s]) {
+                        best = Math.max(best, promotions.get(p).percent);
+                    }
+                }
+                prefix[s + 1] = prefix[s] + percentOff(rate, best);
+            }
+            for (int t = 0; t < tiers; t++) {
+                for (int from = 0; from < numTimeSlots; from++) {
+                    for (int to = from; to < numTimeSlots; to++) {
+                        int hours = to - from + 1;
+                        long price = prefix[to + 1] - prefix[from] - (hours / blockHours) * blockDiscount;
+                        prices[((pcClass * tiers + t) * numTimeSlots + from) * numTimeSlots + to] =
+                                Math.max(0, percentOff(price, tierPercent[t]));
+                    }
+                }
+            }
+        }
+        return prices;
+    }
+
+    // Rounded to the nearest centavo
+    private static long percentOff(long centavos, int percent) {
+        return (centavos * (100 - percent) + 50) / 100;
+    }
+
+    private static long centavos(String pesos) {
+        return new BigDecimal(pesos.trim()).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static int percent(String value, String key) {
+        if (value == null) throw new IllegalArgumentException(key + " is missing");
+        int percent = Integer.parseInt(value.trim());
+        if (percent < 0 || percent > 100) throw new IllegalArgumentException(key + " must be 0-100");
+        return percent;
+    }
+
+    private static List<String> list(String value) {
+        List<String> items = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.isBlank()) items.add(item.trim());
+        }
+        return items;
+    }
+
+    // "18-22" as slot flags; every slot when blank
+    private static boolean[] slots(String hours, int numTimeSlots) {
+        boolean[] slots = new boolean[numTimeSlots];
+        if (hours.isBlank()) {
+            Arrays.fill(slots, true);
+            return slots;
+        }
+        for (String range : list(hours)) {
+            int dash = range.indexOf('-');
+            int first = Integer.parseInt(range.substring(0, dash < 0 ? range.length() : dash).trim());
+            int last = dash < 0 ? first : Integer.parseInt(range.substring(dash + 1).trim());
+            for (int hour = first; hour <= last; hour++) {
+                int s = hour - SlotManager.FIRST_SLOT_HOUR;
+                if (s >= 0 && s < numTimeSlots) slots[s] = true;
+            }
+        }
+        return slots;
+    }
+
+    // "FRIDAY,SATURDAY" as day flags; every day when blank
+    private static boolean[] days(String names, String key) {
+        boolean[] days = new boolean[7];
+        if (names.isBlank()) {
+            Arrays.fill(days, true);
+            return days;
+        }
+        for (String name : list(names)) {
+            try {
+                days[DayOfWeek.valueOf(name.toUpperCase()).getValue() - 1] = true;
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(key + ": " + name + " is not a day; use full names like MONDAY");
+            }
+        }
+        return days;
+    }
+
+    private static class Promotion {
+        final long fromDay;
+        final long toDay;
+        final boolean[] days;
+        final boolean[] slots;
+        final int percent;
+
+        Promotion(long fromDay, long toDay, boolean[] days, boolean[] slots, int percent) {
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.days = days;
+            this.slots = slots;
+            this.percent = percent;
+        }
+
+        boolean runsOn(long epochDay, DayOfWeek day) {
+            return epochDay >= fromDay && epochDay <= toDay && days[day.getValue() - 1];
+        }
+    }
+
+    private static class DayPrices {
+        final long epochDay;
+        final long[] prices;
+
+        DayPrices(long epochDay, long[] prices) {
+            this.epochDay = epochDay;
+            this.prices = prices;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package manager;
+
+/**
+ * Cancelled cells folded into counts, as SlotManager keeps them for the
+ * analytics page: per cell (computer-major) across every date, and per date.
+ * Removals are numbered as they happen and sequence is the last one counted,
+ * so journal replay can tell which removals a snapshot already holds.
+ */
+public class RemovalCounts {
+    public final long sequence;
+    public final int[] byCell;
+    // Epoch days in ascending order, with the cells cancelled on each
+    public final int[] days;
+    public final int[] dayCounts;
+
+    public RemovalCounts(long sequence, int[] byCell, int[] days, int[] dayCounts) {
+        this.sequence = sequence;
+        this.byCell = byCell;
+        this.days = days;
+        this.dayCounts = dayCounts;
+    }
+}
@@ -0,0 +1,151 @@
+package manager;
+
+import java.util.Arrays;
+
+/**
+ * Reservations at minute granularity, kept per computer as sorted,
+ * non-overlapping [start, end) intervals of epoch minutes in parallel int
+ * arrays. Intervals in a row never overlap, so their ends are sorted as well
+ * and an overlap check is a single binary search; inserting shifts the tail
+ * of the row, which for a row's worth of sessions is a short arraycopy.
+ *
+ * A reservation costs 12 bytes however long it runs, where a dense grid pays
+ * for every cell of every day whether it is booked or not.
+ * Each row is guarded by its own monitor (see lock()).
+ */
+class ReservationStore {
+    private final Row[] rows;
+
+    ReservationStore(int numComputers) {
+        this.rows = new Row[numComputers];
+        for (int i = 0; i < numComputers; i++) {
+            rows[i] = new Row();
+        }
+    }
+
+    // Held by SlotManager while it changes the same computer's hourly grid, so
+    // reservations and hourly bookings see each other
+    Object lock(int computerIndex) {
+        return rows[computerIndex];
+    }
+
+    // False when [start, end) overlaps an existing reservation
+    boolean reserve(int computerIndex, int start, int end, int occupant) {
+        Row row = rows[computerIndex];
+        synchronized (row) {
+            int i = row.firstEndingAfter(start);
+            if (i < row.size && row.starts[i] < end) return false;
+            row.insert(i, start, end, occupant);
+            return true;
+        }
+    }
+
+    boolean isFree(int computerIndex, int start, int end) {
+        Row row = rows[computerIndex];
+        synchronized (row) {
+            int i = row.firstEndingAfter(start);
+            return i >= row.size || row.starts[i] >= end;
+        }
+    }
+
+    // Occupant id of the reservation covering the minute, or -1
+    int occupantAt(int computerIndex, int minute) {
+        Row row = rows[computerIndex];
+        synchronized (row) {
+            int i = row.firstEndingAfter(minute);
+            return i < row.size && row.starts[i] <= minute ? row.occupants[i] : -1;
+        }
+    }
+
+    // Removes the reservation covering the minute; returns its start, or -1 when there was none
+    int release(int computerIndex, int minute) {
+        Row row = rows[computerIndex];
+        synchronized (row) {
+            int i = row.firstEndingAfter(minute);
+            if (i >= row.size || row.starts[i] > minute) return -1;
+            int start = row.starts[i];
+            row.remove(i);
+            return start;
+        }
+    }
+
+    // Writes the occupant of each cellMinutes-wide cell from fromMinute on into
+    // occupants[0..cells), -1 for free; a cell shows the first reservation touching it
+    void render(int computerIndex, int fromMinute, int cellMinutes, int[] occupants, int cells) {
+        Arrays.fill(occupants, 0, cells, -1);
+        long toMinute = fromMinute + (long) cellMinutes * cells;
+        Row row = rows[computerIndex];
+        synchronized (row) {
+            for (int i = row.firstEndingAfter(fromMinute); i < row.size && row.starts[i] < toMinute; i++) {
+                int first = Math.max(0, (row.starts[i] - fromMinute) / cellMinutes);
+                int last = (int) Math.min(cells - 1, ((long) row.ends[i] - 1 - fromMinute) / cellMinutes);
+                for (int c = first; c <= last; c++) {
+                    if (occupants[c] < 0) occupants[c] = row.occupants[i];
+                }
+            }
+        }
+    }
+
+    int count(int computerIndex) {
+        Row row = rows[computerIndex];
+        synchronized (row) {
+            return row.size;
+        }
+    }
+
+    // The row as start, end, occupant triples
+    int[] copy(int computerIndex) {
+        Row row = rows[computerIndex];
+        synchronized (row) {
+            int[] triples = new int[row.size * 3];
+            for (int i = 0; i < row.size; i++) {
+                triples[i * 3] = row.starts[i];
+                triples[i * 3 + 1] = row.ends[i];
+                triples[i * 3 + 2] = row.occupants[i];
+            }
+            return triples;
+        }
+    }
+
+    private static class Row {
+        int[] starts = new int[0];
+        int[] ends = new int[0];
+        int[] occupants = new int[0];
+        int size;
+
+        // Index of the first interval ending after the minute, or size
+        int firstEndingAfter(int minute) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (ends[mid] <= minute) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        void insert(int i, int start, int end, int occupant) {
+            if (size == starts.length) {
+                int capacity = Math.max(4, size + (size >> 1));
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                occupants = Arrays.copyOf(occupants, capacity);
+            }
+            System.arraycopy(starts, i, starts, i + 1, size - i);
+            System.arraycopy(ends, i, ends, i + 1, size - i);
+            System.arraycopy(occupants, i, occupants, i + 1, size - i);
+            starts[i] = start;
+            ends[i] = end;
+            occupants[i] = occupant;
+            size++;
+        }
+
+        void remove(int i) {
+            System.arraycopy(starts, i + 1, starts, i, size - i - 1);
+            System.arraycopy(ends, i + 1, ends, i, size - i - 1);
+            System.arraycopy(occupants, i + 1, occupants, i, size - i - 1);
+            size--;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package manager;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+
+/**
+ * Every cell of one date that changed since the last batch a subscriber was
+ * given. Cells are row-major (computer * timeSlots + slot); a cell changed
+ * several times appears once, so readers fetch its current state.
+ */
+public class SlotChanges {
+    public final LocalDate date;
+    public final int numTimeSlots;
+    public final BitSet cells = new BitSet();
+    public int booked;
+    public int cleared;
+    public int expired;
+
+    public SlotChanges(LocalDate date, int numTimeSlots) {
+        this.date = date;
+        this.numTimeSlots = numTimeSlots;
+    }
+
+    public boolean isChanged(int computerIndex, int timeIndex) {
+        return cells.get(computerIndex * numTimeSlots + timeIndex);
+    }
+}
@@ -0,0 +1,152 @@
+package manager;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Occupancy of every computer for a single date.
+ * Each computer owns a row of long words holding one bit per time slot,
+ * and the occupant of a booked cell is kept as an int user id.
+ * Callers serialize writes to a row through SlotManager's row locks.
+ *
+ * The grid also indexes the longest free run of every computer, plus how
+ * many computers have each run length, so free-window searches can skip
+ * whole dates and rows without looking at their bits.
+ */
+class SlotGrid {
+    private final int numTimeSlots;
+    private final int wordsPerComputer;
+    private final long[] bits;
+    private final int[] occupants;
+    private final int[] longestFreeRun;
+    private final AtomicIntegerArray runCounts;
+    private final AtomicLong version = new AtomicLong();
+    private volatile boolean sealed;
+
+    SlotGrid(int numComputers, int numTimeSlots) {
+        this.numTimeSlots = numTimeSlots;
+        this.wordsPerComputer = (numTimeSlots + 63) >>> 6;
+        this.bits = new long[numComputers * wordsPerComputer];
+        this.occupants = new int[numComputers * numTimeSlots];
+        this.longestFreeRun = new int[numComputers];
+        this.runCounts = new AtomicIntegerArray(numTimeSlots + 1);
+        Arrays.fill(longestFreeRun, numTimeSlots);
+        runCounts.set(numTimeSlots, numComputers);
+    }
+
+    boolean isBooked(int computerIndex, int timeIndex) {
+        return (bits[computerIndex * wordsPerComputer + (timeIndex >>> 6)] & (1L << timeIndex)) != 0;
+    }
+
+    // True when no slot in [from, to] is booked
+    boolean isRangeFree(int computerIndex, int from, int to) {
+        int base = computerIndex * wordsPerComputer;
+        for (int w = from >>> 6; w <= to >>> 6; w++) {
+            if ((bits[base + w] & rangeMask(w, from, to)) != 0) return false;
+        }
+        return true;
+    }
+
+    // Set before the grid is copied into an archive; writers check it under the row lock
+    // and treat a sealed grid like an archived date
+    void seal() {
+        sealed = true;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    // Bumped on every change so views can skip re-reading an unchanged grid
+    long getVersion() {
+        return version.get();
+    }
+
+    int getOccupant(int computerIndex, int timeIndex) {
+        return occupants[computerIndex * numTimeSlots + timeIndex];
+    }
+
+    void book(int computerIndex, int timeIndex, int userId) {
+        bits[computerIndex * wordsPerComputer + (timeIndex >>> 6)] |= 1L << timeIndex;
+        occupants[computerIndex * numTimeSlots + timeIndex] = userId;
+        reindex(computerIndex);
+    }
+
+    void bookRange(int computerIndex, int from, int to, int userId) {
+        int base = computerIndex * wordsPerComputer;
+        for (int w = from >>> 6; w <= to >>> 6; w++) {
+            bits[base + w] |= rangeMask(w, from, to);
+        }
+        int row = computerIndex * numTimeSlots;
+        for (int t = from; t <= to; t++) {
+            occupants[row + t] = userId;
+        }
+        reindex(computerIndex);
+    }
+
+    // Fills an empty grid from row-major occupant ids (-1 for free)
+    void load(int[] cellOccupants) {
+        int numComputers = longestFreeRun.length;
+        for (int i = 0; i < numComputers; i++) {
+            for (int t = 0; t < numTimeSlots; t++) {
+                int occupant = cellOccupants[i * numTimeSlots + t];
+                if (occupant >= 0) {
+                    bits[i * wordsPerComputer + (t >>> 6)] |= 1L << t;
+                    occupants[i * numTimeSlots + t] = occupant;
+                }
+            }
+            reindex(i);
+        }
+    }
+
+    void clear(int computerIndex, int timeIndex) {
+        bits[computerIndex * wordsPerComputer + (timeIndex >>> 6)] &= ~(1L << timeIndex);
+        reindex(computerIndex);
+    }
+
+    // True when at least one computer has a free run of the given length
+    boolean hasFreeRun(int length) {
+        for (int k = length; k <= numTimeSlots; k++) {
+            if (runCounts.get(k) > 0) return true;
+        }
+        return false;
+    }
+
+    int getLongestFreeRun(int computerIndex) {
+        return longestFreeRun[computerIndex];
+    }
+
+    // First slot at or after fromIndex that starts a free run of the given length, or -1
+    int firstFreeRun(int computerIndex, int fromIndex, int length) {
+        int run = 0;
+        for (int t = fromIndex; t < numTimeSlots; t++) {
+            run = isBooked(computerIndex, t) ? 0 : run + 1;
+            if (run == length) return t - length + 1;
+        }
+        return -1;
+    }
+
+    private void reindex(int computerIndex) {
+        version.incrementAndGet();
+        int longest = 0;
+        int run = 0;
+        for (int t = 0; t < numTimeSlots; t++) {
+            run = isBooked(computerIndex, t) ? 0 : run + 1;
+            longest = Math.max(longest, run);
+        }
+        int previous = longestFreeRun[computerIndex];
+        if (previous != longest) {
+            longestFreeRun[computerIndex] = longest;
+            runCounts.decrementAndGet(previous);
+            runCounts.incrementAndGet(longest);
+        }
+    }
+
+    // Bits of word w that fall inside [from, to]
+    private static long rangeMask(int w, int from, int to) {
+        int lo = Math.max(from - (w << 6), 0);
+        int hi = Math.min(to - (w << 6), 63);
+        return (-1L >>> (63 - hi)) & (-1L << lo);
+    }
+}
@@ -0,0 +1,16 @@
+package manager;
+
+import java.time.LocalDate;
+
+/**
+ * Receives every change SlotManager makes to a live grid.
+ * Callbacks run on the thread that made the change while it still holds the
+ * row's lock, so changes to one row arrive in order; implementations must
+ * only record or enqueue the change and return.
+ */
+public interface SlotListener {
+    void slotsBooked(LocalDate date, int computerIndex, int fromIndex, int toIndex, String username);
+
+    // expired is true when the slot's hour ended rather than an admin removing it
+    void slotCleared(LocalDate date, int computerIndex, int timeIndex, boolean expired);
+}
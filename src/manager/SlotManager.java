@@ -1,72 +1,773 @@
 package manager;
 
-import javax.swing.table.DefaultTableModel;
+import trace.SlotRangeEvent;
+import utils.BookingAnalytics;
+import utils.BookingJournal;
+import utils.BookingMetrics;
+
 import java.time.LocalDate;
-import java.time.LocalTime;
-import java.util.HashMap;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 
 public class SlotManager {
-    public static final int NUM_COMPUTERS = 20;
-    public static final int NUM_TIME_SLOTS = 10;
+    public static final int DEFAULT_NUM_COMPUTERS = 20;
+    public static final int DEFAULT_NUM_TIME_SLOTS = 10;
+    // Slot 0 starts at 1 PM
+    public static final int FIRST_SLOT_HOUR = 13;
+    private static final String[] HOUR_LABELS = new String[24];
+
+    static {
+        for (int hour = 0; hour < 24; hour++) {
+            HOUR_LABELS[hour] = (hour % 12 == 0 ? 12 : hour % 12) + (hour < 12 ? " AM" : " PM");
+        }
+    }
+
+    private final int numComputers;
+    private final int numTimeSlots;
+
+    // Rows are guarded by striped locks keyed on (date, computer), so kiosks
+    // booking different rows never wait on each other
+    private static final int LOCK_STRIPES = 256;
+
+    // Live grids for dates still inside the retention window; older dates are
+    // compacted into read-only archives
+    private final Map<LocalDate, SlotGrid> gridMap = new ConcurrentHashMap<>();
+    private final Map<LocalDate, ArchivedGrid> archiveMap = new ConcurrentHashMap<>();
+    private final int retentionDays;
+    // Minute-granularity reservations, alongside the hourly grid. Bookings and the free search
+    // respect them, but the hourly reads (isSlotBooked, copyOccupants) show hourly bookings only
+    private final ReservationStore reservations;
+    private final Map<String, Integer> userIds = new ConcurrentHashMap<>();
+    private volatile String[] usernames = new String[16];
+    private int usernameCount;
+    private final Object[] rowLocks = new Object[LOCK_STRIPES];
+    private volatile ExpiryScheduler expiryScheduler;
+    private volatile BookingJournal journal;
+    private volatile BookingAnalytics analytics;
+    private final List<SlotListener> listeners = new CopyOnWriteArrayList<>();
+    // Cancelled cells counted per cell and per day, so utilization seeded from the transactions
+    // can leave them out after a restart; expiry is not a removal. Each removal is numbered, and
+    // replay only counts those numbered past what the restored snapshot already held
+    private final Object removalLock = new Object();
+    private final int[] removedByCell;
+    private final Map<Integer, Integer> removedByDay = new TreeMap<>();
+    private long removalSequence;
+    private long restoredRemovalSequence;
+
+    // Grid size comes from -Dbooking.computers / -Dbooking.timeSlots and the number of
+    // past days kept live from -Dbooking.retentionDays when set
+    public SlotManager() {
+        this(Integer.getInteger("booking.computers", DEFAULT_NUM_COMPUTERS),
+                Integer.getInteger("booking.timeSlots", DEFAULT_NUM_TIME_SLOTS),
+                Integer.getInteger("booking.retentionDays", 0));
+    }
+
+    public SlotManager(int numComputers, int numTimeSlots) {
+        this(numComputers, numTimeSlots, Integer.getInteger("booking.retentionDays", 0));
+    }
+
+    public SlotManager(int numComputers, int numTimeSlots, int retentionDays) {
+        if (numComputers <= 0 || numTimeSlots <= 0) {
+            throw new IllegalArgumentException("Grid size must be positive: " + numComputers + "x" + numTimeSlots);
+        }
+        if (retentionDays < 0) {
+            throw new IllegalArgumentException("Retention must not be negative: " + retentionDays);
+        }
+        this.numComputers = numComputers;
+        this.numTimeSlots = numTimeSlots;
+        this.retentionDays = retentionDays;
+        this.reservations = new ReservationStore(numComputers);
+        this.removedByCell = new int[numComputers * numTimeSlots];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            rowLocks[i] = new Object();
+        }
+    }
+
+    public int getNumComputers() {
+        return numComputers;
+    }
+
+    public int getNumTimeSlots() {
+        return numTimeSlots;
+    }
+
+    // Start time of a slot as the screens and receipts show it, e.g. "1 PM";
+    // slots from midnight on read "12 AM", "1 AM" and so on
+    public static String slotLabel(int timeIndex) {
+        return HOUR_LABELS[(FIRST_SLOT_HOUR + timeIndex) % 24];
+    }
+
+    // "1 PM to 3 PM" for slots 0 to 2: the start of the first and of the last slot
+    public static String slotRangeLabel(int fromIndex, int toIndex) {
+        return slotLabel(fromIndex) + " to " + slotLabel(toIndex);
+    }
+
+    // The first slot index (0-23) with that label, or -1
+    public static int parseSlotLabel(String label) {
+        for (int hour = 0; hour < 24; hour++) {
+            if (HOUR_LABELS[hour].equals(label)) return Math.floorMod(hour - FIRST_SLOT_HOUR, 24);
+        }
+        return -1;
+    }
+
+    public LocalDateTime getSlotEnd(LocalDate date, int timeIndex) {
+        return date.atStartOfDay().plusHours(FIRST_SLOT_HOUR + timeIndex + 1);
+    }
+
+    // Books and clears are journaled from here on; attach after replaying the journal
+    public void setJournal(BookingJournal journal) {
+        this.journal = journal;
+    }
+
+    // Null until setJournal
+    public BookingJournal getJournal() {
+        return journal;
+    }
+
+    // The attached journal, checked before a change is made: once it can no longer reach the
+    // disk, bookings and cancels fail without touching the grid instead of changing it unsaved
+    private BookingJournal writableJournal() {
+        BookingJournal log = journal;
+        if (log != null) {
+            log.checkWritable();
+        }
+        return log;
+    }
+
+    // Booked and removed cells are counted from here on; expiry does not count as a removal.
+    // Removals already recorded are counted first, to offset the transactions the analytics
+    // were seeded from
+    public void setAnalytics(BookingAnalytics analytics) {
+        if (analytics != null) {
+            analytics.recordRemoved(copyRemovalCounts());
+        }
+        this.analytics = analytics;
+    }
+
+    public void addListener(SlotListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(SlotListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Delivers changes to the date (every date when null) in per-date batches on the executor,
+    // e.g. SwingUtilities::invokeLater; close the subscription to stop them
+    public SlotSubscription subscribe(LocalDate date, Executor executor, Consumer<SlotChanges> handler) {
+        SlotSubscription subscription = new SlotSubscription(this, date, executor, handler);
+        listeners.add(subscription);
+        return subscription;
+    }
+
+    void setExpiryScheduler(ExpiryScheduler scheduler) {
+        this.expiryScheduler = scheduler;
+        if (scheduler == null) return;
+        for (Map.Entry<LocalDate, SlotGrid> entry : gridMap.entrySet()) {
+            for (int i = 0; i < numComputers; i++) {
+                for (int j = 0; j < numTimeSlots; j++) {
+                    if (isSlotBooked(entry.getKey(), i, j)) {
+                        scheduler.schedule(entry.getKey(), i, j, j);
+                    }
+                }
+            }
+        }
+    }
 
-    private final Map<LocalDate, boolean[][]> bookedMap = new HashMap<>();
-    private final Map<LocalDate, String[][]> bookedByMap = new HashMap<>();
+    // The date's live grid, made on first use; null once the date is archived. archivePastDays
+    // adds the archive before it drops the grid, so a date is never given a second, empty grid
+    private SlotGrid ensureDate(LocalDate date) {
+        return gridMap.computeIfAbsent(date, d -> archiveMap.containsKey(d) ? null : new SlotGrid(numComputers, numTimeSlots));
+    }
+
+    private void checkCell(int computerIndex, int timeIndex) {
+        Objects.checkIndex(computerIndex, numComputers);
+        Objects.checkIndex(timeIndex, numTimeSlots);
+    }
 
-    private void ensureDate(LocalDate date) {
-        bookedMap.computeIfAbsent(date, d -> new boolean[NUM_COMPUTERS][NUM_TIME_SLOTS]);
-        bookedByMap.computeIfAbsent(date, d -> new String[NUM_COMPUTERS][NUM_TIME_SLOTS]);
+    private Object rowLock(LocalDate date, int computerIndex) {
+        long h = date.toEpochDay() * 0x9E3779B97F4A7C15L + computerIndex;
+        return rowLocks[(int) (h ^ (h >>> 32)) & (LOCK_STRIPES - 1)];
+    }
+
+    private int userId(String username) {
+        Integer id = userIds.get(username);
+        return id != null ? id : registerUser(username);
+    }
+
+    private synchronized int registerUser(String username) {
+        Integer id = userIds.get(username);
+        if (id != null) return id;
+        String[] names = usernames;
+        if (usernameCount == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+        names[usernameCount] = username;
+        usernames = names;
+        userIds.put(username, usernameCount);
+        return usernameCount++;
     }
 
     public boolean bookSlot(LocalDate date, int computerIndex, int timeIndex, String username) {
-        ensureDate(date);
-        if (bookedMap.get(date)[computerIndex][timeIndex]) return false;
-        bookedMap.get(date)[computerIndex][timeIndex] = true;
-        bookedByMap.get(date)[computerIndex][timeIndex] = username;
+        SlotRangeEvent event = new SlotRangeEvent();
+        event.begin();
+        long start = BookingMetrics.ENABLED ? BookingMetrics.get().booking.start() : 0;
+        boolean booked = book(date, computerIndex, timeIndex, username);
+        if (BookingMetrics.ENABLED) BookingMetrics.get().recordBooking(start, booked);
+        traceRange(event, "book", date, computerIndex, timeIndex, timeIndex, booked);
+        return booked;
+    }
+
+    private boolean book(LocalDate date, int computerIndex, int timeIndex, String username) {
+        checkCell(computerIndex, timeIndex);
+        SlotGrid grid = ensureDate(date);
+        if (grid == null) return false;
+        int id = userId(username);
+        BookingJournal log = writableJournal();
+        synchronized (rowLock(date, computerIndex)) {
+            synchronized (reservations.lock(computerIndex)) {
+                if (grid.isSealed() || grid.isBooked(computerIndex, timeIndex)
+                        || !reservations.isFree(computerIndex, slotMinute(date, timeIndex), slotMinute(date, timeIndex + 1))) {
+                    return false;
+                }
+                grid.book(computerIndex, timeIndex, id);
+                if (log != null) {
+                    log.logBook(date, computerIndex, timeIndex, timeIndex, username);
+                }
+            }
+            for (SlotListener listener : listeners) {
+                listener.slotsBooked(date, computerIndex, timeIndex, timeIndex, username);
+            }
+        }
+        BookingAnalytics stats = analytics;
+        if (stats != null) {
+            stats.recordBooked((int) date.toEpochDay(), computerIndex, timeIndex, timeIndex);
+        }
+        ExpiryScheduler scheduler = expiryScheduler;
+        if (scheduler != null) {
+            scheduler.schedule(date, computerIndex, timeIndex, timeIndex);
+        }
+        return true;
+    }
+
+    // Books every slot in [fromIndex, toIndex] for one computer, or none of them
+    public boolean bookRange(LocalDate date, int computerIndex, int fromIndex, int toIndex, String username) {
+        SlotRangeEvent event = new SlotRangeEvent();
+        event.begin();
+        long start = BookingMetrics.ENABLED ? BookingMetrics.get().booking.start() : 0;
+        boolean booked = book(date, computerIndex, fromIndex, toIndex, username);
+        if (BookingMetrics.ENABLED) BookingMetrics.get().recordBooking(start, booked);
+        traceRange(event, "book", date, computerIndex, fromIndex, toIndex, booked);
+        return booked;
+    }
+
+    private boolean book(LocalDate date, int computerIndex, int fromIndex, int toIndex, String username) {
+        checkCell(computerIndex, fromIndex);
+        checkCell(computerIndex, toIndex);
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException("Invalid time range: " + fromIndex + " > " + toIndex);
+        }
+        SlotGrid grid = ensureDate(date);
+        if (grid == null) return false;
+        int id = userId(username);
+        BookingJournal log = writableJournal();
+        synchronized (rowLock(date, computerIndex)) {
+            synchronized (reservations.lock(computerIndex)) {
+                if (grid.isSealed() || !grid.isRangeFree(computerIndex, fromIndex, toIndex)
+                        || !reservations.isFree(computerIndex, slotMinute(date, fromIndex), slotMinute(date, toIndex + 1))) {
+                    return false;
+                }
+                grid.bookRange(computerIndex, fromIndex, toIndex, id);
+                if (log != null) {
+                    log.logBook(date, computerIndex, fromIndex, toIndex, username);
+                }
+            }
+            for (SlotListener listener : listeners) {
+                listener.slotsBooked(date, computerIndex, fromIndex, toIndex, username);
+            }
+        }
+        BookingAnalytics stats = analytics;
+        if (stats != null) {
+            stats.recordBooked((int) date.toEpochDay(), computerIndex, fromIndex, toIndex);
+        }
+        ExpiryScheduler scheduler = expiryScheduler;
+        if (scheduler != null) {
+            scheduler.schedule(date, computerIndex, fromIndex, toIndex);
+        }
         return true;
     }
 
-    public void clearSlot(LocalDate date, int computerIndex, int timeIndex) {
-        ensureDate(date);
-        bookedMap.get(date)[computerIndex][timeIndex] = false;
-        bookedByMap.get(date)[computerIndex][timeIndex] = null;
+    // True when the slot held an hourly booking; minute reservations are left alone
+    public boolean clearSlot(LocalDate date, int computerIndex, int timeIndex) {
+        SlotRangeEvent event = new SlotRangeEvent();
+        event.begin();
+        long start = BookingMetrics.ENABLED ? BookingMetrics.get().cancel.start() : 0;
+        boolean removed = clear(date, computerIndex, timeIndex, false);
+        if (BookingMetrics.ENABLED) BookingMetrics.get().recordCancel(start, removed);
+        traceRange(event, "clear", date, computerIndex, timeIndex, timeIndex, removed);
+        return removed;
+    }
+
+    // Fields are only filled in while a recording wants the event
+    private static void traceRange(SlotRangeEvent event, String operation, LocalDate date,
+                                   int computerIndex, int fromIndex, int toIndex, boolean succeeded) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.operation = operation;
+        event.date = date.toString();
+        event.computer = computerIndex;
+        event.fromSlot = fromIndex;
+        event.slotCount = toIndex - fromIndex + 1;
+        event.succeeded = succeeded;
+        event.commit();
+    }
+
+    // True when the slot was booked. A replayed clear is already in the journal and, when it
+    // was a removal, counted by the caller
+    private boolean clear(LocalDate date, int computerIndex, int timeIndex, boolean replayed) {
+        checkCell(computerIndex, timeIndex);
+        SlotGrid grid = gridMap.get(date);
+        if (grid == null) return false;
+        BookingJournal log = replayed ? null : writableJournal();
+        boolean wasBooked;
+        synchronized (rowLock(date, computerIndex)) {
+            if (grid.isSealed()) return false;
+            wasBooked = grid.isBooked(computerIndex, timeIndex);
+            synchronized (reservations.lock(computerIndex)) {
+                grid.clear(computerIndex, timeIndex);
+                if (wasBooked && !replayed) {
+                    long sequence = addRemoval((int) date.toEpochDay(), computerIndex, timeIndex);
+                    if (log != null) {
+                        log.logRemove(date, computerIndex, timeIndex, sequence);
+                    }
+                } else if (log != null) {
+                    log.logClear(date, computerIndex, timeIndex);
+                }
+            }
+            if (wasBooked) {
+                for (SlotListener listener : listeners) {
+                    listener.slotCleared(date, computerIndex, timeIndex, false);
+                }
+            }
+        }
+        BookingAnalytics stats = analytics;
+        if (wasBooked && !replayed && stats != null) {
+            stats.recordRemoved((int) date.toEpochDay(), computerIndex, timeIndex);
+        }
+        return wasBooked;
+    }
+
+    // Counts the removal and returns its number
+    private long addRemoval(int epochDay, int computerIndex, int timeIndex) {
+        synchronized (removalLock) {
+            removedByCell[computerIndex * numTimeSlots + timeIndex]++;
+            removedByDay.merge(epochDay, 1, Integer::sum);
+            return ++removalSequence;
+        }
+    }
+
+    public RemovalCounts copyRemovalCounts() {
+        synchronized (removalLock) {
+            int[] days = new int[removedByDay.size()];
+            int[] dayCounts = new int[days.length];
+            int i = 0;
+            for (Map.Entry<Integer, Integer> day : removedByDay.entrySet()) {
+                days[i] = day.getKey();
+                dayCounts[i++] = day.getValue();
+            }
+            return new RemovalCounts(removalSequence, removedByCell.clone(), days, dayCounts);
+        }
+    }
+
+    // Replaces the counts with those read back from a snapshot
+    public void restoreRemovalCounts(RemovalCounts counts) {
+        synchronized (removalLock) {
+            System.arraycopy(counts.byCell, 0, removedByCell, 0, removedByCell.length);
+            removedByDay.clear();
+            for (int i = 0; i < counts.days.length; i++) {
+                removedByDay.put(counts.days[i], counts.dayCounts[i]);
+            }
+            removalSequence = counts.sequence;
+            restoredRemovalSequence = counts.sequence;
+        }
+    }
+
+    // Journal replay of a plain clear
+    public void replayClear(LocalDate date, int computerIndex, int timeIndex) {
+        clear(date, computerIndex, timeIndex, true);
+    }
+
+    // Journal replay of a cancellation: clears the cell if the snapshot still has it booked, and
+    // counts the removal unless the snapshot's counts already hold it, whatever the grid says,
+    // since a snapshot's grids can be newer than its journal offset
+    public void replayRemoval(LocalDate date, int computerIndex, int timeIndex, long sequence) {
+        clear(date, computerIndex, timeIndex, true);
+        synchronized (removalLock) {
+            if (sequence <= restoredRemovalSequence) return;
+            removedByCell[computerIndex * numTimeSlots + timeIndex]++;
+            removedByDay.merge((int) date.toEpochDay(), 1, Integer::sum);
+            removalSequence = Math.max(removalSequence, sequence);
+        }
     }
 
     public boolean isSlotBooked(LocalDate date, int computerIndex, int timeIndex) {
-        ensureDate(date);
-        return bookedMap.get(date)[computerIndex][timeIndex];
+        return getOccupantId(date, computerIndex, timeIndex) >= 0;
     }
 
     public String getBookedBy(LocalDate date, int computerIndex, int timeIndex) {
-        ensureDate(date);
-        return bookedByMap.get(date)[computerIndex][timeIndex];
-    }
-
-    public void releaseExpiredBookings(LocalDate date, DefaultTableModel model) {
-        ensureDate(date);
-        LocalTime now = LocalTime.now();
-        for (int i = 0; i < NUM_COMPUTERS; i++) {
-            for (int j = 0; j < NUM_TIME_SLOTS; j++) {
-                int bookingHour = j + 13;
-                if (bookedMap.get(date)[i][j] && date.equals(LocalDate.now()) && now.getHour() > bookingHour) {
-                    bookedMap.get(date)[i][j] = false;
-                    bookedByMap.get(date)[i][j] = null;
-                    model.setValueAt("Available", i, j + 1);
+        int id = getOccupantId(date, computerIndex, timeIndex);
+        return id >= 0 ? usernames[id] : null;
+    }
+
+    // User id booked in the cell (as used by copyOccupants), or -1 when free.
+    // Reads never allocate a grid: dates with no bookings read as all available
+    public int getOccupantId(LocalDate date, int computerIndex, int timeIndex) {
+        checkCell(computerIndex, timeIndex);
+        SlotGrid grid = gridMap.get(date);
+        if (grid != null) {
+            synchronized (rowLock(date, computerIndex)) {
+                return grid.isBooked(computerIndex, timeIndex) ? grid.getOccupant(computerIndex, timeIndex) : -1;
+            }
+        }
+        ArchivedGrid archived = archiveMap.get(date);
+        return archived != null ? archived.getOccupant(computerIndex, timeIndex) : -1;
+    }
+
+    public FreeWindow findFirstFree(LocalDate fromDate, LocalDate toDate, int hours, IntPredicate pcFilter) {
+        return findFirstFree(fromDate, 0, toDate, hours, pcFilter);
+    }
+
+    // Earliest window of the given number of consecutive free slots on any computer accepted
+    // by pcFilter, searching fromDate (starting at firstSlot) through toDate inclusive; like
+    // bookRange, it passes over slots a reservation touches
+    public FreeWindow findFirstFree(LocalDate fromDate, int firstSlot, LocalDate toDate, int hours, IntPredicate pcFilter) {
+        SlotRangeEvent event = new SlotRangeEvent();
+        event.begin();
+        FreeWindow window = searchFree(fromDate, firstSlot, toDate, hours, pcFilter);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "findFree";
+            event.date = (window != null ? window.date : fromDate).toString();
+            event.computer = window != null ? window.computerIndex : -1;
+            event.fromSlot = window != null ? window.fromIndex : firstSlot;
+            event.slotCount = hours;
+            event.succeeded = window != null;
+            event.commit();
+        }
+        return window;
+    }
+
+    private FreeWindow searchFree(LocalDate fromDate, int firstSlot, LocalDate toDate, int hours, IntPredicate pcFilter) {
+        if (hours <= 0 || hours > numTimeSlots) {
+            throw new IllegalArgumentException("Invalid window length: " + hours);
+        }
+        for (LocalDate date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
+            int startSlot = date.equals(fromDate) ? Math.max(firstSlot, 0) : 0;
+            if (startSlot + hours > numTimeSlots) continue;
+            SlotGrid grid = gridMap.get(date);
+            if (grid == null ? archiveMap.containsKey(date) : !grid.hasFreeRun(hours)) continue;
+
+            int bestComputer = -1;
+            int bestSlot = numTimeSlots;
+            for (int i = 0; i < numComputers && bestSlot > startSlot; i++) {
+                if (grid != null && grid.getLongestFreeRun(i) < hours || !pcFilter.test(i)) continue;
+                int slot = firstFreeRun(date, grid, i, startSlot, hours);
+                if (slot >= 0 && slot < bestSlot) {
+                    bestComputer = i;
+                    bestSlot = slot;
                 }
             }
+            if (bestComputer >= 0) return new FreeWindow(date, bestComputer, bestSlot, bestSlot + hours - 1);
+        }
+        return null;
+    }
+
+    // First slot from startSlot on that starts a run of free hourly slots no reservation touches,
+    // or -1; grid is the date's live grid, null when nothing is booked on it
+    private int firstFreeRun(LocalDate date, SlotGrid grid, int computerIndex, int startSlot, int hours) {
+        boolean reserved = reservations.count(computerIndex) > 0;
+        for (int slot = startSlot; slot + hours <= numTimeSlots; slot++) {
+            if (grid != null) {
+                synchronized (rowLock(date, computerIndex)) {
+                    slot = grid.firstFreeRun(computerIndex, slot, hours);
+                }
+                if (slot < 0) return -1;
+            }
+            if (!reserved || reservations.isFree(computerIndex, slotMinute(date, slot), slotMinute(date, slot + hours))) {
+                return slot;
+            }
         }
+        return -1;
     }
 
-    public void populateTable(LocalDate date, DefaultTableModel model) {
-        ensureDate(date);
-        for (int i = 0; i < NUM_COMPUTERS; i++) {
-            for (int j = 0; j < NUM_TIME_SLOTS; j++) {
-                if (bookedMap.get(date)[i][j]) {
-                    model.setValueAt("Booked by " + bookedByMap.get(date)[i][j], i, j + 1);
-                } else {
-                    model.setValueAt("Available", i, j + 1);
+    // Reserves [start, end) on the computer to the minute, at any time of day and across
+    // midnight; false when it overlaps another reservation, a booked hourly slot or an archived date
+    public boolean reserve(int computerIndex, LocalDateTime start, LocalDateTime end, String username) {
+        long began = BookingMetrics.ENABLED ? BookingMetrics.get().booking.start() : 0;
+        boolean reserved = reserve(computerIndex, epochMinute(start), epochMinute(end), username);
+        if (BookingMetrics.ENABLED) BookingMetrics.get().recordBooking(began, reserved);
+        return reserved;
+    }
+
+    private boolean reserve(int computerIndex, int start, int end, String username) {
+        Objects.checkIndex(computerIndex, numComputers);
+        if (start >= end) {
+            throw new IllegalArgumentException("Invalid reservation: " + start + " >= " + end);
+        }
+        int id = userId(username);
+        BookingJournal log = writableJournal();
+        synchronized (reservations.lock(computerIndex)) {
+            if (!hourlyFree(computerIndex, start, end) || !reservations.reserve(computerIndex, start, end, id)) {
+                return false;
+            }
+            if (log != null) {
+                log.logReserve(computerIndex, start, end, username);
+            }
+        }
+        return true;
+    }
+
+    // Cancels the reservation covering the minute; false when there is none
+    public boolean release(int computerIndex, LocalDateTime at) {
+        Objects.checkIndex(computerIndex, numComputers);
+        long began = BookingMetrics.ENABLED ? BookingMetrics.get().cancel.start() : 0;
+        int minute = epochMinute(at);
+        BookingJournal log = writableJournal();
+        boolean released;
+        synchronized (reservations.lock(computerIndex)) {
+            released = reservations.release(computerIndex, minute) >= 0;
+            if (released && log != null) {
+                log.logRelease(computerIndex, minute);
+            }
+        }
+        if (BookingMetrics.ENABLED) BookingMetrics.get().recordCancel(began, released);
+        return released;
+    }
+
+    // True when neither a reservation nor an hourly booking touches [start, end)
+    public boolean isFree(int computerIndex, LocalDateTime start, LocalDateTime end) {
+        Objects.checkIndex(computerIndex, numComputers);
+        int from = epochMinute(start);
+        int to = epochMinute(end);
+        synchronized (reservations.lock(computerIndex)) {
+            return reservations.isFree(computerIndex, from, to) && hourlyFree(computerIndex, from, to);
+        }
+    }
+
+    public String getReservedBy(int computerIndex, LocalDateTime at) {
+        Objects.checkIndex(computerIndex, numComputers);
+        int id = reservations.occupantAt(computerIndex, epochMinute(at));
+        return id >= 0 ? usernames[id] : null;
+    }
+
+    // Grid view of one computer at any resolution: the user id (as in copyOccupants) holding each
+    // cellMinutes-wide cell from the given time on, -1 when free. Reservations and hourly bookings
+    // both show, so a 15-minute view of an hourly booking fills four cells
+    public void renderOccupants(int computerIndex, LocalDateTime from, int cellMinutes, int[] occupants) {
+        Objects.checkIndex(computerIndex, numComputers);
+        if (cellMinutes <= 0) {
+            throw new IllegalArgumentException("Invalid cell width: " + cellMinutes);
+        }
+        int start = epochMinute(from);
+        int cells = occupants.length;
+        reservations.render(computerIndex, start, cellMinutes, occupants, cells);
+        long end = start + (long) cellMinutes * cells;
+        for (long day = firstDayTouching(start); day <= lastDayTouching(end); day++) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            if (!gridMap.containsKey(date) && !archiveMap.containsKey(date)) continue;
+            for (int t = 0; t < numTimeSlots; t++) {
+                long slotStart = slotMinute(date, t);
+                if (slotStart + 60 <= start || slotStart >= end) continue;
+                int id = getOccupantId(date, computerIndex, t);
+                if (id < 0) continue;
+                int first = (int) Math.max(0, (slotStart - start) / cellMinutes);
+                int last = (int) Math.min(cells - 1, (slotStart + 59 - start) / cellMinutes);
+                for (int c = first; c <= last; c++) {
+                    if (occupants[c] < 0) occupants[c] = id;
                 }
             }
         }
     }
+
+    public int getReservationCount(int computerIndex) {
+        return reservations.count(computerIndex);
+    }
+
+    // The computer's reservations as (start, end, user id) triples, start and end in epoch minutes
+    public int[] copyReservations(int computerIndex) {
+        return reservations.copy(computerIndex);
+    }
+
+    // Adds reservations read back from a snapshot, as triples from copyReservations
+    public void restoreReservations(int computerIndex, int[] triples) {
+        for (int i = 0; i + 2 < triples.length; i += 3) {
+            reservations.reserve(computerIndex, triples[i], triples[i + 1], triples[i + 2]);
+        }
+    }
+
+    // True when no hourly slot overlapping [start, end) is booked or archived; the caller holds
+    // the computer's reservation lock, which every hourly grid change also takes
+    private boolean hourlyFree(int computerIndex, int start, int end) {
+        for (long day = firstDayTouching(start); day <= lastDayTouching(end); day++) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            long base = slotMinute(date, 0);
+            int from = (int) Math.max(0, Math.floorDiv(start - base, 60));
+            int to = (int) Math.min(numTimeSlots - 1, Math.floorDiv(end - 1 - base, 60));
+            if (from > to) continue;
+            if (archiveMap.containsKey(date)) return false;
+            SlotGrid grid = gridMap.get(date);
+            if (grid != null && (grid.isSealed() || !grid.isRangeFree(computerIndex, from, to))) return false;
+        }
+        return true;
+    }
+
+    // Earliest and latest dates whose hourly slots can overlap a window starting or ending at the minute
+    private long firstDayTouching(long minute) {
+        return Math.floorDiv(minute - (FIRST_SLOT_HOUR + numTimeSlots) * 60L, 1440);
+    }
+
+    private static long lastDayTouching(long minute) {
+        return Math.floorDiv(minute - 1 - FIRST_SLOT_HOUR * 60L, 1440);
+    }
+
+    // Wall-clock minutes since 1970-01-01T00:00, the unit reservations are kept in
+    private static int epochMinute(LocalDateTime time) {
+        return Math.toIntExact(Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60));
+    }
+
+    private static int slotMinute(LocalDate date, int timeIndex) {
+        return Math.toIntExact(date.toEpochDay() * 1440 + (FIRST_SLOT_HOUR + timeIndex) * 60L);
+    }
+
+    // Called by the expiry scheduler once the slot's hour is over
+    void releaseExpiredSlot(LocalDate date, int computerIndex, int timeIndex) {
+        SlotGrid grid = gridMap.get(date);
+        if (grid == null) return;
+        synchronized (rowLock(date, computerIndex)) {
+            if (grid.isSealed() || !grid.isBooked(computerIndex, timeIndex)) return;
+            synchronized (reservations.lock(computerIndex)) {
+                grid.clear(computerIndex, timeIndex);
+            }
+            for (SlotListener listener : listeners) {
+                listener.slotCleared(date, computerIndex, timeIndex, true);
+            }
+        }
+        if (BookingMetrics.ENABLED) BookingMetrics.get().recordExpiry();
+    }
+
+    // Changes whenever a slot on the date is booked, cleared or expired; 0 for dates never booked
+    public long getVersion(LocalDate date) {
+        SlotGrid grid = gridMap.get(date);
+        if (grid != null) return grid.getVersion();
+        ArchivedGrid archived = archiveMap.get(date);
+        return archived != null ? archived.getVersion() : 0;
+    }
+
+    // Copies the user id booked in every cell of the date (row-major, -1 when free)
+    // and returns the version the copy was taken at
+    public long copyOccupants(LocalDate date, int[] occupants) {
+        SlotGrid grid = gridMap.get(date);
+        if (grid == null) {
+            ArchivedGrid archived = archiveMap.get(date);
+            if (archived != null) {
+                archived.decode(occupants, numComputers * numTimeSlots);
+                return archived.getVersion();
+            }
+            Arrays.fill(occupants, 0, numComputers * numTimeSlots, -1);
+            return 0;
+        }
+        long version = grid.getVersion();
+        for (int i = 0; i < numComputers; i++) {
+            synchronized (rowLock(date, i)) {
+                for (int j = 0; j < numTimeSlots; j++) {
+                    occupants[i * numTimeSlots + j] = grid.isBooked(i, j) ? grid.getOccupant(i, j) : -1;
+                }
+            }
+        }
+        return version;
+    }
+
+    // Compacts every live date older than the retention window into a read-only archive.
+    // The grid is sealed first, so a write that already holds it either lands before its row
+    // is copied or sees the seal under the row lock and fails; the archive goes in before the
+    // grid comes out, so a write that looks the date up afterwards finds the archive (ensureDate)
+    public int archivePastDays(LocalDate today) {
+        LocalDate cutoff = today.minusDays(retentionDays);
+        int[] occupants = null;
+        int archived = 0;
+        for (Map.Entry<LocalDate, SlotGrid> entry : gridMap.entrySet()) {
+            LocalDate date = entry.getKey();
+            if (!date.isBefore(cutoff)) continue;
+            if (occupants == null) {
+                occupants = new int[numComputers * numTimeSlots];
+            }
+            SlotGrid grid = entry.getValue();
+            grid.seal();
+            long version = copyOccupants(date, occupants);
+            archiveMap.put(date, ArchivedGrid.encode(numTimeSlots, occupants, occupants.length, version));
+            gridMap.remove(date, grid);
+            archived++;
+        }
+        return archived;
+    }
+
+    public int getLiveDateCount() {
+        return gridMap.size();
+    }
+
+    public int getArchivedDateCount() {
+        return archiveMap.size();
+    }
+
+    // Every date with a live or archived grid, oldest first
+    public Set<LocalDate> getStoredDates() {
+        Set<LocalDate> dates = new TreeSet<>(gridMap.keySet());
+        dates.addAll(archiveMap.keySet());
+        return dates;
+    }
+
+    // Replaces the date's occupancy with row-major user ids (-1 for free), as read back from a snapshot
+    public void restoreDate(LocalDate date, int[] occupants) {
+        SlotGrid grid = new SlotGrid(numComputers, numTimeSlots);
+        grid.load(occupants);
+        archiveMap.remove(date);
+        gridMap.put(date, grid);
+    }
+
+    // Ids for the given names, registering any that are new
+    public int[] internUsers(String[] names) {
+        int[] ids = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            ids[i] = userId(names[i]);
+        }
+        return ids;
+    }
+
+    public String[] getUsernames() {
+        synchronized (this) {
+            return Arrays.copyOf(usernames, usernameCount);
+        }
+    }
+
+    // Id used in copyOccupants for the user, or -1 if they never booked
+    public int getUserId(String username) {
+        Integer id = userIds.get(username);
+        return id == null ? -1 : id;
+    }
+
+    public String getUsername(int userId) {
+        return usernames[userId];
+    }
 }
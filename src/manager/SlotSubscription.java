@@ -0,0 +1,105 @@
+package manager;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * A SlotManager listener that gathers changes per date and hands them to its
+ * handler in batches on an executor. Only one delivery is queued at a time:
+ * changes that arrive before it runs join the same batch, so a burst of
+ * bookings costs the EDT one pass however many there were.
+ */
+public class SlotSubscription implements SlotListener, AutoCloseable {
+    private final SlotManager slotManager;
+    private final Executor executor;
+    private final Consumer<SlotChanges> handler;
+    private final int numTimeSlots;
+    private volatile LocalDate date;
+    // Guarded by this
+    private Map<LocalDate, SlotChanges> pending = new HashMap<>();
+    private boolean scheduled;
+
+    SlotSubscription(SlotManager slotManager, LocalDate date, Executor executor, Consumer<SlotChanges> handler) {
+        this.slotManager = slotManager;
+        this.date = date;
+        this.executor = executor;
+        this.handler = handler;
+        this.numTimeSlots = slotManager.getNumTimeSlots();
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    // Follows another date; changes already gathered for the old one are still delivered
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    @Override
+    public void slotsBooked(LocalDate changed, int computerIndex, int fromIndex, int toIndex, String username) {
+        if (!watches(changed)) return;
+        synchronized (this) {
+            SlotChanges changes = changesFor(changed);
+            int row = computerIndex * numTimeSlots;
+            changes.cells.set(row + fromIndex, row + toIndex + 1);
+            changes.booked += toIndex - fromIndex + 1;
+            scheduleDelivery();
+        }
+    }
+
+    @Override
+    public void slotCleared(LocalDate changed, int computerIndex, int timeIndex, boolean expired) {
+        if (!watches(changed)) return;
+        synchronized (this) {
+            SlotChanges changes = changesFor(changed);
+            changes.cells.set(computerIndex * numTimeSlots + timeIndex);
+            if (expired) {
+                changes.expired++;
+            } else {
+                changes.cleared++;
+            }
+            scheduleDelivery();
+        }
+    }
+
+    @Override
+    public void close() {
+        slotManager.removeListener(this);
+    }
+
+    private boolean watches(LocalDate changed) {
+        LocalDate watched = date;
+        return watched == null || watched.equals(changed);
+    }
+
+    private SlotChanges changesFor(LocalDate changed) {
+        SlotChanges changes = pending.get(changed);
+        if (changes == null) {
+            changes = new SlotChanges(changed, numTimeSlots);
+            pending.put(changed, changes);
+        }
+        return changes;
+    }
+
+    private void scheduleDelivery() {
+        if (scheduled) return;
+        scheduled = true;
+        executor.execute(this::deliver);
+    }
+
+    private void deliver() {
+        Map<LocalDate, SlotChanges> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new HashMap<>();
+            scheduled = false;
+        }
+        for (SlotChanges changes : batch.values()) {
+            handler.accept(changes);
+        }
+    }
+}
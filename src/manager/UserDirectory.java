@@ -0,0 +1,161 @@
+package manager;
+
+import model.User;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Member accounts, loaded from a text file into a hash index by username.
+ *
+ * Each line is  username:role:iterations:salt:hash  with the salt and hash in
+ * Base64; the hash is PBKDF2-HMAC-SHA256 of the password. The file is only
+ * appended to, and a later line for a username replaces the earlier one.
+ * Checking a password costs one full PBKDF2 run by design, so callers keep
+ * authenticate() off the EDT.
+ */
+public class UserDirectory {
+    public static final int DEFAULT_ITERATIONS = Integer.getInteger("booking.pbkdf2Iterations", 600_000);
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final Path file;
+    private final Map<String, Account> accounts;
+    private final SecureRandom random = new SecureRandom();
+    // Unknown usernames are checked against this so they take as long as a wrong password
+    private final Account decoy;
+
+    private UserDirectory(Path file, int expectedUsers) {
+        this.file = file;
+        this.accounts = new ConcurrentHashMap<>(Math.max(16, expectedUsers * 4 / 3 + 1));
+        // Its hash never has to match anything, so random bytes will do
+        byte[] decoyHash = new byte[HASH_BITS / 8];
+        random.nextBytes(decoyHash);
+        this.decoy = new Account("", DEFAULT_ITERATIONS, newSalt(), decoyHash);
+    }
+
+    // An empty directory when the file does not exist yet; it is created by the first addUser
+    public static UserDirectory load(Path file) throws IOException {
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (NoSuchFileException e) {
+            return new UserDirectory(file, 0);
+        }
+        // About 90 bytes a line
+        UserDirectory directory = new UserDirectory(file, (int) Math.min(size / 90, 1 << 24));
+        Base64.Decoder base64 = Base64.getDecoder();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) continue;
+                int a = line.indexOf(':');
+                int b = line.indexOf(':', a + 1);
+                int c = line.indexOf(':', b + 1);
+                int d = line.indexOf(':', c + 1);
+                if (a <= 0 || b < 0 || c < 0 || d < 0) {
+                    throw new IOException(file + ":" + lineNumber + ": expected username:role:iterations:salt:hash");
+                }
+                directory.accounts.put(line.substring(0, a), new Account(line.substring(a + 1, b),
+                        Integer.parseInt(line, b + 1, c, 10),
+                        base64.decode(line.substring(c + 1, d)), base64.decode(line.substring(d + 1))));
+            }
+        }
+        return directory;
+    }
+
+    public int size() {
+        return accounts.size();
+    }
+
+    public boolean contains(String username) {
+        return accounts.containsKey(username);
+    }
+
+    // The member, or null when the username is unknown or the password is wrong; clears password
+    public User authenticate(String username, char[] password) {
+        try {
+            Account account = accounts.get(username);
+            Account checked = account != null ? account : decoy;
+            byte[] hash = hash(password, checked.salt, checked.iterations);
+            return MessageDigest.isEqual(hash, checked.hash) && account != null ? new User(username, account.role) : null;
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    // Adds the member, or replaces its password and role; clears password
+    public synchronized void addUser(String username, char[] password, String role) throws IOException {
+        if (username.isEmpty() || username.indexOf(':') >= 0 || username.indexOf('\n') >= 0
+                || role.indexOf(':') >= 0 || role.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Usernames and roles cannot be empty or contain ':' or line breaks");
+        }
+        byte[] salt = newSalt();
+        Account account;
+        try {
+            account = new Account(role, DEFAULT_ITERATIONS, salt, hash(password, salt, DEFAULT_ITERATIONS));
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+            out.write(line(username, account.role, account.iterations, account.salt, account.hash));
+        }
+        accounts.put(username, account);
+    }
+
+    public static String line(String username, String role, int iterations, byte[] salt, byte[] hash) {
+        Base64.Encoder base64 = Base64.getEncoder();
+        return username + ':' + role + ':' + iterations + ':' + base64.encodeToString(salt) + ':'
+                + base64.encodeToString(hash) + '\n';
+    }
+
+    public static byte[] hash(char[] password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private byte[] newSalt() {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return salt;
+    }
+
+    private static class Account {
+        final String role;
+        final int iterations;
+        final byte[] salt;
+        final byte[] hash;
+
+        Account(String role, int iterations, byte[] salt, byte[] hash) {
+            this.role = role;
+            this.iterations = iterations;
+            this.salt = salt;
+            this.hash = hash;
+        }
+    }
+}
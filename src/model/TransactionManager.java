@@ -1,28 +1,328 @@
 package model;
 
+import manager.SlotManager;
 import model.Transaction;
+import utils.BookingAnalytics;
+import utils.BookingJournal;
+import utils.BookingMetrics;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
+/**
+ * Transactions are stored column by column in primitive arrays: local
+ * timestamps as epoch seconds, booking dates as epoch days, packed slot
+ * ranges, computer indexes, interned user ids and amounts in centavos.
+ * Transaction objects are lightweight views built when a row is read.
+ * Strings that do not follow the usual "PC-n" / "1 PM to 2 PM" /
+ * "yyyy-MM-dd HH:mm:ss" shapes are kept verbatim on the side.
+ */
 public class TransactionManager {
-    private final List<Transaction> transactions = new ArrayList<>();
+    public static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int IRREGULAR = -1;
 
-    public void addTransaction(Transaction transaction) {
-        transactions.add(transaction);
+    private int size;
+    private long[] timestampSeconds = new long[1024];
+    private int[] bookingDays = new int[1024];
+    private int[] slotRanges = new int[1024];
+    private int[] computerIndexes = new int[1024];
+    private int[] userIds = new int[1024];
+    private long[] centavos = new long[1024];
+
+    private final Map<String, Integer> userIdsByName = new HashMap<>();
+    private final List<String> usernames = new ArrayList<>();
+    private final Map<Integer, String> irregularComputerIds = new HashMap<>();
+    private final Map<Integer, String> irregularTimeSlots = new HashMap<>();
+    private final Map<Integer, String> irregularTimestamps = new HashMap<>();
+
+    // Indexes kept up to date on every add so lookups never scan all rows
+    private final List<IntList> byUser = new ArrayList<>();
+    private final NavigableMap<Integer, IntList> byBookingDay = new TreeMap<>();
+    private final Map<String, IntList> byComputer = new HashMap<>();
+    private BookingJournal journal;
+    private BookingAnalytics analytics;
+
+    // New transactions are journaled from here on; attach after replaying the journal
+    public synchronized void setJournal(BookingJournal journal) {
+        this.journal = journal;
+    }
+
+    // Counts the stored transactions into the analytics and reports every new one
+    public synchronized void setAnalytics(BookingAnalytics analytics) {
+        if (analytics != null) {
+            analytics.seed(this);
+        }
+        this.analytics = analytics;
+    }
+
+    public synchronized BookingAnalytics getAnalytics() {
+        return analytics;
+    }
+
+    // Synchronized so a snapshot can pair the transaction count with a journal position
+    public synchronized void addTransaction(Transaction transaction) {
+        long start = BookingMetrics.ENABLED ? BookingMetrics.get().transactionAdd.start() : 0;
+        if (journal != null) {
+            journal.logTransaction(transaction);
+        }
+        int computerIndex = parseComputerIndex(transaction.computerId);
+        int slotRange = parseSlotRange(transaction.timeSlot);
+        long epochSecond = parseTimestamp(transaction.timestamp);
+        int row = append(transaction.user, computerIndex, slotRange, Math.round(transaction.amountPaid * 100),
+                epochSecond, (int) transaction.bookingDate.toEpochDay());
+        if (computerIndex == IRREGULAR) irregularComputerIds.put(row, transaction.computerId);
+        if (slotRange == IRREGULAR) irregularTimeSlots.put(row, transaction.timeSlot);
+        if (epochSecond == Long.MIN_VALUE) irregularTimestamps.put(row, transaction.timestamp);
+        index(row, transaction.computerId);
+        if (analytics != null) {
+            analytics.recordSale(bookingDays[row], computerIndex, slotRange, centavos[row]);
+        }
+        if (BookingMetrics.ENABLED) BookingMetrics.get().recordTransaction(start);
+    }
+
+    // Records a booking straight into the columns and returns its view
+    public synchronized Transaction addBooking(String user, int computerIndex, int fromSlot, int toSlot,
+                                               long amountCentavos, LocalDateTime bookedAt, LocalDate bookingDate) {
+        addBookingRow(user, computerIndex, fromSlot, toSlot, amountCentavos,
+                bookedAt.toEpochSecond(ZoneOffset.UTC), (int) bookingDate.toEpochDay());
+        return getTransaction(size - 1);
+    }
+
+    // Column-level add used by addBooking and when restoring saved rows
+    public synchronized void addBookingRow(String user, int computerIndex, int fromSlot, int toSlot,
+                                           long amountCentavos, long timestampSeconds, int bookingEpochDay) {
+        long start = BookingMetrics.ENABLED ? BookingMetrics.get().transactionAdd.start() : 0;
+        if (journal != null) {
+            journal.logBooking(user, computerIndex, fromSlot, toSlot, amountCentavos, timestampSeconds, bookingEpochDay);
+        }
+        int row = append(user, computerIndex, packSlots(fromSlot, toSlot), amountCentavos, timestampSeconds, bookingEpochDay);
+        index(row, null);
+        if (analytics != null) {
+            analytics.recordSale(bookingEpochDay, computerIndex, slotRanges[row], amountCentavos);
+        }
+        if (BookingMetrics.ENABLED) BookingMetrics.get().recordTransaction(start);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized Transaction getTransaction(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException(row);
+        int range = slotRanges[row];
+        String timeSlot = range == IRREGULAR ? irregularTimeSlots.get(row)
+                : SlotManager.slotRangeLabel(range >>> 16, range & 0xFFFF);
+        String timestamp = timestampSeconds[row] == Long.MIN_VALUE ? irregularTimestamps.get(row)
+                : LocalDateTime.ofEpochSecond(timestampSeconds[row], 0, ZoneOffset.UTC).format(TIMESTAMP_FORMAT);
+        return new Transaction(usernames.get(userIds[row]), computerId(row), timeSlot, centavos[row] / 100.0,
+                timestamp, LocalDate.ofEpochDay(bookingDays[row]));
+    }
+
+    // Raw column reads for code that aggregates or persists rows without building views
+
+    public synchronized String getUser(int row) {
+        return usernames.get(userIds[row]);
+    }
+
+    public synchronized int getComputerIndex(int row) {
+        return computerIndexes[row];
+    }
+
+    // Packed as fromSlot << 16 | toSlot, or -1 when the stored text was not a slot range
+    public synchronized int getSlotRange(int row) {
+        return slotRanges[row];
+    }
+
+    public synchronized long getAmountCentavos(int row) {
+        return centavos[row];
+    }
+
+    // Local date-time as seconds since 1970-01-01T00:00, or Long.MIN_VALUE when irregular
+    public synchronized long getTimestampSeconds(int row) {
+        return timestampSeconds[row];
+    }
+
+    public synchronized int getBookingEpochDay(int row) {
+        return bookingDays[row];
+    }
+
+    public synchronized boolean isRegular(int row) {
+        return computerIndexes[row] != IRREGULAR && slotRanges[row] != IRREGULAR
+                && timestampSeconds[row] != Long.MIN_VALUE;
     }
 
     public List<Transaction> getAllTransactions() {
-        return transactions;
+        return new RowView(null, size());
+    }
+
+    public synchronized List<Transaction> getTransactionsByUser(String username) {
+        Integer id = userIdsByName.get(username);
+        return id == null ? Collections.emptyList() : view(byUser.get(id));
+    }
+
+    public synchronized List<Transaction> getTransactionsByDate(LocalDate bookingDate) {
+        return view(byBookingDay.get((int) bookingDate.toEpochDay()));
+    }
+
+    public synchronized List<Transaction> getTransactionsByComputer(String computerId) {
+        return view(byComputer.get(computerId));
     }
 
-    public List<Transaction> getTransactionsByUser(String username) {
-        List<Transaction> result = new ArrayList<>();
-        for (Transaction t : transactions) {
-            if (t.user.equals(username)) {
-                result.add(t);
+    // Transactions whose booking date falls in [from, to], ordered by booking date
+    public synchronized List<Transaction> getTransactionsBetween(LocalDate from, LocalDate to) {
+        IntList rows = new IntList();
+        if (!from.isAfter(to)) {
+            for (IntList day : byBookingDay.subMap((int) from.toEpochDay(), true, (int) to.toEpochDay(), true).values()) {
+                rows.addAll(day);
             }
         }
-        return result;
+        return view(rows);
+    }
+
+    // Number of transactions whose booking date falls in [from, to], from the day buckets
+    public synchronized int countBetween(LocalDate from, LocalDate to) {
+        int count = 0;
+        if (!from.isAfter(to)) {
+            for (IntList day : byBookingDay.subMap((int) from.toEpochDay(), true, (int) to.toEpochDay(), true).values()) {
+                count += day.size;
+            }
+        }
+        return count;
+    }
+
+    private int append(String user, int computerIndex, int slotRange, long amountCentavos, long epochSecond, int epochDay) {
+        if (size == userIds.length) {
+            int capacity = size * 2;
+            timestampSeconds = Arrays.copyOf(timestampSeconds, capacity);
+            bookingDays = Arrays.copyOf(bookingDays, capacity);
+            slotRanges = Arrays.copyOf(slotRanges, capacity);
+            computerIndexes = Arrays.copyOf(computerIndexes, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+            centavos = Arrays.copyOf(centavos, capacity);
+        }
+        int row = size++;
+        timestampSeconds[row] = epochSecond;
+        bookingDays[row] = epochDay;
+        slotRanges[row] = slotRange;
+        computerIndexes[row] = computerIndex;
+        userIds[row] = userId(user);
+        centavos[row] = amountCentavos;
+        return row;
+    }
+
+    private void index(int row, String computerId) {
+        byUser.get(userIds[row]).add(row);
+        byBookingDay.computeIfAbsent(bookingDays[row], k -> new IntList()).add(row);
+        String key = computerId != null ? computerId : computerId(row);
+        byComputer.computeIfAbsent(key, k -> new IntList()).add(row);
+    }
+
+    private int userId(String user) {
+        Integer id = userIdsByName.get(user);
+        if (id != null) return id;
+        usernames.add(user);
+        byUser.add(new IntList());
+        userIdsByName.put(user, usernames.size() - 1);
+        return usernames.size() - 1;
+    }
+
+    private String computerId(int row) {
+        int index = computerIndexes[row];
+        return index == IRREGULAR ? irregularComputerIds.get(row) : "PC-" + (index + 1);
+    }
+
+    private static int packSlots(int fromSlot, int toSlot) {
+        return fromSlot << 16 | toSlot;
+    }
+
+    private static int parseComputerIndex(String computerId) {
+        if (computerId.startsWith("PC-")) {
+            try {
+                int number = Integer.parseInt(computerId.substring(3));
+                if (number > 0 && computerId.equals("PC-" + number)) return number - 1;
+            } catch (NumberFormatException e) {
+                // falls through to irregular
+            }
+        }
+        return IRREGULAR;
+    }
+
+    // Text written with the old "n PM" numbering past 11 PM stays irregular, so it reads back verbatim
+    private static int parseSlotRange(String timeSlot) {
+        int split = timeSlot.indexOf(" to ");
+        if (split < 0) return IRREGULAR;
+        int from = SlotManager.parseSlotLabel(timeSlot.substring(0, split));
+        int to = SlotManager.parseSlotLabel(timeSlot.substring(split + 4));
+        if (from < 0 || to < 0) return IRREGULAR;
+        return packSlots(from, to);
+    }
+
+    private static long parseTimestamp(String timestamp) {
+        try {
+            return LocalDateTime.parse(timestamp, TIMESTAMP_FORMAT).toEpochSecond(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private List<Transaction> view(IntList rows) {
+        return rows == null ? Collections.emptyList() : new RowView(rows, rows.size);
+    }
+
+    // Read-only list that builds a Transaction for a row when it is read
+    private class RowView extends AbstractList<Transaction> {
+        private final IntList rows;
+        private final int count;
+
+        RowView(IntList rows, int count) {
+            this.rows = rows;
+            this.count = count;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= count) throw new IndexOutOfBoundsException(index);
+            synchronized (TransactionManager.this) {
+                return getTransaction(rows == null ? index : rows.get(index));
+            }
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        void addAll(IntList other) {
+            if (size + other.size > values.length) values = Arrays.copyOf(values, Math.max(size + other.size, size * 2));
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        // Called under the manager lock; rows are only ever appended
+        int get(int index) {
+            return values[index];
+        }
     }
 }
@@ -1,13 +1,12 @@
 package model;
 
+// A signed-in member; passwords stay in the UserDirectory as salted hashes
 public class User {
     public String username;
-    public String password;
     public String role;
 
-    public User(String username, String password, String role) {
+    public User(String username, String role) {
         this.username = username;
-        this.password = password;
         this.role = role;
     }
 }
@@ -0,0 +1,110 @@
+package net;
+
+import model.Transaction;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Line protocol shared by BookingServer and RemoteBookingService.
+ *
+ * Every line is a list of tab-separated fields ending in '\n'; tabs, newlines
+ * and backslashes inside a field are escaped. Dates travel as epoch days.
+ * Nothing is encrypted, so AUTH passwords are only as private as the café LAN.
+ *
+ * On connecting the server sends  WELCOME computers timeSlots  and answers
+ * nothing but AUTH until a member has signed in on that connection. Bookings
+ * are made in the signed-in member's name and priced for their role, and the
+ * commands marked (admin) are refused unless that member is an admin.
+ *
+ * Requests start with a client-chosen id and a command:
+ *   id AUTH user password                     -> id OK role | id DENIED
+ *   id HELLO                                  -> id OK, then U/G lines and READY
+ *   id BOOK day pc from to                    -> id OK receiptNo transaction... | id TAKEN
+ *   id CANCEL day pc slot            (admin)  -> id OK true|false
+ *   id TXUSER user   (admin unless it is you) -> id OK count transaction...
+ *   id TXDATE day                    (admin)  -> id OK count transaction...
+ *   id EXPORT fromDay toDay format   (admin)  -> id OK rows   (written on the server)
+ *   id LASTRECEIPT                   (admin)  -> id OK receiptNo
+ *   id REPRINT receiptNo             (admin)  -> id OK text | id NONE
+ *   any failure                               -> id ERR message
+ *
+ * The server also pushes lines with no id:
+ *   U userId name           a user id used by the G lines that follow
+ *   G day occupants         every cell of a date, row-major, -1 for free
+ *   READY                   the mirror is complete
+ *   B day pc from to user   slots booked
+ *   C day pc slot           slot cleared or expired
+ */
+public final class BookingProtocol {
+    public static final int DEFAULT_PORT = 7070;
+    // A transaction travels as this many consecutive fields
+    public static final int TRANSACTION_FIELDS = 6;
+
+    private BookingProtocol() {
+    }
+
+    public static String line(Object... fields) {
+        StringBuilder line = new StringBuilder(64);
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) line.append('\t');
+            appendEscaped(line, String.valueOf(fields[i]));
+        }
+        return line.append('\n').toString();
+    }
+
+    public static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+    }
+
+    // Splits a line (without its '\n') back into unescaped fields
+    public static String[] split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                field.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    public static void appendTransaction(List<Object> fields, Transaction t) {
+        fields.add(t.user);
+        fields.add(t.computerId);
+        fields.add(t.timeSlot);
+        fields.add(Math.round(t.amountPaid * 100));
+        fields.add(t.timestamp);
+        fields.add(t.bookingDate.toEpochDay());
+    }
+
+    public static Transaction readTransaction(String[] fields, int offset) {
+        return new Transaction(fields[offset], fields[offset + 1], fields[offset + 2],
+                Long.parseLong(fields[offset + 3]) / 100.0, fields[offset + 4],
+                LocalDate.ofEpochDay(Long.parseLong(fields[offset + 5])));
+    }
+}
@@ -0,0 +1,387 @@
+package net;
+
+import manager.BookingService;
+import manager.SlotListener;
+import manager.SlotManager;
+import model.Transaction;
+import model.User;
+import utils.ReportExporter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves one authoritative SlotManager / TransactionManager pair to café
+ * terminals over the line protocol in BookingProtocol.
+ * Each connection gets a virtual thread reading requests and another writing
+ * replies and pushed changes from its own queue, so a slow terminal never
+ * holds up the booking writer or the other terminals. A terminal that falls
+ * more than OUTBOX_LIMIT lines behind is disconnected rather than left to
+ * grow the server's heap; dropping lines instead would leave its mirror wrong.
+ *
+ * A connection must sign in with AUTH before anything else is answered, and
+ * bookings are made in the signed-in member's name.
+ */
+public class BookingServer implements Closeable {
+    public static final int OUTBOX_LIMIT = Integer.getInteger("booking.outboxLimit", 10_000);
+
+    private final BookingService bookingService;
+    private final SlotManager slotManager;
+    private final ServerSocket serverSocket;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final Thread acceptor;
+
+    // Runs under SlotManager's row lock: it only adds the change to each terminal's queue.
+    // Each terminal's writer turns it into a line
+    private final SlotListener pushListener = new SlotListener() {
+        @Override
+        public void slotsBooked(LocalDate date, int computerIndex, int fromIndex, int toIndex, String username) {
+            broadcast(new SlotPush(date, computerIndex, fromIndex, toIndex, username));
+        }
+
+        @Override
+        public void slotCleared(LocalDate date, int computerIndex, int timeIndex, boolean expired) {
+            broadcast(new SlotPush(date, computerIndex, timeIndex, timeIndex, null));
+        }
+    };
+
+    public BookingServer(BookingService bookingService, String host, int port) throws IOException {
+        this.bookingService = bookingService;
+        this.slotManager = bookingService.getSlotManager();
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(host, port), 512);
+        this.acceptor = new Thread(this::acceptLoop, "booking-server");
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    public void start() {
+        slotManager.addListener(pushListener);
+        acceptor.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        slotManager.removeListener(pushListener);
+        serverSocket.close();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(socket);
+                connection.push(BookingProtocol.line("WELCOME", slotManager.getNumComputers(), slotManager.getNumTimeSlots()));
+                Thread.ofVirtual().name("terminal-" + connectionCount.incrementAndGet()).start(connection::readLoop);
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) e.printStackTrace();
+            }
+        }
+    }
+
+    private void broadcast(SlotPush change) {
+        for (Connection connection : connections) {
+            connection.push(change);
+        }
+    }
+
+    // A booked range, or a cleared slot when username is null
+    private static final class SlotPush {
+        final LocalDate date;
+        final int computerIndex;
+        final int fromIndex;
+        final int toIndex;
+        final String username;
+
+        SlotPush(LocalDate date, int computerIndex, int fromIndex, int toIndex, String username) {
+            this.date = date;
+            this.computerIndex = computerIndex;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.username = username;
+        }
+
+        String line() {
+            return username != null
+                    ? BookingProtocol.line("B", date.toEpochDay(), computerIndex, fromIndex, toIndex, username)
+                    : BookingProtocol.line("C", date.toEpochDay(), computerIndex, fromIndex);
+        }
+    }
+
+    private class Connection {
+        private final Socket socket;
+        // Reply lines, SlotPushes and the mirror copy's future, in the order they go out
+        private final LinkedTransferQueue<Object> outbox = new LinkedTransferQueue<>();
+        // Entries queued and not yet written; the queue's own size() walks it
+        private final AtomicInteger backlog = new AtomicInteger();
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private volatile boolean closed;
+        // Set by a successful AUTH
+        private volatile User user;
+
+        Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        void push(String line) {
+            queue(line);
+        }
+
+        void push(SlotPush change) {
+            queue(change);
+        }
+
+        // Lock-free, since pushes come from under SlotManager's row lock. A terminal that falls
+        // too far behind is closed from a thread of its own
+        private void queue(Object entry) {
+            if (closed) return;
+            if (backlog.incrementAndGet() > OUTBOX_LIMIT) {
+                if (overflowed.compareAndSet(false, true)) {
+                    Thread.ofVirtual().start(() -> {
+                        System.err.println("Terminal " + socket.getRemoteSocketAddress()
+                                + " fell " + OUTBOX_LIMIT + " lines behind, disconnecting it");
+                        close();
+                    });
+                }
+                return;
+            }
+            outbox.offer(entry);
+        }
+
+        void readLoop() {
+            Thread writer = Thread.ofVirtual().name(Thread.currentThread().getName() + "-out").start(this::writeLoop);
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    handle(BookingProtocol.split(line));
+                }
+            } catch (IOException e) {
+                // Terminal went away
+            } finally {
+                close();
+                writer.interrupt();
+            }
+        }
+
+        private void writeLoop() {
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 1 << 16)) {
+                while (!closed) {
+                    Object entry = outbox.take();
+                    int written = 0;
+                    do {
+                        out.write(text(entry));
+                        written++;
+                    } while ((entry = outbox.poll()) != null);
+                    out.flush();
+                    backlog.addAndGet(-written);
+                }
+            } catch (IOException | InterruptedException e) {
+                close();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private String text(Object entry) throws InterruptedException {
+            if (entry instanceof SlotPush) return ((SlotPush) entry).line();
+            if (entry instanceof CompletableFuture) {
+                try {
+                    return ((CompletableFuture<String>) entry).get();
+                } catch (ExecutionException e) {
+                    // The copy failed and its request was answered ERR instead
+                    return "";
+                }
+            }
+            return (String) entry;
+        }
+
+        void close() {
+            closed = true;
+            connections.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+
+        private void handle(String[] request) {
+            String id = request[0];
+            String command = request.length > 1 ? request[1] : "";
+            User session = user;
+            try {
+                if (session == null && !command.equals("AUTH")) {
+                    push(BookingProtocol.line(id, "ERR", "Sign in first"));
+                    return;
+                }
+                switch (command) {
+                    case "HELLO":
+                        sendMirror(id);
+                        break;
+                    case "BOOK":
+                        reply(id, bookingService.book(day(request[2]), Integer.parseInt(request[3]),
+                                Integer.parseInt(request[4]), Integer.parseInt(request[5]), session.username,
+                                session.role).thenApply(booking -> {
+                            if (booking == null) return BookingProtocol.line(id, "TAKEN");
+                            List<Object> fields = new ArrayList<>(List.of(id, "OK", booking.receiptNumber));
+                            BookingProtocol.appendTransaction(fields, booking.transaction);
+                            return BookingProtocol.line(fields.toArray());
+                        }));
+                        break;
+                    case "CANCEL":
+                        if (!isAdmin(id, session)) break;
+                        reply(id, bookingService.cancel(day(request[2]), Integer.parseInt(request[3]),
+                                Integer.parseInt(request[4])).thenApply(removed -> BookingProtocol.line(id, "OK", removed)));
+                        break;
+                    case "TXUSER":
+                        // Members may only look up their own bookings
+                        if (!request[2].equals(session.username) && !isAdmin(id, session)) break;
+                        reply(id, bookingService.getTransactionsByUser(request[2]).thenApply(list -> transactions(id, list)));
+                        break;
+                    case "TXDATE":
+                        if (!isAdmin(id, session)) break;
+                        reply(id, bookingService.getTransactionsByDate(day(request[2])).thenApply(list -> transactions(id, list)));
+                        break;
+                    case "EXPORT": {
+                        if (!isAdmin(id, session)) break;
+                        LocalDate from = day(request[2]);
+                        LocalDate to = day(request[3]);
+                        ReportExporter.Format format = ReportExporter.Format.valueOf(request[4]);
+                        Path file = Path.of("admin_report_" + from + "_to_" + to + "." + format.extension);
+                        reply(id, bookingService.export(file, from, to, format, () -> closed, done -> { })
+                                .thenApply(rows -> BookingProtocol.line(id, "OK", rows)));
+                        break;
+                    }
+                    case "AUTH":
+                        reply(id, bookingService.authenticate(request[2], request[3].toCharArray()).thenApply(member -> {
+                            if (member == null) return BookingProtocol.line(id, "DENIED");
+                            user = member;
+                            return BookingProtocol.line(id, "OK", member.role);
+                        }));
+                        break;
+                    case "LASTRECEIPT":
+                        if (!isAdmin(id, session)) break;
+                        reply(id, bookingService.getLastReceiptId().thenApply(last -> BookingProtocol.line(id, "OK", last)));
+                        break;
+                    case "REPRINT":
+                        if (!isAdmin(id, session)) break;
+                        reply(id, bookingService.reprintReceipt(Long.parseLong(request[2])).thenApply(text ->
+                                text == null ? BookingProtocol.line(id, "NONE") : BookingProtocol.line(id, "OK", text)));
+                        break;
+                    default:
+                        push(BookingProtocol.line(id, "ERR", "Unknown command"));
+                }
+            } catch (RuntimeException e) {
+                push(BookingProtocol.line(id, "ERR", String.valueOf(e.getMessage())));
+            }
+        }
+
+        // Answers ERR and returns false unless the signed-in member is an admin
+        private boolean isAdmin(String id, User session) {
+            if (session.role.equals("admin")) return true;
+            push(BookingProtocol.line(id, "ERR", "Admins only"));
+            return false;
+        }
+
+        private void reply(String id, CompletableFuture<String> result) {
+            result.whenComplete((line, error) -> {
+                if (error == null) {
+                    push(line);
+                } else {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    push(BookingProtocol.line(id, "ERR", String.valueOf(cause.getMessage())));
+                }
+            });
+        }
+
+        // Queues a place for the copy, then registers for pushes, so the changes made while it is
+        // read go out after it and none is lost; replaying a change the copy already has is harmless
+        private void sendMirror(String id) {
+            CompletableFuture<String> copy = new CompletableFuture<>();
+            queue(copy);
+            connections.add(this);
+            try {
+                copy.complete(mirror(id));
+            } catch (RuntimeException e) {
+                copy.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        // OK, every member name and every date with a booking, then READY
+        private String mirror(String id) {
+            int cells = slotManager.getNumComputers() * slotManager.getNumTimeSlots();
+            int[] occupants = new int[cells];
+            List<String> grids = new ArrayList<>();
+            for (LocalDate date : slotManager.getStoredDates()) {
+                slotManager.copyOccupants(date, occupants);
+                StringBuilder line = new StringBuilder(cells * 3).append("G\t").append(date.toEpochDay()).append('\t');
+                boolean any = false;
+                for (int c = 0; c < cells; c++) {
+                    if (c > 0) line.append(',');
+                    line.append(occupants[c]);
+                    any |= occupants[c] >= 0;
+                }
+                if (any) grids.add(line.append('\n').toString());
+            }
+            // Read after the grids so every id they use has a name
+            String[] users = slotManager.getUsernames();
+
+            // The whole copy goes out as one outbox entry, so only live changes count against the limit
+            StringBuilder mirror = new StringBuilder(BookingProtocol.line(id, "OK"));
+            for (int u = 0; u < users.length; u++) {
+                mirror.append(BookingProtocol.line("U", u, users[u]));
+            }
+            for (String grid : grids) {
+                mirror.append(grid);
+            }
+            return mirror.append(BookingProtocol.line("READY")).toString();
+        }
+
+        private String transactions(String id, List<Transaction> list) {
+            List<Object> fields = new ArrayList<>(2 + list.size() * BookingProtocol.TRANSACTION_FIELDS);
+            fields.add(id);
+            fields.add("OK");
+            fields.add(list.size());
+            for (Transaction t : list) {
+                BookingProtocol.appendTransaction(fields, t);
+            }
+            return BookingProtocol.line(fields.toArray());
+        }
+    }
+
+    private static LocalDate day(String epochDay) {
+        return LocalDate.ofEpochDay(Long.parseLong(epochDay));
+    }
+}
@@ -0,0 +1,283 @@
+package net;
+
+import manager.BookingService;
+import manager.SlotManager;
+import model.Transaction;
+import model.TransactionManager;
+import model.User;
+import utils.ReportExporter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * A BookingService for thin-client terminals: writes, transaction queries,
+ * exports and receipts go to a BookingServer, while the slot grids are a
+ * local mirror the server keeps current by pushing every change. Screens use
+ * it exactly like the in-process service, and their table reads stay local.
+ */
+public class RemoteBookingService extends BookingService {
+    private final Socket socket;
+    private final BufferedReader in;
+    private final Writer out;
+    private final SlotManager mirror;
+    private final Map<Long, CompletableFuture<String[]>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private final AtomicBoolean mirrorRequested = new AtomicBoolean();
+    // Server user id -> mirror user id
+    private int[] userMap = new int[0];
+
+    private RemoteBookingService(Socket socket, BufferedReader in, Writer out, SlotManager mirror) {
+        super(mirror, new TransactionManager());
+        this.socket = socket;
+        this.in = in;
+        this.out = out;
+        this.mirror = mirror;
+    }
+
+    // Connects; the server only shares its grids once a member signs in through authenticate()
+    public static RemoteBookingService connect(String host, int port) throws IOException {
+        Socket socket = new Socket();
+        socket.connect(new InetSocketAddress(host, port), 5000);
+        socket.setTcpNoDelay(true);
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), 1 << 16);
+        Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        String[] hello = BookingProtocol.split(readLine(in));
+        if (hello.length < 3 || !"WELCOME".equals(hello[0])) {
+            socket.close();
+            throw new IOException("Unexpected greeting from booking server: " + String.join(" ", hello));
+        }
+        SlotManager mirror = new SlotManager(Integer.parseInt(hello[1]), Integer.parseInt(hello[2]));
+        RemoteBookingService service = new RemoteBookingService(socket, in, out, mirror);
+        Thread.ofVirtual().name("booking-client").start(service::readLoop);
+        return service;
+    }
+
+    // "host:port", the port defaulting to BookingProtocol.DEFAULT_PORT
+    public static RemoteBookingService connect(String address) throws IOException {
+        int colon = address.lastIndexOf(':');
+        if (colon < 0) return connect(address, BookingProtocol.DEFAULT_PORT);
+        return connect(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    // Completes once the mirror matches the server, which is after the first successful authenticate()
+    public CompletableFuture<Void> getReady() {
+        return ready;
+    }
+
+    // The server books in the signed-in member's name at their role's price, whatever
+    // username and tier say
+    @Override
+    public CompletableFuture<Booking> book(LocalDate date, int computerIndex, int fromIndex, int toIndex,
+                                           String username, String tier) {
+        return send("BOOK", date.toEpochDay(), computerIndex, fromIndex, toIndex)
+                .thenApply(reply -> "TAKEN".equals(reply[1]) ? null
+                        : new Booking(BookingProtocol.readTransaction(reply, 3), Long.parseLong(reply[2])));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> cancel(LocalDate date, int computerIndex, int timeIndex) {
+        return send("CANCEL", date.toEpochDay(), computerIndex, timeIndex)
+                .thenApply(reply -> Boolean.parseBoolean(reply[2]));
+    }
+
+    @Override
+    public CompletableFuture<List<Transaction>> getTransactionsByUser(String username) {
+        return send("TXUSER", username).thenApply(RemoteBookingService::transactions);
+    }
+
+    @Override
+    public CompletableFuture<List<Transaction>> getTransactionsByDate(LocalDate date) {
+        return send("TXDATE", date.toEpochDay()).thenApply(RemoteBookingService::transactions);
+    }
+
+    // The report is written on the server under its usual name; the local path only names it.
+    // Progress jumps to the end when the server is done and cancelling stops waiting, not the server
+    @Override
+    public CompletableFuture<Integer> export(Path file, LocalDate from, LocalDate to, ReportExporter.Format format,
+                                             BooleanSupplier cancelled, IntConsumer progress) {
+        return send("EXPORT", from.toEpochDay(), to.toEpochDay(), format.name()).thenApply(reply -> {
+            progress.accept((int) (to.toEpochDay() - from.toEpochDay() + 1));
+            return Integer.parseInt(reply[2]);
+        });
+    }
+
+    // Members are checked against the server's directory and the connection stays signed in as
+    // them; the first sign-in also fetches the mirror, and completes once it is in
+    @Override
+    public CompletableFuture<User> authenticate(String username, char[] password) {
+        String secret = new String(password);
+        Arrays.fill(password, '\0');
+        return send("AUTH", username, secret).thenCompose(reply -> {
+            if ("DENIED".equals(reply[1])) return CompletableFuture.completedFuture(null);
+            User user = new User(username, reply[2]);
+            if (!mirrorRequested.getAndSet(true)) {
+                send("HELLO").whenComplete((hello, error) -> {
+                    if (error != null) ready.completeExceptionally(error);
+                });
+            }
+            return ready.thenApply(synced -> user);
+        });
+    }
+
+    // The directory lives on the server, so members are added there
+    @Override
+    public CompletableFuture<Void> addMember(String username, char[] password, String role) {
+        Arrays.fill(password, '\0');
+        return CompletableFuture.failedFuture(new UnsupportedOperationException("Add members on the server"));
+    }
+
+    @Override
+    public CompletableFuture<Long> getLastReceiptId() {
+        return send("LASTRECEIPT").thenApply(reply -> Long.parseLong(reply[2]));
+    }
+
+    @Override
+    public CompletableFuture<String> reprintReceipt(long receiptNumber) {
+        return send("REPRINT", receiptNumber).thenApply(reply -> "NONE".equals(reply[1]) ? null : reply[2]);
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+
+    private CompletableFuture<String[]> send(Object command, Object... args) {
+        long id = nextId.getAndIncrement();
+        CompletableFuture<String[]> reply = new CompletableFuture<>();
+        pending.put(id, reply);
+        Object[] fields = new Object[args.length + 2];
+        fields[0] = id;
+        fields[1] = command;
+        System.arraycopy(args, 0, fields, 2, args.length);
+        try {
+            synchronized (out) {
+                out.write(BookingProtocol.line(fields));
+                out.flush();
+            }
+        } catch (IOException e) {
+            pending.remove(id);
+            reply.completeExceptionally(e);
+        }
+        return reply;
+    }
+
+    private void readLoop() {
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = BookingProtocol.split(line);
+                char first = fields[0].isEmpty() ? ' ' : fields[0].charAt(0);
+                if (first >= '0' && first <= '9') {
+                    complete(fields);
+                } else {
+                    apply(fields);
+                }
+            }
+            failAll(new IOException("Booking server closed the connection"));
+        } catch (IOException e) {
+            failAll(e);
+        }
+    }
+
+    private void complete(String[] reply) {
+        CompletableFuture<String[]> future = pending.remove(Long.parseLong(reply[0]));
+        if (future == null) return;
+        if ("ERR".equals(reply[1])) {
+            future.completeExceptionally(new IllegalStateException(reply.length > 2 ? reply[2] : "Server error"));
+        } else {
+            future.complete(reply);
+        }
+    }
+
+    // Pushed changes; each is applied as "last write wins" so replays are harmless
+    private void apply(String[] push) {
+        switch (push[0]) {
+            case "U": {
+                int serverId = Integer.parseInt(push[1]);
+                if (serverId >= userMap.length) {
+                    userMap = Arrays.copyOf(userMap, Math.max(serverId + 1, userMap.length * 2));
+                }
+                userMap[serverId] = mirror.internUsers(new String[]{push[2]})[0];
+                break;
+            }
+            case "G": {
+                String[] cells = push[2].split(",");
+                int[] occupants = new int[cells.length];
+                for (int c = 0; c < cells.length; c++) {
+                    int serverId = Integer.parseInt(cells[c]);
+                    occupants[c] = serverId < 0 ? -1 : userMap[serverId];
+                }
+                mirror.restoreDate(LocalDate.ofEpochDay(Long.parseLong(push[1])), occupants);
+                break;
+            }
+            case "B": {
+                LocalDate date = LocalDate.ofEpochDay(Long.parseLong(push[1]));
+                int pc = Integer.parseInt(push[2]);
+                int from = Integer.parseInt(push[3]);
+                int to = Integer.parseInt(push[4]);
+                for (int t = from; t <= to; t++) {
+                    if (mirror.isSlotBooked(date, pc, t)) mirror.clearSlot(date, pc, t);
+                }
+                mirror.bookRange(date, pc, from, to, push[5]);
+                break;
+            }
+            case "C":
+                mirror.clearSlot(LocalDate.ofEpochDay(Long.parseLong(push[1])), Integer.parseInt(push[2]), Integer.parseInt(push[3]));
+                break;
+            case "READY":
+                ready.complete(null);
+                break;
+            default:
+                // Unknown pushes from a newer server are ignored
+        }
+    }
+
+    private void failAll(IOException e) {
+        ready.completeExceptionally(e);
+        for (Long id : pending.keySet()) {
+            CompletableFuture<String[]> future = pending.remove(id);
+            if (future != null) future.completeExceptionally(e);
+        }
+    }
+
+    private static List<Transaction> transactions(String[] reply) {
+        int count = Integer.parseInt(reply[2]);
+        List<Transaction> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(BookingProtocol.readTransaction(reply, 3 + i * BookingProtocol.TRANSACTION_FIELDS));
+        }
+        return list;
+    }
+
+    private static String readLine(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        if (line == null) throw new IOException("Booking server closed the connection");
+        return line;
+    }
+}
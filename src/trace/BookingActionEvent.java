@@ -0,0 +1,41 @@
+package trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One counter action from the click to the result shown on screen: a
+ * customer booking, an admin removal or an export. The confirm dialog and the
+ * store work inside it have their own events.
+ */
+@Name("capycafe.BookingAction")
+@Label("Booking Action")
+@Category({"CapyCafé", "Screens"})
+@Description("A book, remove or export action from click to the result on screen")
+public class BookingActionEvent extends jdk.jfr.Event {
+    @Label("Action")
+    public String action;
+
+    @Label("Date")
+    public String date;
+
+    @Label("Computer")
+    @Description("Computer index, -1 when not tied to one")
+    public int computer = -1;
+
+    @Label("First Slot")
+    public int fromSlot = -1;
+
+    @Label("Slot Count")
+    @Description("Slots booked or removed, days covered for exports")
+    public int slotCount;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Detail")
+    @Description("Receipt number for bookings, rows written for exports")
+    public long detail;
+}
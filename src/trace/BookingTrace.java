@@ -0,0 +1,46 @@
+package trace;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * Starts a flight recording with the bundled booking.jfc profile when the
+ * app is run with -Dbooking.jfr=file.jfr; the file is written on exit.
+ * The same profile works from the command line:
+ *   java -XX:StartFlightRecording:settings=src/trace/booking.jfc,filename=booking.jfr ...
+ * With no recording running the events cost nothing.
+ */
+public final class BookingTrace {
+    public static final String PROFILE = "/trace/booking.jfc";
+
+    private BookingTrace() {
+    }
+
+    public static Recording startIfRequested() {
+        String file = System.getProperty("booking.jfr");
+        if (file == null || file.isBlank()) return null;
+        try (InputStream in = BookingTrace.class.getResourceAsStream(PROFILE)) {
+            if (in == null) throw new IOException(PROFILE + " is missing from the classpath");
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                Recording recording = new Recording(Configuration.create(reader));
+                recording.setName("booking");
+                recording.setDestination(Path.of(file));
+                recording.setToDisk(true);
+                recording.setDumpOnExit(true);
+                recording.start();
+                return recording;
+            }
+        } catch (IOException | ParseException e) {
+            System.err.println("Could not start booking flight recording: " + e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Time a screen spent waiting on the user in a modal dialog. */
+@Name("capycafe.Dialog")
+@Label("Dialog Wait")
+@Category({"CapyCafé", "Screens"})
+@StackTrace(false)
+public class DialogEvent extends jdk.jfr.Event {
+    @Label("Title")
+    public String title;
+
+    @Label("Confirmed")
+    public boolean confirmed;
+}
@@ -0,0 +1,22 @@
+package trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One event dispatched on the EDT (paints, clicks, invokeLater tasks);
+ * the bundled profile only keeps the slow ones.
+ */
+@Name("capycafe.EdtDispatch")
+@Label("EDT Dispatch")
+@Category({"CapyCafé", "Screens"})
+@StackTrace(false)
+public class EdtDispatchEvent extends jdk.jfr.Event {
+    @Label("Event Type")
+    public String eventType;
+
+    @Label("Source")
+    public String source;
+}
@@ -0,0 +1,33 @@
+package trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** A report export rendering and writing its file. */
+@Name("capycafe.ExportWrite")
+@Label("Export Write")
+@Category({"CapyCafé", "Files"})
+@StackTrace(false)
+public class ExportWriteEvent extends jdk.jfr.Event {
+    @Label("From")
+    public String from;
+
+    @Label("To")
+    public String to;
+
+    @Label("Format")
+    public String format;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytes;
+
+    @Label("Completed")
+    public boolean completed;
+}
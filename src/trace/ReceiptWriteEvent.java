@@ -0,0 +1,27 @@
+package trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One batch of receipts appended to the archive, including its fsyncs. */
+@Name("capycafe.ReceiptWrite")
+@Label("Receipt Batch Write")
+@Category({"CapyCafé", "Files"})
+@StackTrace(false)
+public class ReceiptWriteEvent extends jdk.jfr.Event {
+    @Label("Receipts")
+    public int receipts;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytes;
+
+    @Label("Segment")
+    public int segment;
+
+    @Label("First Receipt")
+    public long firstReceipt;
+}
@@ -0,0 +1,31 @@
+package trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** A SlotManager booking, clear or free-window search. */
+@Name("capycafe.SlotRange")
+@Label("Slot Range Operation")
+@Category({"CapyCafé", "Store"})
+@StackTrace(false)
+public class SlotRangeEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Date")
+    public String date;
+
+    @Label("Computer")
+    public int computer;
+
+    @Label("First Slot")
+    public int fromSlot;
+
+    @Label("Slot Count")
+    public int slotCount;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,22 @@
+package trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** A slot table taking in changes or loading a date on the EDT. */
+@Name("capycafe.TableUpdate")
+@Label("Slot Table Update")
+@Category({"CapyCafé", "Screens"})
+@StackTrace(false)
+public class TableUpdateEvent extends jdk.jfr.Event {
+    @Label("Date")
+    public String date;
+
+    @Label("Full Reload")
+    public boolean fullReload;
+
+    @Label("Cells Changed")
+    public int cellsChanged;
+}
@@ -1,165 +1,149 @@
 package ui;
 
+import manager.BookingService;
+import manager.Branches;
 import manager.SlotManager;
 import model.TransactionManager;
 import model.Transaction;
 import model.User;
-import utils.ReceiptGenerator;
+import trace.BookingActionEvent;
+import trace.DialogEvent;
+import utils.BookingAnalytics;
+import utils.BookingMetrics;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.concurrent.CompletionException;
 
 public class AdminDashboard {
     private final User user;
+    private final BookingService bookingService;
     private final SlotManager slotManager;
     private final TransactionManager transactionManager;
 
-    public AdminDashboard(User user, SlotManager slotManager, TransactionManager transactionManager) {
+    public AdminDashboard(User user, BookingService bookingService) {
         this.user = user;
-        this.slotManager = slotManager;
-        this.transactionManager = transactionManager;
+        this.bookingService = bookingService;
+        this.slotManager = bookingService.getSlotManager();
+        this.transactionManager = bookingService.getTransactionManager();
     }
 
     public void display() {
-        JFrame frame = new JFrame("Admin Dashboard - " + user.username);
+        JFrame frame = new JFrame("Admin Dashboard - " + user.username + BranchSelector.titleSuffix(bookingService));
         frame.setSize(1100, 700);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
         // Background panel with warm beige color
         JPanel backgroundPanel = new JPanel(new BorderLayout());
-        backgroundPanel.setBackground(new Color(250, 244, 236));
+        backgroundPanel.setBackground(Assets.BEIGE);
         frame.setContentPane(backgroundPanel);
 
         // --- Menu Bar ---
         JMenuBar menuBar = new JMenuBar();
         JMenu menu = new JMenu("Options");
         JMenuItem logoutItem = new JMenuItem("Logout");
-        JMenuItem exportReportItem = new JMenuItem("Export Bookings by Date");
+        JMenuItem exportReportItem = new JMenuItem("Export Bookings...");
+        JMenuItem analyticsItem = new JMenuItem("Analytics");
+        JMenuItem metricsItem = new JMenuItem("Metrics");
+        JMenuItem addMemberItem = new JMenuItem("Add Member...");
 
         logoutItem.addActionListener(e -> {
             frame.dispose();
-            new LoginScreen(slotManager, transactionManager).display();
+            new LoginScreen(bookingService).display();
         });
 
-        exportReportItem.addActionListener(e -> {
-            String input = JOptionPane.showInputDialog(frame, "Enter date to export (yyyy-MM-dd):");
-            if (input == null || input.isBlank()) return;
+        // Runs in the background; the dashboard stays usable while a long range is written
+        exportReportItem.addActionListener(e -> ExportDialog.show(frame, bookingService));
 
-            try {
-                LocalDate selectedDate = LocalDate.parse(input);
-                List<Transaction> transactions = transactionManager.getAllTransactions();
-
-                int confirm = JOptionPane.showConfirmDialog(frame,
-                        "Export all bookings for " + selectedDate + "?",
-                        "Confirm Export", JOptionPane.YES_NO_OPTION);
-                if (confirm != JOptionPane.YES_OPTION) return;
-
-                try (FileWriter writer = new FileWriter("admin_day_report_" + selectedDate + ".txt")) {
-                    for (Transaction t : transactions) {
-                        if (t.bookingDate.equals(selectedDate)) {
-                            writer.write("User: " + t.user + ", Computer: " + t.computerId +
-                                    ", Slot: " + t.timeSlot + ", Paid: ₱" + t.amountPaid +
-                                    ", Time: " + t.timestamp + "\n");
-                        }
-                    }
-                    JOptionPane.showMessageDialog(frame, "Report exported successfully for " + selectedDate);
-                }
-            } catch (IOException | RuntimeException ex) {
-                JOptionPane.showMessageDialog(frame, "Error exporting report: " + ex.getMessage());
+        analyticsItem.addActionListener(e -> {
+            BookingAnalytics analytics = transactionManager.getAnalytics();
+            if (analytics == null) {
+                JOptionPane.showMessageDialog(frame, "Analytics are still loading.");
+                return;
+            }
+            AnalyticsPanel.showWindow(frame, analytics);
+        });
+
+        metricsItem.addActionListener(e -> MetricsPanel.showWindow(frame));
+
+        addMemberItem.addActionListener(e -> {
+            JTextField usernameField = new JTextField(15);
+            JPasswordField passwordField = new JPasswordField(15);
+            JComboBox<String> roleBox = new JComboBox<>(new String[]{"customer", "admin"});
+            JPanel form = new JPanel(new GridLayout(3, 2, 5, 5));
+            form.add(new JLabel("Username:"));
+            form.add(usernameField);
+            form.add(new JLabel("Password:"));
+            form.add(passwordField);
+            form.add(new JLabel("Role:"));
+            form.add(roleBox);
+            if (JOptionPane.showConfirmDialog(frame, form, "Add Member", JOptionPane.OK_CANCEL_OPTION)
+                    != JOptionPane.OK_OPTION) return;
+            String username = usernameField.getText().trim();
+            if (username.isEmpty() || passwordField.getPassword().length == 0) {
+                JOptionPane.showMessageDialog(frame, "Enter a username and a password.");
+                return;
             }
+            bookingService.addMember(username, passwordField.getPassword(), (String) roleBox.getSelectedItem())
+                    .whenCompleteAsync((added, error) -> {
+                        if (error != null) {
+                            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                            JOptionPane.showMessageDialog(frame, "Could not add member: " + cause.getMessage());
+                        } else {
+                            JOptionPane.showMessageDialog(frame, "Member " + username + " saved.");
+                        }
+                    }, SwingUtilities::invokeLater);
         });
 
         menu.add(logoutItem);
         menu.add(exportReportItem);
+        menu.add(analyticsItem);
+        menu.add(metricsItem);
+        menu.add(addMemberItem);
+        Branches branches = bookingService.getBranches();
+        if (branches != null && branches.size() > 1) {
+            JMenuItem branchReportItem = new JMenuItem("Branch Report...");
+            branchReportItem.addActionListener(e -> BranchReport.show(frame, branches));
+            menu.add(branchReportItem);
+        }
         menuBar.add(menu);
         frame.setJMenuBar(menuBar);
 
         // --- Table Setup ---
-        String[] columnNames = new String[SlotManager.NUM_TIME_SLOTS + 1];
-        columnNames[0] = "Computer #";
-        for (int i = 0; i < SlotManager.NUM_TIME_SLOTS; i++) {
-            columnNames[i + 1] = (i + 1) + " PM";
-        }
-
-        String[][] tableData = new String[SlotManager.NUM_COMPUTERS][SlotManager.NUM_TIME_SLOTS + 1];
-        for (int i = 0; i < SlotManager.NUM_COMPUTERS; i++) {
-            tableData[i][0] = "PC-" + (i + 1);
-            for (int j = 0; j < SlotManager.NUM_TIME_SLOTS; j++) {
-                tableData[i][j + 1] = "Available";
-            }
-        }
-
-        DefaultTableModel model = new DefaultTableModel(tableData, columnNames) {
-            @Override public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        SlotTableModel model = SlotTableModel.open(slotManager, LocalDate.now());
 
         JTable table = new JTable(model);
         table.setRowHeight(30);
-        table.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
-        table.getTableHeader().setFont(new Font("Comic Sans MS", Font.BOLD, 16));
+        table.setFont(Assets.FONT);
+        table.getTableHeader().setFont(Assets.HEADER_FONT);
 
         // Enable dynamic column resizing
         table.setAutoResizeMode(JTable.AUTO_RESIZE_SUBSEQUENT_COLUMNS);
 
-        // Custom cell renderer for coloring booked/available cells
-        table.setDefaultRenderer(Object.class, new javax.swing.table.DefaultTableCellRenderer() {
-            @Override
-            public Component getTableCellRendererComponent(JTable tbl, Object value, boolean isSelected,
-                                                           boolean hasFocus, int row, int col) {
-                Component comp = super.getTableCellRendererComponent(tbl, value, isSelected, hasFocus, row, col);
-                String cellValue = value != null ? value.toString() : "";
-
-                if (col == 0) {
-                    comp.setBackground(new Color(245, 238, 224)); // soft cream
-                    comp.setForeground(new Color(70, 50, 30));
-                    setHorizontalAlignment(LEFT);
-                } else if (cellValue.toLowerCase().contains("booked")) {
-                    comp.setBackground(new Color(248, 215, 218)); // warm coral/pink
-                    comp.setForeground(new Color(115, 0, 15));
-                    setHorizontalAlignment(CENTER);
-                } else if (cellValue.toLowerCase().contains("available")) {
-                    comp.setBackground(new Color(212, 237, 218)); // soft mint green
-                    comp.setForeground(new Color(21, 87, 36));
-                    setHorizontalAlignment(CENTER);
-                } else {
-                    comp.setBackground(Color.WHITE);
-                    comp.setForeground(Color.BLACK);
-                    setHorizontalAlignment(CENTER);
-                }
-
-                if (isSelected) {
-                    comp.setBackground(new Color(255, 235, 205)); // warm highlight
-                }
-
-                return comp;
-            }
-        });
+        // Shared renderer colours cells by their slot state
+        table.setDefaultRenderer(Object.class, new SlotCellRenderer());
 
         JScrollPane scrollPane = new JScrollPane(table);
         scrollPane.setPreferredSize(new Dimension(1050, 450));
         scrollPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollPane.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
         scrollPane.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(new Color(160, 130, 90), 3, true),
+                BorderFactory.createLineBorder(Assets.BORDER, 3, true),
                 BorderFactory.createEmptyBorder(5, 5, 5, 5)
         ));
 
         // --- Action Panel with GridBagLayout on left ---
         JPanel actionPanel = new JPanel(new GridBagLayout());
         actionPanel.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(new Color(160, 130, 90), 3, true),
+                BorderFactory.createLineBorder(Assets.BORDER, 3, true),
                 BorderFactory.createEmptyBorder(15, 20, 15, 20)
         ));
-        actionPanel.setBackground(new Color(250, 244, 236));
+        actionPanel.setBackground(Assets.BEIGE);
         actionPanel.setPreferredSize(new Dimension(350, 600));
 
         GridBagConstraints gbc = new GridBagConstraints();
@@ -170,8 +154,8 @@ public class AdminDashboard {
 
         gbc.gridx = 0; gbc.gridy = 0;
         JLabel titleLabel = new JLabel("Manage Bookings");
-        titleLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 18));
-        titleLabel.setForeground(new Color(115, 70, 15));
+        titleLabel.setFont(Assets.TITLE_FONT);
+        titleLabel.setForeground(Assets.CLOCK);
         titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
         gbc.gridwidth = 2;
         actionPanel.add(titleLabel, gbc);
@@ -179,76 +163,76 @@ public class AdminDashboard {
         gbc.gridwidth = 1; gbc.gridy++;
         gbc.gridx = 0;
         JLabel dateLabel = new JLabel("Date (yyyy-MM-dd):");
-        dateLabel.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
-        dateLabel.setForeground(new Color(100, 70, 20));
+        dateLabel.setFont(Assets.FONT);
+        dateLabel.setForeground(Assets.BROWN);
         actionPanel.add(dateLabel, gbc);
 
         gbc.gridx = 1;
         JTextField dateField = new JTextField(LocalDate.now().toString());
-        dateField.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
+        dateField.setFont(Assets.FONT);
         actionPanel.add(dateField, gbc);
 
         gbc.gridy++; gbc.gridx = 0;
         JLabel computerLabel = new JLabel("Computer:");
-        computerLabel.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
-        computerLabel.setForeground(new Color(100, 70, 20));
+        computerLabel.setFont(Assets.FONT);
+        computerLabel.setForeground(Assets.BROWN);
         actionPanel.add(computerLabel, gbc);
 
         gbc.gridx = 1;
         JComboBox<String> computerBox = new JComboBox<>();
-        for (int i = 0; i < SlotManager.NUM_COMPUTERS; i++) computerBox.addItem("PC-" + (i + 1));
-        computerBox.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
+        for (int i = 0; i < slotManager.getNumComputers(); i++) computerBox.addItem("PC-" + (i + 1));
+        computerBox.setFont(Assets.FONT);
         actionPanel.add(computerBox, gbc);
 
         gbc.gridy++; gbc.gridx = 0;
         JLabel timeSlotLabel = new JLabel("Time Slot:");
-        timeSlotLabel.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
-        timeSlotLabel.setForeground(new Color(100, 70, 20));
+        timeSlotLabel.setFont(Assets.FONT);
+        timeSlotLabel.setForeground(Assets.BROWN);
         actionPanel.add(timeSlotLabel, gbc);
 
         gbc.gridx = 1;
         JComboBox<String> timeSlotBox = new JComboBox<>();
-        for (int i = 0; i < SlotManager.NUM_TIME_SLOTS; i++) timeSlotBox.addItem((i + 1) + " PM");
-        timeSlotBox.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
+        for (int i = 0; i < slotManager.getNumTimeSlots(); i++) timeSlotBox.addItem(SlotManager.slotLabel(i));
+        timeSlotBox.setFont(Assets.FONT);
         actionPanel.add(timeSlotBox, gbc);
 
         gbc.gridy++; gbc.gridx = 0;
         gbc.gridwidth = 2;
         JButton refreshButton = new JButton("Load Date");
-        refreshButton.setFont(new Font("Comic Sans MS", Font.BOLD, 14));
-        refreshButton.setBackground(new Color(194, 159, 94));
-        refreshButton.setForeground(new Color(60, 30, 5));
+        refreshButton.setFont(Assets.BOLD_FONT);
+        refreshButton.setBackground(Assets.TAN);
+        refreshButton.setForeground(Assets.DARK_BROWN);
         refreshButton.setFocusPainted(false);
         actionPanel.add(refreshButton, gbc);
 
         gbc.gridy++;
         JButton removeButton = new JButton("Remove Booking");
-        removeButton.setFont(new Font("Comic Sans MS", Font.BOLD, 14));
-        removeButton.setBackground(new Color(194, 159, 94));
-        removeButton.setForeground(new Color(60, 30, 5));
+        removeButton.setFont(Assets.BOLD_FONT);
+        removeButton.setBackground(Assets.TAN);
+        removeButton.setForeground(Assets.DARK_BROWN);
         removeButton.setFocusPainted(false);
         actionPanel.add(removeButton, gbc);
 
         gbc.gridy++;
         JButton reportButton = new JButton("Show Transactions");
-        reportButton.setFont(new Font("Comic Sans MS", Font.BOLD, 14));
-        reportButton.setBackground(new Color(194, 159, 94));
-        reportButton.setForeground(new Color(60, 30, 5));
+        reportButton.setFont(Assets.BOLD_FONT);
+        reportButton.setBackground(Assets.TAN);
+        reportButton.setForeground(Assets.DARK_BROWN);
         reportButton.setFocusPainted(false);
         actionPanel.add(reportButton, gbc);
 
         gbc.gridy++;
-        JButton receiptButton = new JButton("Generate Receipt for Last");
-        receiptButton.setFont(new Font("Comic Sans MS", Font.BOLD, 14));
-        receiptButton.setBackground(new Color(194, 159, 94));
-        receiptButton.setForeground(new Color(60, 30, 5));
+        JButton receiptButton = new JButton("Reprint Receipt");
+        receiptButton.setFont(Assets.BOLD_FONT);
+        receiptButton.setBackground(Assets.TAN);
+        receiptButton.setForeground(Assets.DARK_BROWN);
         receiptButton.setFocusPainted(false);
         actionPanel.add(receiptButton, gbc);
 
         gbc.gridy++;
         JLabel actionLabel = new JLabel(" ");
-        actionLabel.setFont(new Font("Comic Sans MS", Font.ITALIC, 13));
-        actionLabel.setForeground(new Color(115, 30, 30));
+        actionLabel.setFont(Assets.MESSAGE_FONT);
+        actionLabel.setForeground(Assets.WARNING);
         actionLabel.setHorizontalAlignment(SwingConstants.CENTER);
         actionPanel.add(actionLabel, gbc);
         
@@ -256,13 +240,8 @@ public class AdminDashboard {
 gbc.gridx = 0;
 gbc.gridwidth = 2;         // Span across two columns to center nicely
 
-// Load and scale the image (replace with your image path/resource)
-ImageIcon originalIcon = new ImageIcon(getClass().getResource("/images/capybara_iconAdmin.jpg"));
-Image originalImage = originalIcon.getImage();
-Image scaledImage = originalImage.getScaledInstance(120, 120, Image.SCALE_SMOOTH);
-ImageIcon scaledIcon = new ImageIcon(scaledImage);
-
-JLabel imageLabel = new JLabel(scaledIcon);
+// Decoded and scaled in the background by Assets; later logins reuse it
+JLabel imageLabel = Assets.iconLabel(Assets.ADMIN_ICON, Assets.ADMIN_ICON_SIZE);
 imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
 
 actionPanel.add(imageLabel, gbc);
@@ -271,88 +250,144 @@ actionPanel.add(imageLabel, gbc);
         refreshButton.addActionListener(e -> {
             try {
                 LocalDate selectedDate = LocalDate.parse(dateField.getText());
-                slotManager.populateTable(selectedDate, model);
+                model.setDate(selectedDate);
                 actionLabel.setText("Table updated.");
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(frame, "Invalid date format. Use yyyy-MM-dd");
             }
         });
 
+        // Handlers only gather input; the service does the work and results come back on the EDT
         removeButton.addActionListener(e -> {
+            LocalDate selectedDate;
             try {
-                LocalDate selectedDate = LocalDate.parse(dateField.getText());
-                int compIndex = computerBox.getSelectedIndex();
-                int timeIndex = timeSlotBox.getSelectedIndex();
-
-                if (!slotManager.isSlotBooked(selectedDate, compIndex, timeIndex)) {
-                    actionLabel.setText("Slot already available");
-                    return;
-                }
-
-                int confirm = JOptionPane.showConfirmDialog(frame,
-                        "Remove booking for PC-" + (compIndex + 1) + " at " + (timeIndex + 1) + " PM on " + selectedDate + "?",
-                        "Confirm Removal", JOptionPane.YES_NO_OPTION);
-                if (confirm != JOptionPane.YES_OPTION) return;
-
-                slotManager.clearSlot(selectedDate, compIndex, timeIndex);
-                slotManager.populateTable(selectedDate, model);
-                actionLabel.setText("Booking removed");
+                selectedDate = LocalDate.parse(dateField.getText());
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(frame, "Invalid date format.");
+                return;
+            }
+            int compIndex = computerBox.getSelectedIndex();
+            int timeIndex = timeSlotBox.getSelectedIndex();
+
+            if (!slotManager.isSlotBooked(selectedDate, compIndex, timeIndex)) {
+                actionLabel.setText("Slot already available");
+                return;
             }
+
+            BookingActionEvent action = new BookingActionEvent();
+            action.begin();
+            action.action = "remove";
+            action.date = selectedDate.toString();
+            action.computer = compIndex;
+            action.fromSlot = timeIndex;
+            action.slotCount = 1;
+
+            DialogEvent dialog = new DialogEvent();
+            dialog.begin();
+            int confirm = JOptionPane.showConfirmDialog(frame,
+                    "Remove booking for PC-" + (compIndex + 1) + " at " + SlotManager.slotLabel(timeIndex) + " on " + selectedDate + "?",
+                    "Confirm Removal", JOptionPane.YES_NO_OPTION);
+            dialog.title = "Confirm Removal";
+            dialog.confirmed = confirm == JOptionPane.YES_OPTION;
+            dialog.commit();
+            if (confirm != JOptionPane.YES_OPTION) {
+                action.outcome = "declined";
+                action.commit();
+                return;
+            }
+
+            removeButton.setEnabled(false);
+            bookingService.cancel(selectedDate, compIndex, timeIndex).whenCompleteAsync((removed, error) -> {
+                removeButton.setEnabled(true);
+                model.setDate(selectedDate);
+                if (error != null) {
+                    actionLabel.setText("Could not remove booking");
+                    action.outcome = "failed";
+                } else {
+                    actionLabel.setText(removed ? "Booking removed" : "Slot already available");
+                    action.outcome = removed ? "removed" : "already free";
+                }
+                action.commit();
+            }, SwingUtilities::invokeLater);
         });
 
         reportButton.addActionListener(e -> {
+            LocalDate selectedDate;
             try {
-                LocalDate selectedDate = LocalDate.parse(dateField.getText());
-                List<Transaction> transactions = transactionManager.getAllTransactions();
+                selectedDate = LocalDate.parse(dateField.getText());
+            } catch (Exception ex) {
+                JOptionPane.showMessageDialog(frame, "Invalid date format.");
+                return;
+            }
+            bookingService.getTransactionsByDate(selectedDate).thenAcceptAsync(transactions -> {
                 JTextArea reportArea = new JTextArea(20, 60);
                 for (Transaction t : transactions) {
-                    if (t.bookingDate.equals(selectedDate)) {
-                        reportArea.append("User: " + t.user + ", Computer: " + t.computerId +
-                                ", Slot: " + t.timeSlot + ", Paid: ₱" + t.amountPaid +
-                                ", Time: " + t.timestamp + "\n");
-                    }
+                    reportArea.append("User: " + t.user + ", Computer: " + t.computerId +
+                            ", Slot: " + t.timeSlot + ", Paid: ₱" + t.amountPaid +
+                            ", Time: " + t.timestamp + "\n");
                 }
                 JOptionPane.showMessageDialog(frame, new JScrollPane(reportArea),
                         "Transactions on " + selectedDate, JOptionPane.INFORMATION_MESSAGE);
-            } catch (Exception ex) {
-                JOptionPane.showMessageDialog(frame, "Invalid date format.");
-            }
+            }, SwingUtilities::invokeLater);
         });
 
-        receiptButton.addActionListener(e -> {
-            List<Transaction> transactions = transactionManager.getAllTransactions();
-            if (!transactions.isEmpty()) {
-                Transaction last = transactions.get(transactions.size() - 1);
-                ReceiptGenerator.generateReceipt(last);
-                actionLabel.setText("Receipt saved.");
-            } else {
-                actionLabel.setText("No transactions yet.");
+        receiptButton.addActionListener(e -> bookingService.getLastReceiptId().thenAcceptAsync(last -> {
+            if (last == 0) {
+                actionLabel.setText("No receipts yet.");
+                return;
             }
-        });
+            String input = JOptionPane.showInputDialog(frame, "Receipt number (1-" + last + "):", last);
+            if (input == null || input.isBlank()) return;
+            long receiptNumber;
+            try {
+                receiptNumber = Long.parseLong(input.trim());
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(frame, "Receipt number must be a number.");
+                return;
+            }
+            bookingService.reprintReceipt(receiptNumber).whenCompleteAsync((receipt, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    JOptionPane.showMessageDialog(frame, "Error reading receipt: " + cause.getMessage());
+                } else if (receipt == null) {
+                    actionLabel.setText("No receipt #" + receiptNumber);
+                } else {
+                    JTextArea receiptArea = new JTextArea(receipt, 12, 40);
+                    receiptArea.setEditable(false);
+                    JOptionPane.showMessageDialog(frame, new JScrollPane(receiptArea),
+                            "Receipt #" + receiptNumber, JOptionPane.INFORMATION_MESSAGE);
+                }
+            }, SwingUtilities::invokeLater);
+        }, SwingUtilities::invokeLater));
 
         // --- Clock Label and Timer ---
         JLabel clockLabel = new JLabel();
-        clockLabel.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
+        clockLabel.setFont(Assets.FONT);
         clockLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
-        clockLabel.setForeground(new Color(115, 70, 15));
+        clockLabel.setForeground(Assets.CLOCK);
+        // Bookings arrive through the table model's subscription; the timer only ticks the clock
         Timer clockTimer = new Timer(1000, e -> {
-            LocalDate current = LocalDate.parse(dateField.getText());
-            LocalDateTime now = LocalDateTime.now();
-            clockLabel.setText("Current Time: " + now.format(DateTimeFormatter.ofPattern("HH:mm:ss")));
-            slotManager.releaseExpiredBookings(current, model);
-            slotManager.populateTable(current, model);
+            long start = BookingMetrics.ENABLED ? BookingMetrics.get().timerTick.start() : 0;
+            clockLabel.setText("Current Time: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss")));
+            model.refreshExpired();
+            if (BookingMetrics.ENABLED) BookingMetrics.get().timerTick.stop(start);
         });
         clockTimer.start();
-
-        slotManager.populateTable(LocalDate.now(), model);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                clockTimer.stop();
+                model.close();
+            }
+        });
 
         // Add components to frame
-        frame.add(clockLabel, BorderLayout.NORTH);
+        frame.add(BranchSelector.header(frame, clockLabel, bookingService,
+                branch -> new AdminDashboard(user, branch).display()), BorderLayout.NORTH);
         frame.add(scrollPane, BorderLayout.CENTER);
         frame.add(actionPanel, BorderLayout.WEST);
 
+        StartupTiming.dashboardShown(frame, bookingService, true);
         frame.setVisible(true);
     }
 }
@@ -0,0 +1,210 @@
+package ui;
+
+import manager.SlotManager;
+import utils.BookingAnalytics;
+import utils.BookingMetrics;
+
+import javax.swing.*;
+import java.awt.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Admin analytics page: headline figures, an hour x PC utilization heatmap
+ * and daily revenue for the last two weeks.
+ * Everything is read from BookingAnalytics counters, so a refresh costs one
+ * read per bucket however long the booking history is.
+ */
+public final class AnalyticsPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int REVENUE_DAYS = 14;
+    private static final Font LABEL_FONT = new Font("Comic Sans MS", Font.PLAIN, 14);
+    private static final Font SMALL_FONT = new Font("Comic Sans MS", Font.PLAIN, 11);
+    private static final Color BACKGROUND = new Color(250, 244, 236);
+    private static final Color TEXT = new Color(100, 70, 20);
+    private static final Color BORDER = new Color(160, 130, 90);
+    private static final Color COLD = new Color(245, 238, 224);
+    private static final Color HOT = new Color(160, 82, 45);
+    private static final Color BAR = new Color(194, 159, 94);
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("MM-dd");
+
+    private final transient BookingAnalytics analytics;
+    private final int numComputers;
+    private final int numTimeSlots;
+    private final int[] heat;
+    private final long[] dailyRevenue = new long[REVENUE_DAYS];
+    private LocalDate firstRevenueDay = LocalDate.now();
+
+    private final JLabel totalLabel = new JLabel();
+    private final JLabel todayLabel = new JLabel();
+    private final JLabel occupancyLabel = new JLabel();
+    private final JLabel peakLabel = new JLabel();
+    private final JLabel topComputerLabel = new JLabel();
+    private final JPanel heatmap = new JPanel() {
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            paintHeatmap(g, getWidth(), getHeight());
+        }
+    };
+    private final JPanel revenueChart = new JPanel() {
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            paintRevenue(g, getWidth(), getHeight());
+        }
+    };
+
+    public AnalyticsPanel(BookingAnalytics analytics) {
+        super(new BorderLayout(10, 10));
+        this.analytics = analytics;
+        this.numComputers = analytics.getNumComputers();
+        this.numTimeSlots = analytics.getNumTimeSlots();
+        this.heat = new int[numComputers * numTimeSlots];
+        setBackground(BACKGROUND);
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JPanel summary = new JPanel(new GridLayout(0, 1, 4, 4));
+        summary.setBackground(BACKGROUND);
+        summary.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(BORDER, 3, true),
+                BorderFactory.createEmptyBorder(10, 15, 10, 15)
+        ));
+        for (JLabel label : new JLabel[]{totalLabel, todayLabel, occupancyLabel, peakLabel, topComputerLabel}) {
+            label.setFont(LABEL_FONT);
+            label.setForeground(TEXT);
+            summary.add(label);
+        }
+
+        heatmap.setBackground(BACKGROUND);
+        heatmap.setBorder(BorderFactory.createTitledBorder(BorderFactory.createLineBorder(BORDER, 2, true),
+                "Bookings by hour and PC", 0, 0, LABEL_FONT, TEXT));
+        revenueChart.setBackground(BACKGROUND);
+        revenueChart.setPreferredSize(new Dimension(400, 220));
+        revenueChart.setBorder(BorderFactory.createTitledBorder(BorderFactory.createLineBorder(BORDER, 2, true),
+                "Daily revenue, last " + REVENUE_DAYS + " days", 0, 0, LABEL_FONT, TEXT));
+
+        add(summary, BorderLayout.NORTH);
+        add(heatmap, BorderLayout.CENTER);
+        add(revenueChart, BorderLayout.SOUTH);
+        refresh();
+    }
+
+    // Re-reads the counters; call on the EDT
+    public void refresh() {
+        LocalDate today = LocalDate.now();
+        firstRevenueDay = today.minusDays(REVENUE_DAYS - 1);
+        System.arraycopy(analytics.getDailyRevenue(firstRevenueDay, today), 0, dailyRevenue, 0, REVENUE_DAYS);
+        for (int i = 0; i < numComputers; i++) {
+            for (int t = 0; t < numTimeSlots; t++) {
+                heat[i * numTimeSlots + t] = analytics.getBookedCount(i, t);
+            }
+        }
+
+        int topComputer = 0;
+        for (int i = 1; i < numComputers; i++) {
+            if (analytics.getComputerRevenue(i) > analytics.getComputerRevenue(topComputer)) topComputer = i;
+        }
+        int[] peaks = analytics.getPeakHours();
+        StringBuilder peakText = new StringBuilder("Peak hours: ");
+        for (int k = 0; k < Math.min(3, peaks.length); k++) {
+            if (k > 0) peakText.append(", ");
+            peakText.append(SlotManager.slotLabel(peaks[k])).append(" (").append(analytics.getBookedCountByHour(peaks[k])).append(")");
+        }
+
+        totalLabel.setText("Total revenue: " + peso(analytics.getTotalRevenue()));
+        todayLabel.setText("Today's revenue: " + peso(dailyRevenue[REVENUE_DAYS - 1]));
+        occupancyLabel.setText(String.format("Occupancy today: %.1f%%   Overall: %.1f%%",
+                analytics.getOccupancyPercent(today), analytics.getOverallOccupancyPercent()));
+        peakLabel.setText(peakText.toString());
+        topComputerLabel.setText("Top PC: PC-" + (topComputer + 1) + " with " + peso(analytics.getComputerRevenue(topComputer)));
+        heatmap.repaint();
+        revenueChart.repaint();
+    }
+
+    private void paintHeatmap(Graphics g, int width, int height) {
+        Insets insets = heatmap.getInsets();
+        int left = insets.left + 50;
+        int top = insets.top + 20;
+        int cellWidth = Math.max((width - left - insets.right) / numTimeSlots, 1);
+        int cellHeight = Math.max((height - top - insets.bottom) / numComputers, 1);
+        int max = 1;
+        for (int count : heat) {
+            max = Math.max(max, count);
+        }
+
+        g.setFont(SMALL_FONT);
+        g.setColor(TEXT);
+        for (int t = 0; t < numTimeSlots; t++) {
+            g.drawString(SlotManager.slotLabel(t), left + t * cellWidth + 4, top - 5);
+        }
+        for (int i = 0; i < numComputers; i++) {
+            int y = top + i * cellHeight;
+            g.setColor(TEXT);
+            g.drawString("PC-" + (i + 1), insets.left + 4, y + cellHeight - 3);
+            for (int t = 0; t < numTimeSlots; t++) {
+                g.setColor(blend(heat[i * numTimeSlots + t] / (float) max));
+                g.fillRect(left + t * cellWidth, y, cellWidth - 1, cellHeight - 1);
+            }
+        }
+    }
+
+    private void paintRevenue(Graphics g, int width, int height) {
+        Insets insets = revenueChart.getInsets();
+        int bottom = height - insets.bottom - 18;
+        int top = insets.top + 16;
+        int barWidth = Math.max((width - insets.left - insets.right - 10) / REVENUE_DAYS, 1);
+        long max = 1;
+        for (long revenue : dailyRevenue) {
+            max = Math.max(max, revenue);
+        }
+
+        g.setFont(SMALL_FONT);
+        for (int d = 0; d < REVENUE_DAYS; d++) {
+            int x = insets.left + 5 + d * barWidth;
+            int barHeight = (int) ((bottom - top) * dailyRevenue[d] / max);
+            g.setColor(BAR);
+            g.fillRect(x + 3, bottom - barHeight, barWidth - 6, barHeight);
+            g.setColor(TEXT);
+            g.drawString(firstRevenueDay.plusDays(d).format(DAY_FORMAT), x + 3, bottom + 14);
+            if (dailyRevenue[d] > 0) {
+                g.drawString(Long.toString(dailyRevenue[d] / 100), x + 3, bottom - barHeight - 3);
+            }
+        }
+    }
+
+    private static Color blend(float weight) {
+        return new Color(
+                Math.round(COLD.getRed() + (HOT.getRed() - COLD.getRed()) * weight),
+                Math.round(COLD.getGreen() + (HOT.getGreen() - COLD.getGreen()) * weight),
+                Math.round(COLD.getBlue() + (HOT.getBlue() - COLD.getBlue()) * weight));
+    }
+
+    private static String peso(long centavos) {
+        return String.format("₱%,d.%02d", centavos / 100, centavos % 100);
+    }
+
+    // Opens the page in its own window, refreshing every couple of seconds while it is open
+    public static void showWindow(Component parent, BookingAnalytics analytics) {
+        JFrame frame = new JFrame("Analytics");
+        AnalyticsPanel panel = new AnalyticsPanel(analytics);
+        frame.setContentPane(panel);
+        frame.setSize(900, 750);
+        frame.setLocationRelativeTo(parent);
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        Timer refreshTimer = new Timer(2000, e -> {
+            long start = BookingMetrics.ENABLED ? BookingMetrics.get().timerTick.start() : 0;
+            panel.refresh();
+            if (BookingMetrics.ENABLED) BookingMetrics.get().timerTick.stop(start);
+        });
+        frame.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                refreshTimer.stop();
+            }
+        });
+        refreshTimer.start();
+        frame.setVisible(true);
+    }
+}
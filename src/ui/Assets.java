@@ -0,0 +1,133 @@
+package ui;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fonts, colours and images shared by every screen. Images are decoded and
+ * scaled once on a background thread and kept for the life of the app, so
+ * opening a screen again (after a logout, say) costs no image work on the EDT.
+ */
+public final class Assets {
+    public static final String BACKGROUND = "/images/capybara_cafe_bg.jpg";
+    public static final String LOGIN_ICON = "/images/capybara_icon.jpg";
+    public static final String ADMIN_ICON = "/images/capybara_iconAdmin.jpg";
+    public static final String CUSTOMER_ICON = "/images/capybara_iconUI.jpg";
+    public static final int LOGIN_ICON_SIZE = 64;
+    public static final int ADMIN_ICON_SIZE = 120;
+    public static final int CUSTOMER_ICON_SIZE = 150;
+
+    public static final Font FONT = new Font("Comic Sans MS", Font.PLAIN, 14);
+    public static final Font BOLD_FONT = FONT.deriveFont(Font.BOLD);
+    public static final Font HEADER_FONT = FONT.deriveFont(Font.BOLD, 16f);
+    public static final Font TITLE_FONT = FONT.deriveFont(Font.BOLD, 18f);
+    public static final Font MESSAGE_FONT = FONT.deriveFont(Font.ITALIC, 13f);
+    public static final Font FOOTER_FONT = FONT.deriveFont(Font.ITALIC);
+
+    public static final Color BEIGE = new Color(250, 244, 236);
+    public static final Color TAN = new Color(194, 159, 94);
+    public static final Color BORDER = new Color(160, 130, 90);
+    public static final Color BROWN = new Color(100, 70, 20);
+    public static final Color DARK_BROWN = new Color(60, 30, 5);
+    public static final Color CLOCK = new Color(115, 70, 15);
+    public static final Color TEXT = new Color(70, 50, 30);
+    public static final Color WARNING = new Color(115, 30, 30);
+
+    // One low-priority daemon thread; decoding never competes with the EDT for long
+    private static final ExecutorService DECODER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "asset-decoder");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private static final Map<String, CompletableFuture<BufferedImage>> IMAGES = new ConcurrentHashMap<>();
+
+    private Assets() {
+    }
+
+    // Queues the login images first, then the dashboard icons, so they are ready before anyone logs in
+    public static void preload() {
+        image(BACKGROUND);
+        image(LOGIN_ICON, LOGIN_ICON_SIZE);
+        image(ADMIN_ICON, ADMIN_ICON_SIZE);
+        image(CUSTOMER_ICON, CUSTOMER_ICON_SIZE);
+    }
+
+    // The decoded image at its own size
+    public static CompletableFuture<BufferedImage> image(String resource) {
+        return IMAGES.computeIfAbsent(resource, key -> CompletableFuture.supplyAsync(() -> decode(key), DECODER));
+    }
+
+    // The image scaled to size x size
+    public static CompletableFuture<BufferedImage> image(String resource, int size) {
+        CompletableFuture<BufferedImage> original = image(resource);
+        return IMAGES.computeIfAbsent(resource + "@" + size,
+                key -> original.thenApplyAsync(image -> scale(image, size, size), DECODER));
+    }
+
+    // A label that takes the icon's space straight away and shows the icon once it is decoded
+    public static JLabel iconLabel(String resource, int size) {
+        CompletableFuture<BufferedImage> icon = image(resource, size);
+        if (icon.isDone() && !icon.isCompletedExceptionally()) {
+            return new JLabel(new ImageIcon(icon.join()));
+        }
+        // A blank icon of the same size keeps the layout from shifting when the real one arrives
+        JLabel label = new JLabel(new ImageIcon(new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB)));
+        icon.thenAccept(image -> SwingUtilities.invokeLater(() -> label.setIcon(new ImageIcon(image))))
+                .exceptionally(e -> {
+                    e.printStackTrace();
+                    return null;
+                });
+        return label;
+    }
+
+    private static BufferedImage decode(String resource) {
+        try (InputStream in = Assets.class.getResourceAsStream(resource)) {
+            if (in == null) throw new IOException(resource + " is missing from the classpath");
+            BufferedImage image = ImageIO.read(in);
+            if (image == null) throw new IOException(resource + " is not a readable image");
+            return image;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Halves with bilinear filtering until within 2x, then one bicubic pass; close to
+    // SCALE_SMOOTH's area averaging at a fraction of the cost
+    static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        while (w / 2 >= width && h / 2 >= height) {
+            w /= 2;
+            h /= 2;
+            current = draw(current, w, h, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        return draw(current, width, height, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, Object interpolation) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return target;
+    }
+}
@@ -0,0 +1,97 @@
+package ui;
+
+import manager.BranchSummary;
+import manager.Branches;
+import trace.DialogEvent;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Occupancy, bookings and revenue of every branch over a date range, side by
+ * side with a total row. Every branch answers on its own thread and the table
+ * opens once the last one has.
+ */
+public class BranchReport {
+    public static void show(JFrame owner, Branches branches) {
+        JTextField fromField = new JTextField(LocalDate.now().minusDays(6).toString());
+        JTextField toField = new JTextField(LocalDate.now().toString());
+        JPanel form = new JPanel(new GridLayout(0, 2, 6, 6));
+        form.add(new JLabel("From (yyyy-MM-dd):"));
+        form.add(fromField);
+        form.add(new JLabel("To (yyyy-MM-dd):"));
+        form.add(toField);
+
+        DialogEvent dialog = new DialogEvent();
+        dialog.begin();
+        int choice = JOptionPane.showConfirmDialog(owner, form, "Branch Report",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        dialog.title = "Branch Report";
+        dialog.confirmed = choice == JOptionPane.OK_OPTION;
+        dialog.commit();
+        if (choice != JOptionPane.OK_OPTION) return;
+
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(fromField.getText().trim());
+            to = LocalDate.parse(toField.getText().trim());
+        } catch (DateTimeParseException ex) {
+            JOptionPane.showMessageDialog(owner, "Invalid date format. Use yyyy-MM-dd");
+            return;
+        }
+        if (from.isAfter(to)) {
+            JOptionPane.showMessageDialog(owner, "The start date is after the end date.");
+            return;
+        }
+
+        branches.summarize(from, to).whenCompleteAsync((summaries, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                JOptionPane.showMessageDialog(owner, "Could not build the report: " + cause.getMessage());
+                return;
+            }
+            JTable table = new JTable(tableModel(summaries));
+            table.setFont(Assets.FONT);
+            table.setRowHeight(24);
+            table.getTableHeader().setFont(Assets.HEADER_FONT);
+            JScrollPane scrollPane = new JScrollPane(table);
+            scrollPane.setPreferredSize(new Dimension(620, Math.min(400, 60 + 24 * (summaries.size() + 1))));
+            JOptionPane.showMessageDialog(owner, scrollPane, "Branches, " + from + " to " + to,
+                    JOptionPane.INFORMATION_MESSAGE);
+        }, SwingUtilities::invokeLater);
+    }
+
+    private static DefaultTableModel tableModel(List<BranchSummary> summaries) {
+        DefaultTableModel model = new DefaultTableModel(
+                new Object[]{"Branch", "Occupancy", "Bookings", "Revenue"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        double occupancy = 0;
+        int bookings = 0;
+        long revenue = 0;
+        for (BranchSummary summary : summaries) {
+            model.addRow(new Object[]{summary.branch, String.format("%.1f%%", summary.occupancyPercent),
+                    summary.bookings, peso(summary.revenueCentavos)});
+            occupancy += summary.occupancyPercent;
+            bookings += summary.bookings;
+            revenue += summary.revenueCentavos;
+        }
+        // Branches have the same number of PCs, so the plain average is the overall occupancy
+        model.addRow(new Object[]{"All branches", String.format("%.1f%%", occupancy / Math.max(1, summaries.size())),
+                bookings, peso(revenue)});
+        return model;
+    }
+
+    private static String peso(long centavos) {
+        return String.format("₱%,d.%02d", centavos / 100, centavos % 100);
+    }
+}
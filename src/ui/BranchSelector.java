@@ -0,0 +1,53 @@
+package ui;
+
+import manager.BookingService;
+import manager.Branches;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.function.Consumer;
+
+/**
+ * Branch picker for the top of both screens when the install serves more
+ * than one branch. Picking another branch closes the screen and reopens it
+ * on that branch's service; the logged-in user stays the same.
+ */
+class BranchSelector {
+    private BranchSelector() {
+    }
+
+    // The clock label with the picker beside it, or the clock label alone for a single branch
+    static JComponent header(JFrame frame, JLabel clockLabel, BookingService current, Consumer<BookingService> reopen) {
+        Branches branches = current.getBranches();
+        if (branches == null || branches.size() < 2) return clockLabel;
+
+        JComboBox<String> branchBox = new JComboBox<>(branches.getNames().toArray(new String[0]));
+        branchBox.setSelectedItem(current.getBranch());
+        branchBox.setFont(Assets.FONT);
+        branchBox.addActionListener(e -> {
+            BookingService chosen = branches.get((String) branchBox.getSelectedItem());
+            if (chosen == null || chosen == current) return;
+            frame.dispose();
+            reopen.accept(chosen);
+        });
+        JLabel branchLabel = new JLabel("Branch:");
+        branchLabel.setFont(Assets.FONT);
+        branchLabel.setForeground(Assets.BROWN);
+
+        JPanel picker = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 2));
+        picker.setOpaque(false);
+        picker.add(branchLabel);
+        picker.add(branchBox);
+        JPanel header = new JPanel(new BorderLayout());
+        header.setOpaque(false);
+        header.add(clockLabel, BorderLayout.WEST);
+        header.add(picker, BorderLayout.EAST);
+        return header;
+    }
+
+    // " (North)" for window titles when there is more than one branch
+    static String titleSuffix(BookingService current) {
+        Branches branches = current.getBranches();
+        return branches == null || branches.size() < 2 ? "" : " (" + current.getBranch() + ")";
+    }
+}
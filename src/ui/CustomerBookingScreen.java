@@ -1,41 +1,47 @@
 package ui;
 
+import manager.BookingService;
+import manager.PricingEngine;
 import manager.SlotManager;
-import model.TransactionManager;
 import model.Transaction;
 import model.User;
-import utils.ReceiptGenerator;
+import trace.BookingActionEvent;
+import trace.DialogEvent;
+import utils.BookingMetrics;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.ListSelectionListener;
 import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Comparator;
-import java.util.List;
-import java.util.stream.Collectors;
 
 public class CustomerBookingScreen {
+    private static final int FIND_FREE_DAYS = 90;
+
     private final User user;
+    private final BookingService bookingService;
     private final SlotManager slotManager;
-    private final TransactionManager transactionManager;
 
-    public CustomerBookingScreen(User user, SlotManager slotManager, TransactionManager transactionManager) {
+    public CustomerBookingScreen(User user, BookingService bookingService) {
         this.user = user;
-        this.slotManager = slotManager;
-        this.transactionManager = transactionManager;
+        this.bookingService = bookingService;
+        this.slotManager = bookingService.getSlotManager();
     }
 
     public void display() {
-        JFrame frame = new JFrame("Customer Booking - " + user.username);
+        JFrame frame = new JFrame("Customer Booking - " + user.username + BranchSelector.titleSuffix(bookingService));
         frame.setSize(1000, 600);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setLayout(new BorderLayout());
 
         // Background panel without image to keep clarity
         JPanel backgroundPanel = new JPanel(new BorderLayout());
-        backgroundPanel.setBackground(new Color(250, 244, 236)); // Light warm beige
+        backgroundPanel.setBackground(Assets.BEIGE); // Light warm beige
         frame.setContentPane(backgroundPanel);
 
         // --- Menu Bar ---
@@ -46,21 +52,19 @@ public class CustomerBookingScreen {
 
         logoutItem.addActionListener(e -> {
             frame.dispose();
-            new LoginScreen(slotManager, transactionManager).display();
+            new LoginScreen(bookingService).display();
         });
 
         historyItem.addActionListener(e -> {
-            List<Transaction> transactions = transactionManager.getAllTransactions().stream()
-                    .filter(t -> t.user.equals(user.username))
-                    .sorted(Comparator.comparing(t -> t.bookingDate))
-                    .collect(Collectors.toList());
-
-            JTextArea historyArea = new JTextArea(20, 60);
-            for (Transaction t : transactions) {
-                historyArea.append("Date: " + t.bookingDate + ", Computer: " + t.computerId +
-                        ", Time: " + t.timeSlot + ", Paid: ₱" + t.amountPaid + ", Booked On: " + t.timestamp + "\n");
-            }
-            JOptionPane.showMessageDialog(frame, new JScrollPane(historyArea), "My Bookings", JOptionPane.INFORMATION_MESSAGE);
+            bookingService.getTransactionsByUser(user.username).thenAcceptAsync(transactions -> {
+                transactions.sort(Comparator.comparing(t -> t.bookingDate));
+                JTextArea historyArea = new JTextArea(20, 60);
+                for (Transaction t : transactions) {
+                    historyArea.append("Date: " + t.bookingDate + ", Computer: " + t.computerId +
+                            ", Time: " + t.timeSlot + ", Paid: ₱" + t.amountPaid + ", Booked On: " + t.timestamp + "\n");
+                }
+                JOptionPane.showMessageDialog(frame, new JScrollPane(historyArea), "My Bookings", JOptionPane.INFORMATION_MESSAGE);
+            }, SwingUtilities::invokeLater);
         });
 
         userMenu.add(logoutItem);
@@ -69,69 +73,37 @@ public class CustomerBookingScreen {
         frame.setJMenuBar(menuBar);
 
         // --- Table Setup ---
-        String[] columnNames = new String[SlotManager.NUM_TIME_SLOTS + 1];
-        columnNames[0] = "Computer #";
-        for (int i = 0; i < SlotManager.NUM_TIME_SLOTS; i++) {
-            columnNames[i + 1] = (i + 1) + " PM";
-        }
+        SlotTableModel model = SlotTableModel.open(slotManager, LocalDate.now(), user.username);
 
-        String[][] tableData = new String[SlotManager.NUM_COMPUTERS][SlotManager.NUM_TIME_SLOTS + 1];
-        for (int i = 0; i < SlotManager.NUM_COMPUTERS; i++) {
-            tableData[i][0] = "PC-" + (i + 1);
-            for (int j = 0; j < SlotManager.NUM_TIME_SLOTS; j++) {
-                tableData[i][j + 1] = "Available";
-            }
-        }
+        PricingEngine pricing = bookingService.getPricing();
 
-        DefaultTableModel model = new DefaultTableModel(tableData, columnNames) {
+        // Hovering a free cell shows what booking up to it would cost
+        JComboBox<String> computerBox = new JComboBox<>();
+        JComboBox<String> fromSlotBox = new JComboBox<>();
+        JTable table = new JTable(model) {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
+            public String getToolTipText(MouseEvent e) {
+                int row = rowAtPoint(e.getPoint());
+                int slot = columnAtPoint(e.getPoint()) - 1;
+                if (row < 0 || slot < 0) return null;
+                int from = row == computerBox.getSelectedIndex() && fromSlotBox.getSelectedIndex() <= slot
+                        ? fromSlotBox.getSelectedIndex() : slot;
+                return "PC-" + (row + 1) + ", " + SlotManager.slotRangeLabel(from, slot) + ": "
+                        + peso(pricing.quote(model.getDate(), row, from, slot, user.role));
             }
         };
-
-        JTable table = new JTable(model);
+        ToolTipManager.sharedInstance().registerComponent(table);
+        table.setCellSelectionEnabled(true);
         table.setRowHeight(30);
-        table.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
-        table.getTableHeader().setFont(new Font("Comic Sans MS", Font.BOLD, 16));
-
-        // Custom cell renderer for coloring
-        table.setDefaultRenderer(Object.class, new javax.swing.table.DefaultTableCellRenderer() {
-            @Override
-            public Component getTableCellRendererComponent(JTable tbl, Object value, boolean isSelected,
-                                                           boolean hasFocus, int row, int col) {
-                Component comp = super.getTableCellRendererComponent(tbl, value, isSelected, hasFocus, row, col);
-                String cellValue = value != null ? value.toString() : "";
-
-                if (col == 0) {
-                    comp.setBackground(new Color(245, 238, 224)); // soft cream
-                    comp.setForeground(new Color(70, 50, 30));
-                    setHorizontalAlignment(LEFT);
-                } else if (cellValue.toLowerCase().contains("booked")) {
-                    comp.setBackground(new Color(248, 215, 218)); // warm coral/pink
-                    comp.setForeground(new Color(115, 0, 15));
-                    setHorizontalAlignment(CENTER);
-                } else if (cellValue.toLowerCase().contains("available")) {
-                    comp.setBackground(new Color(212, 237, 218)); // soft mint green
-                    comp.setForeground(new Color(21, 87, 36));
-                    setHorizontalAlignment(CENTER);
-                } else {
-                    comp.setBackground(Color.WHITE);
-                    comp.setForeground(Color.BLACK);
-                    setHorizontalAlignment(CENTER);
-                }
-
-                if (isSelected) {
-                    comp.setBackground(new Color(255, 235, 205)); // warm highlight
-                }
+        table.setFont(Assets.FONT);
+        table.getTableHeader().setFont(Assets.HEADER_FONT);
 
-                return comp;
-            }
-        });
+        // Shared renderer colours cells by their slot state
+        table.setDefaultRenderer(Object.class, new SlotCellRenderer());
 
         JScrollPane scrollPane = new JScrollPane(table);
         scrollPane.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(new Color(160, 130, 90), 3, true),
+                BorderFactory.createLineBorder(Assets.BORDER, 3, true),
                 BorderFactory.createEmptyBorder(5, 5, 5, 5)
         ));
 
@@ -150,16 +122,16 @@ public class CustomerBookingScreen {
         JPanel controlsPanel = new JPanel();
         controlsPanel.setLayout(new BoxLayout(controlsPanel, BoxLayout.Y_AXIS));
         controlsPanel.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(new Color(160, 130, 90), 3, true),
+                BorderFactory.createLineBorder(Assets.BORDER, 3, true),
                 BorderFactory.createEmptyBorder(20, 20, 20, 20)
         ));
-        controlsPanel.setBackground(new Color(250, 244, 236)); // light warm beige
+        controlsPanel.setBackground(Assets.BEIGE); // light warm beige
 
         controlsPanel.setPreferredSize(new Dimension(300, 600)); // fix controls panel width
 
         JLabel titleLabel = new JLabel("Reserve Your Spot");
-        titleLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 18));
-        titleLabel.setForeground(new Color(115, 70, 15));
+        titleLabel.setFont(Assets.TITLE_FONT);
+        titleLabel.setForeground(Assets.CLOCK);
         titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
         titleLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 20, 0));
         controlsPanel.add(titleLabel);
@@ -167,62 +139,82 @@ public class CustomerBookingScreen {
         JTextField dateField = new JTextField(10);
         dateField.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
         dateField.setText(LocalDate.now().toString());
-        dateField.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
+        dateField.setFont(Assets.FONT);
 
         JLabel dateLabel = new JLabel("Date (yyyy-MM-dd):");
-        dateLabel.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
-        dateLabel.setForeground(new Color(100, 70, 20));
+        dateLabel.setFont(Assets.FONT);
+        dateLabel.setForeground(Assets.BROWN);
 
         JButton refreshButton = new JButton("Refresh the Burrow");
-        refreshButton.setFont(new Font("Comic Sans MS", Font.BOLD, 14));
-        refreshButton.setBackground(new Color(194, 159, 94));
-        refreshButton.setForeground(new Color(60, 30, 5));
+        refreshButton.setFont(Assets.BOLD_FONT);
+        refreshButton.setBackground(Assets.TAN);
+        refreshButton.setForeground(Assets.DARK_BROWN);
         refreshButton.setFocusPainted(false);
         refreshButton.setAlignmentX(Component.CENTER_ALIGNMENT);
 
-        JComboBox<String> computerBox = new JComboBox<>();
-        for (int i = 0; i < SlotManager.NUM_COMPUTERS; i++) {
+        for (int i = 0; i < slotManager.getNumComputers(); i++) {
             computerBox.addItem("PC-" + (i + 1));
         }
         computerBox.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
-        computerBox.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
+        computerBox.setFont(Assets.FONT);
 
         JLabel computerLabel = new JLabel("Computer:");
-        computerLabel.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
-        computerLabel.setForeground(new Color(100, 70, 20));
+        computerLabel.setFont(Assets.FONT);
+        computerLabel.setForeground(Assets.BROWN);
 
         JLabel fromLabel = new JLabel("From:");
-        fromLabel.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
-        fromLabel.setForeground(new Color(100, 70, 20));
+        fromLabel.setFont(Assets.FONT);
+        fromLabel.setForeground(Assets.BROWN);
 
-        JComboBox<String> fromSlotBox = new JComboBox<>();
-        for (int i = 0; i < SlotManager.NUM_TIME_SLOTS; i++) {
-            fromSlotBox.addItem((i + 1) + " PM");
+        for (int i = 0; i < slotManager.getNumTimeSlots(); i++) {
+            fromSlotBox.addItem(SlotManager.slotLabel(i));
         }
         fromSlotBox.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
-        fromSlotBox.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
+        fromSlotBox.setFont(Assets.FONT);
 
         JLabel toLabel = new JLabel("To:");
-        toLabel.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
-        toLabel.setForeground(new Color(100, 70, 20));
+        toLabel.setFont(Assets.FONT);
+        toLabel.setForeground(Assets.BROWN);
 
         JComboBox<String> toSlotBox = new JComboBox<>();
-        for (int i = 0; i < SlotManager.NUM_TIME_SLOTS; i++) {
-            toSlotBox.addItem((i + 1) + " PM");
+        for (int i = 0; i < slotManager.getNumTimeSlots(); i++) {
+            toSlotBox.addItem(SlotManager.slotLabel(i));
         }
         toSlotBox.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
-        toSlotBox.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
+        toSlotBox.setFont(Assets.FONT);
+
+        JLabel priceLabel = new JLabel(" ");
+        priceLabel.setFont(Assets.BOLD_FONT);
+        priceLabel.setForeground(Assets.DARK_BROWN);
+
+        JLabel hoursLabel = new JLabel("Hours:");
+        hoursLabel.setFont(Assets.FONT);
+        hoursLabel.setForeground(Assets.BROWN);
+
+        JComboBox<Integer> hoursBox = new JComboBox<>();
+        for (int i = 1; i <= slotManager.getNumTimeSlots(); i++) {
+            hoursBox.addItem(i);
+        }
+        hoursBox.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
+        hoursBox.setFont(Assets.FONT);
+
+        JButton findFreeButton = new JButton("Find next free");
+        findFreeButton.setFont(Assets.BOLD_FONT);
+        findFreeButton.setBackground(Assets.TAN);
+        findFreeButton.setForeground(Assets.DARK_BROWN);
+        findFreeButton.setFocusPainted(false);
+        findFreeButton.setAlignmentX(Component.CENTER_ALIGNMENT);
 
         JButton bookButton = new JButton("Reserve Your Spot");
-        bookButton.setFont(new Font("Comic Sans MS", Font.BOLD, 14));
-        bookButton.setBackground(new Color(194, 159, 94));
-        bookButton.setForeground(new Color(60, 30, 5));
+        bookButton.setFont(Assets.BOLD_FONT);
+        bookButton.setBackground(Assets.TAN);
+        bookButton.setForeground(Assets.DARK_BROWN);
         bookButton.setFocusPainted(false);
         bookButton.setAlignmentX(Component.CENTER_ALIGNMENT);
 
         JLabel messageLabel = new JLabel(" ");
-        messageLabel.setFont(new Font("Comic Sans MS", Font.ITALIC, 13));
-        messageLabel.setForeground(new Color(115, 30, 30));
+        messageLabel.setFont(Assets.MESSAGE_FONT);
+        messageLabel.setForeground(Assets.WARNING);
         messageLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
         messageLabel.setBorder(BorderFactory.createEmptyBorder(20, 0, 0, 0));
 
@@ -240,34 +232,91 @@ public class CustomerBookingScreen {
         controlsPanel.add(Box.createRigidArea(new Dimension(0, 10)));
         controlsPanel.add(toLabel);
         controlsPanel.add(toSlotBox);
+        controlsPanel.add(priceLabel);
+        controlsPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+        controlsPanel.add(hoursLabel);
+        controlsPanel.add(hoursBox);
+        controlsPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+        controlsPanel.add(findFreeButton);
         controlsPanel.add(Box.createRigidArea(new Dimension(0, 20)));
         controlsPanel.add(bookButton);
         controlsPanel.add(messageLabel);
 
         // Add capybara icon image below controls
-        ImageIcon originalIcon = new ImageIcon(getClass().getResource("/images/capybara_iconUI.jpg"));
-Image originalImage = originalIcon.getImage();
-
-// Scale image smoothly to desired size (e.g., 150x150)
-Image scaledImage = originalImage.getScaledInstance(150, 150, Image.SCALE_SMOOTH);
-ImageIcon scaledIcon = new ImageIcon(scaledImage);
-
-// Set scaled icon on JLabel
-JLabel imageLabel = new JLabel(scaledIcon);
+        // Decoded and scaled in the background by Assets; later logins reuse it
+JLabel imageLabel = Assets.iconLabel(Assets.CUSTOMER_ICON, Assets.CUSTOMER_ICON_SIZE);
 imageLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
 imageLabel.setBorder(BorderFactory.createEmptyBorder(20, 0, 0, 0));
 controlsPanel.add(imageLabel);
         // --- Action Listeners ---
+        // The price follows every change of computer, range, shown date or grid selection
+        Runnable updateQuote = () -> {
+            int from = fromSlotBox.getSelectedIndex();
+            int to = toSlotBox.getSelectedIndex();
+            priceLabel.setText(from < 0 || to < from ? "Price: -"
+                    : "Price: " + peso(pricing.quote(model.getDate(), computerBox.getSelectedIndex(), from, to, user.role)));
+        };
+        computerBox.addActionListener(e -> updateQuote.run());
+        fromSlotBox.addActionListener(e -> updateQuote.run());
+        toSlotBox.addActionListener(e -> updateQuote.run());
+        model.addTableModelListener(e -> updateQuote.run());
+        updateQuote.run();
+
+        // Dragging across cells of one row picks that computer and range
+        ListSelectionListener gridSelection = e -> {
+            int row = table.getSelectedRow();
+            int first = table.getColumnModel().getSelectionModel().getMinSelectionIndex();
+            int last = table.getColumnModel().getSelectionModel().getMaxSelectionIndex();
+            if (row < 0 || first < 1) return;
+            computerBox.setSelectedIndex(row);
+            fromSlotBox.setSelectedIndex(first - 1);
+            toSlotBox.setSelectedIndex(last - 1);
+        };
+        table.getSelectionModel().addListSelectionListener(gridSelection);
+        table.getColumnModel().getSelectionModel().addListSelectionListener(gridSelection);
+
         refreshButton.addActionListener(e -> {
             try {
                 LocalDate selectedDate = LocalDate.parse(dateField.getText());
-                slotManager.populateTable(selectedDate, model);
+                model.setDate(selectedDate);
                 messageLabel.setText("Table updated.");
             } catch (Exception ex) {
                 messageLabel.setText("Invalid date format.");
             }
         });
 
+        findFreeButton.addActionListener(e -> {
+            LocalDate today = LocalDate.now();
+            LocalDate fromDate;
+            try {
+                fromDate = LocalDate.parse(dateField.getText());
+            } catch (Exception ex) {
+                fromDate = today;
+            }
+            if (fromDate.isBefore(today)) {
+                fromDate = today;
+            }
+            // Slots whose hour has already started today cannot be booked
+            int firstSlot = fromDate.equals(today) ? Math.max(0, LocalDateTime.now().getHour() + 1 - SlotManager.FIRST_SLOT_HOUR) : 0;
+            int hours = (Integer) hoursBox.getSelectedItem();
+
+            findFreeButton.setEnabled(false);
+            bookingService.findFirstFree(fromDate, firstSlot, fromDate.plusDays(FIND_FREE_DAYS), hours).thenAcceptAsync(window -> {
+                findFreeButton.setEnabled(true);
+                if (window == null) {
+                    messageLabel.setText("No free " + hours + "-hour block in the next " + FIND_FREE_DAYS + " days.");
+                    return;
+                }
+                dateField.setText(window.date.toString());
+                computerBox.setSelectedIndex(window.computerIndex);
+                fromSlotBox.setSelectedIndex(window.fromIndex);
+                toSlotBox.setSelectedIndex(window.toIndex);
+                model.setDate(window.date);
+                messageLabel.setText("Next free: " + window.date + ", PC-" + (window.computerIndex + 1) +
+                        ", " + SlotManager.slotRangeLabel(window.fromIndex, window.toIndex));
+            }, SwingUtilities::invokeLater);
+        });
+
         bookButton.addActionListener(e -> {
             int compIndex = computerBox.getSelectedIndex();
             int from = fromSlotBox.getSelectedIndex();
@@ -295,7 +344,7 @@ controlsPanel.add(imageLabel);
 
             if (bookingDate.equals(today)) {
                 for (int i = from; i <= to; i++) {
-                    int slotHour = i + 13; // 1 PM = 13
+                    int slotHour = i + SlotManager.FIRST_SLOT_HOUR;
                     if (slotHour <= currentHour) {
                         messageLabel.setText("One or more slots are in the past.");
                         return;
@@ -305,74 +354,109 @@ controlsPanel.add(imageLabel);
 
             for (int i = from; i <= to; i++) {
                 if (slotManager.isSlotBooked(bookingDate, compIndex, i)) {
+                    if (BookingMetrics.ENABLED) BookingMetrics.get().recordConflict();
                     messageLabel.setText("Slot already booked.");
                     return;
                 }
             }
 
             int hours = to - from + 1;
-            int discount = (hours / 3) * 10;
-            int baseCost = hours * 20;
-            int totalCost = baseCost - discount;
+            long quoted = pricing.quote(bookingDate, compIndex, from, to, user.role);
 
-            String timeSlotText = (from + 1) + " PM to " + (to + 1) + " PM";
+            String timeSlotText = SlotManager.slotRangeLabel(from, to);
             String compName = "PC-" + (compIndex + 1);
 
+            BookingActionEvent action = new BookingActionEvent();
+            action.begin();
+            action.action = "book";
+            action.date = bookingDate.toString();
+            action.computer = compIndex;
+            action.fromSlot = from;
+            action.slotCount = hours;
+
+            DialogEvent dialog = new DialogEvent();
+            dialog.begin();
             int confirm = JOptionPane.showConfirmDialog(frame,
                     "Confirm booking on " + bookingDate + "\n" +
-                            compName + " | " + timeSlotText + "\nTotal: ₱" + totalCost,
+                            compName + " | " + timeSlotText + "\nTotal: " + peso(quoted),
                     "Confirm Booking", JOptionPane.YES_NO_OPTION);
+            dialog.title = "Confirm Booking";
+            dialog.confirmed = confirm == JOptionPane.YES_OPTION;
+            dialog.commit();
 
             if (confirm != JOptionPane.YES_OPTION) {
+                action.outcome = "declined";
+                action.commit();
                 return;
             }
 
-            for (int i = from; i <= to; i++) {
-                slotManager.bookSlot(bookingDate, compIndex, i, user.username);
-                model.setValueAt("Booked by " + user.username, compIndex, i + 1);
-            }
-
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-            Transaction t = new Transaction(user.username, compName, timeSlotText, totalCost, timestamp, bookingDate);
-            transactionManager.addTransaction(t);
-
-            ReceiptGenerator.generateReceipt(t);
-            messageLabel.setText("Booked successfully: ₱" + totalCost);
+            // Another kiosk may have taken the range while the dialog was open; the service
+            // books, records the sale and queues the receipt off the EDT
+            bookButton.setEnabled(false);
+            bookingService.book(bookingDate, compIndex, from, to, user.username, user.role)
+                    .whenCompleteAsync((booking, error) -> {
+                        bookButton.setEnabled(true);
+                        model.setDate(bookingDate);
+                        if (error != null) {
+                            messageLabel.setText("Booking failed, please try again.");
+                            action.outcome = "failed";
+                        } else if (booking == null) {
+                            messageLabel.setText("Slot already booked.");
+                            action.outcome = "taken";
+                        } else {
+                            messageLabel.setText("Booked successfully: " + peso(Math.round(booking.transaction.amountPaid * 100))
+                                    + " (receipt #" + booking.receiptNumber + ")");
+                            action.outcome = "booked";
+                            action.detail = booking.receiptNumber;
+                        }
+                        action.commit();
+                    }, SwingUtilities::invokeLater);
         });
 
         // --- Clock Label and Timer ---
         JLabel clockLabel = new JLabel();
-        clockLabel.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
+        clockLabel.setFont(Assets.FONT);
         clockLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
-        clockLabel.setForeground(new Color(115, 70, 15));
+        clockLabel.setForeground(Assets.CLOCK);
+        // Bookings arrive through the table model's subscription; the timer only ticks the clock
         Timer clockTimer = new Timer(1000, e -> {
-            LocalDate todayDate = LocalDate.parse(dateField.getText());
-            LocalDateTime now = LocalDateTime.now();
-            clockLabel.setText("Current Time: " + now.format(DateTimeFormatter.ofPattern("HH:mm:ss")));
-            slotManager.releaseExpiredBookings(todayDate, model);
-            slotManager.populateTable(todayDate, model);
+            long start = BookingMetrics.ENABLED ? BookingMetrics.get().timerTick.start() : 0;
+            clockLabel.setText("Current Time: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss")));
+            model.refreshExpired();
+            if (BookingMetrics.ENABLED) BookingMetrics.get().timerTick.stop(start);
         });
         clockTimer.start();
-
-        slotManager.populateTable(LocalDate.now(), model);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                clockTimer.stop();
+                model.close();
+            }
+        });
 
         // --- Footer Panel for empty space below table ---
         JPanel footerPanel = new JPanel();
         footerPanel.setPreferredSize(new Dimension(frame.getWidth(), 50));
-        footerPanel.setBackground(new Color(250, 244, 236)); // same warm beige
+        footerPanel.setBackground(Assets.BEIGE); // same warm beige
         footerPanel.setLayout(new FlowLayout(FlowLayout.CENTER));
 
         JLabel footerLabel = new JLabel("Thank you for choosing Capybara Internet Café!");
-        footerLabel.setFont(new Font("Comic Sans MS", Font.ITALIC, 14));
-        footerLabel.setForeground(new Color(115, 70, 15));
+        footerLabel.setFont(Assets.FOOTER_FONT);
+        footerLabel.setForeground(Assets.CLOCK);
         footerPanel.add(footerLabel);
 
         // Add components to frame
-        frame.add(clockLabel, BorderLayout.NORTH);
+        frame.add(BranchSelector.header(frame, clockLabel, bookingService,
+                branch -> new CustomerBookingScreen(user, branch).display()), BorderLayout.NORTH);
         frame.add(scrollPane, BorderLayout.CENTER);
         frame.add(controlsPanel, BorderLayout.WEST);
         frame.add(footerPanel, BorderLayout.SOUTH);
 
+        StartupTiming.dashboardShown(frame, bookingService, false);
         frame.setVisible(true);
     }
+
+    private static String peso(long centavos) {
+        return String.format("₱%d.%02d", centavos / 100, centavos % 100);
+    }
 }
@@ -0,0 +1,87 @@
+package ui;
+
+import trace.EdtDispatchEvent;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times every event the EDT dispatches and counts the ones that take longer
+ * than the stall budget (-Dbooking.edtBudgetMs, 16 ms by default, about one
+ * frame), so a handler that slipped back to doing real work shows up in the
+ * metrics. -Dbooking.edtStallLog=true also prints each stall to stderr.
+ * An event that opened a modal dialog ran other events while it waited, so
+ * its time is the user's and it is not counted.
+ */
+public class EdtStallMonitor extends EventQueue {
+    private static final EdtStallMonitor INSTANCE = new EdtStallMonitor(Long.getLong("booking.edtBudgetMs", 16));
+    private static final boolean LOG_STALLS = Boolean.getBoolean("booking.edtStallLog");
+
+    private final long budgetNanos;
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+    private final AtomicLong worstNanos = new AtomicLong();
+    // Events begun so far; only touched on the EDT
+    private long begun;
+
+    private EdtStallMonitor(long budgetMillis) {
+        this.budgetNanos = budgetMillis * 1_000_000;
+    }
+
+    // Replaces the system event queue; safe to call more than once
+    public static EdtStallMonitor install() {
+        EventQueue queue = Toolkit.getDefaultToolkit().getSystemEventQueue();
+        if (!(queue instanceof EdtStallMonitor)) {
+            queue.push(INSTANCE);
+        }
+        return INSTANCE;
+    }
+
+    public static EdtStallMonitor get() {
+        return INSTANCE;
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        EdtDispatchEvent trace = new EdtDispatchEvent();
+        trace.begin();
+        long sequence = ++begun;
+        long start = System.nanoTime();
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            trace.end();
+            if (trace.shouldCommit()) {
+                trace.eventType = event.getClass().getSimpleName();
+                trace.source = event.getSource().getClass().getSimpleName();
+                trace.commit();
+            }
+            dispatched.increment();
+            // Any event begun since this one ran inside it, in a modal dialog's loop
+            boolean modal = begun != sequence;
+            if (!modal) worstNanos.accumulateAndGet(elapsed, Math::max);
+            if (!modal && elapsed > budgetNanos) {
+                stalls.increment();
+                if (LOG_STALLS) System.err.printf("EDT stall: %.1f ms in %s from %s%n", elapsed / 1e6,
+                        event.getClass().getSimpleName(), event.getSource().getClass().getSimpleName());
+            }
+        }
+    }
+
+    public long getDispatchedCount() {
+        return dispatched.sum();
+    }
+
+    // Events that ran over budget
+    public long getStallCount() {
+        return stalls.sum();
+    }
+
+    public double getWorstMillis() {
+        return worstNanos.get() / 1e6;
+    }
+}
@@ -0,0 +1,113 @@
+package ui;
+
+import manager.BookingService;
+import trace.BookingActionEvent;
+import trace.DialogEvent;
+import utils.ReportExporter;
+
+import javax.swing.*;
+import java.awt.*;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asks for a date range and format, then runs the export through the
+ * BookingService with a progress bar and a Cancel button, so the dashboard
+ * stays responsive while long ranges are written.
+ */
+public class ExportDialog {
+    public static void show(JFrame owner, BookingService bookingService) {
+        JTextField fromField = new JTextField(LocalDate.now().toString());
+        JTextField toField = new JTextField(LocalDate.now().toString());
+        JComboBox<ReportExporter.Format> formatBox = new JComboBox<>(ReportExporter.Format.values());
+
+        JPanel form = new JPanel(new GridLayout(0, 2, 6, 6));
+        form.add(new JLabel("From (yyyy-MM-dd):"));
+        form.add(fromField);
+        form.add(new JLabel("To (yyyy-MM-dd):"));
+        form.add(toField);
+        form.add(new JLabel("Format:"));
+        form.add(formatBox);
+
+        BookingActionEvent action = new BookingActionEvent();
+        action.begin();
+        action.action = "export";
+
+        DialogEvent dialog = new DialogEvent();
+        dialog.begin();
+        int choice = JOptionPane.showConfirmDialog(owner, form, "Export Bookings",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        dialog.title = "Export Bookings";
+        dialog.confirmed = choice == JOptionPane.OK_OPTION;
+        dialog.commit();
+        if (choice != JOptionPane.OK_OPTION) {
+            action.outcome = "declined";
+            action.commit();
+            return;
+        }
+
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(fromField.getText().trim());
+            to = LocalDate.parse(toField.getText().trim());
+        } catch (DateTimeParseException ex) {
+            JOptionPane.showMessageDialog(owner, "Invalid date format. Use yyyy-MM-dd");
+            return;
+        }
+        if (to.isBefore(from)) {
+            JOptionPane.showMessageDialog(owner, "The end date is before the start date.");
+            return;
+        }
+        ReportExporter.Format format = (ReportExporter.Format) formatBox.getSelectedItem();
+        Path file = Path.of("admin_report_" + from + "_to_" + to + "." + format.extension);
+        int totalDays = (int) (to.toEpochDay() - from.toEpochDay() + 1);
+        action.date = from.toString();
+        action.slotCount = totalDays;
+
+        JDialog progressDialog = new JDialog(owner, "Exporting " + file.getFileName(), false);
+        JProgressBar progressBar = new JProgressBar(0, totalDays);
+        progressBar.setStringPainted(true);
+        JButton cancelButton = new JButton("Cancel");
+        JPanel content = new JPanel(new BorderLayout(8, 8));
+        content.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        content.add(new JLabel("Exporting " + totalDays + " day(s) of bookings..."), BorderLayout.NORTH);
+        content.add(progressBar, BorderLayout.CENTER);
+        content.add(cancelButton, BorderLayout.SOUTH);
+        progressDialog.setContentPane(content);
+        progressDialog.pack();
+        progressDialog.setLocationRelativeTo(owner);
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        // Progress arrives on the exporting thread; at most one repaint is queued at a time
+        // and it shows the newest value (-1 while none is queued)
+        AtomicInteger latestDays = new AtomicInteger(-1);
+        cancelButton.addActionListener(e -> {
+            cancelled.set(true);
+            cancelButton.setEnabled(false);
+        });
+        bookingService.export(file, from, to, format, cancelled::get, done -> {
+            if (latestDays.getAndSet(done) < 0) {
+                SwingUtilities.invokeLater(() -> progressBar.setValue(latestDays.getAndSet(-1)));
+            }
+        }).whenCompleteAsync((rows, error) -> {
+            progressDialog.dispose();
+            action.outcome = error == null ? "exported" : error.getCause() instanceof CancellationException ? "cancelled" : "failed";
+            action.detail = error == null ? rows : 0;
+            action.commit();
+            if (error == null) {
+                JOptionPane.showMessageDialog(owner, "Exported " + rows + " booking(s) to " + file);
+            } else if (error.getCause() instanceof CancellationException) {
+                JOptionPane.showMessageDialog(owner, "Export cancelled.");
+            } else {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                JOptionPane.showMessageDialog(owner, "Error exporting report: " + cause.getMessage());
+            }
+        }, SwingUtilities::invokeLater);
+        progressDialog.setVisible(true);
+    }
+}
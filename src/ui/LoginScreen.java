@@ -1,27 +1,31 @@
 package ui;
 
-import model.User;
-import manager.SlotManager;
-import model.TransactionManager;
+import manager.BookingService;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.Arrays;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
 
 public class LoginScreen {
-    private final SlotManager slotManager;
-    private final TransactionManager transactionManager;
-    private final User[] users = {
-        new User("admin", "admin123", "admin"),
-        new User("john", "john123", "customer"),
-        new User("kai", "kai123", "customer")
-    };
-
-    public LoginScreen(SlotManager slotManager, TransactionManager transactionManager) {
-        this.slotManager = slotManager;
-        this.transactionManager = transactionManager;
+    private final BookingService bookingService;
+
+    private final CompletableFuture<?> stateReady;
+
+    private static final Color OVERLAY = new Color(255, 255, 240, 180);
+    private static final Color BUTTON = new Color(170, 140, 100);
+    private static final Color BUTTON_HOVER = new Color(200, 170, 110);
+
+    public LoginScreen(BookingService bookingService) {
+        this(bookingService, CompletableFuture.completedFuture(null));
+    }
+
+    // Logging in waits for stateReady, so the screen can show while bookings are still loading
+    public LoginScreen(BookingService bookingService, CompletableFuture<?> stateReady) {
+        this.bookingService = bookingService;
+        this.stateReady = stateReady;
     }
 
     public void display() {
@@ -35,22 +39,24 @@ public class LoginScreen {
         
 
         // Set custom font - fallback if font unavailable
-        Font cozyFont = new Font("Comic Sans MS", Font.PLAIN, 14);
+        Font cozyFont = Assets.FONT;
 
-        // Background panel with image and overlay color
+        // Background panel with image and overlay color; the image is drawn once it is decoded
         JPanel backgroundPanel = new JPanel() {
-            private Image backgroundImage = new ImageIcon(getClass().getResource("/images/capybara_cafe_bg.jpg")).getImage();
-
             @Override
             protected void paintComponent(Graphics g) {
                 super.paintComponent(g);
                 // Draw background image scaled
-                g.drawImage(backgroundImage, 0, 0, getWidth(), getHeight(), this);
+                CompletableFuture<BufferedImage> background = Assets.image(Assets.BACKGROUND);
+                if (background.isDone() && !background.isCompletedExceptionally()) {
+                    g.drawImage(background.join(), 0, 0, getWidth(), getHeight(), this);
+                }
                 // Semi-transparent overlay for readability
-                g.setColor(new Color(255, 255, 240, 180));
+                g.setColor(OVERLAY);
                 g.fillRect(0, 0, getWidth(), getHeight());
             }
         };
+        Assets.image(Assets.BACKGROUND).thenRun(backgroundPanel::repaint);
         backgroundPanel.setLayout(new GridBagLayout());
 
         // Main panel with padding and vertical layout
@@ -63,36 +69,34 @@ public class LoginScreen {
         JLabel titleLabel = new JLabel("Capybara Internet Café");
         titleLabel.setFont(cozyFont.deriveFont(Font.BOLD, 22f));
         titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        titleLabel.setForeground(new Color(70, 50, 30));
+        titleLabel.setForeground(Assets.TEXT);
 
         // Capybara icon
-        ImageIcon capyIcon = new ImageIcon(getClass().getResource("/images/capybara_icon.jpg"));
-        Image scaledIcon = capyIcon.getImage().getScaledInstance(64, 64, Image.SCALE_SMOOTH);
-        JLabel iconLabel = new JLabel(new ImageIcon(scaledIcon));
+        JLabel iconLabel = Assets.iconLabel(Assets.LOGIN_ICON, Assets.LOGIN_ICON_SIZE);
         iconLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
         iconLabel.setBorder(new EmptyBorder(10, 0, 20, 0));
 
         // Username field
         JLabel userLabel = new JLabel("Capybara Name:");
         userLabel.setFont(cozyFont);
-        userLabel.setForeground(new Color(70, 50, 30));
+        userLabel.setForeground(Assets.TEXT);
         JTextField usernameField = new JTextField();
         usernameField.setFont(cozyFont);
         usernameField.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
         usernameField.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(new Color(160, 130, 90), 2, true),
+            BorderFactory.createLineBorder(Assets.BORDER, 2, true),
             BorderFactory.createEmptyBorder(5, 10, 5, 10)
         ));
 
         // Password field
         JLabel passLabel = new JLabel("Secret Snack Code:");
         passLabel.setFont(cozyFont);
-        passLabel.setForeground(new Color(70, 50, 30));
+        passLabel.setForeground(Assets.TEXT);
         JPasswordField passwordField = new JPasswordField();
         passwordField.setFont(cozyFont);
         passwordField.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
         passwordField.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(new Color(160, 130, 90), 2, true),
+            BorderFactory.createLineBorder(Assets.BORDER, 2, true),
             BorderFactory.createEmptyBorder(5, 10, 5, 10)
         ));
         passwordField.setEchoChar('•');
@@ -101,7 +105,7 @@ public class LoginScreen {
         JCheckBox showPassword = new JCheckBox("Let me peek 🫣");
         showPassword.setOpaque(false);
         showPassword.setFont(cozyFont);
-        showPassword.setForeground(new Color(70, 50, 30));
+        showPassword.setForeground(Assets.TEXT);
         showPassword.setAlignmentX(Component.LEFT_ALIGNMENT);
         showPassword.setToolTipText("Click to see your secret snack code!");
 
@@ -122,7 +126,7 @@ public class LoginScreen {
         // Login button
         JButton loginButton = new JButton("Enter the Burrow 🐾");
         loginButton.setFont(cozyFont.deriveFont(Font.BOLD, 16f));
-        loginButton.setBackground(new Color(170, 140, 100));
+        loginButton.setBackground(BUTTON);
         loginButton.setForeground(new Color(40, 20, 0));
         loginButton.setFocusPainted(false);
         loginButton.setBorder(BorderFactory.createLineBorder(new Color(140, 110, 70), 2, true));
@@ -134,32 +138,50 @@ public class LoginScreen {
         loginButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseEntered(MouseEvent e) {
-                loginButton.setBackground(new Color(200, 170, 110));
+                loginButton.setBackground(BUTTON_HOVER);
             }
 
             @Override
             public void mouseExited(MouseEvent e) {
-                loginButton.setBackground(new Color(170, 140, 100));
+                loginButton.setBackground(BUTTON);
             }
         });
 
         loginButton.addActionListener(e -> {
+            if (!stateReady.isDone()) {
+                statusLabel.setText("Waking up the burrow...");
+                loginButton.setEnabled(false);
+                stateReady.whenComplete((ok, error) -> SwingUtilities.invokeLater(() -> {
+                    loginButton.setEnabled(true);
+                    loginButton.doClick();
+                }));
+                return;
+            }
+            if (stateReady.isCompletedExceptionally()) {
+                statusLabel.setText("Could not load saved bookings");
+                return;
+            }
             String username = usernameField.getText();
-            String password = new String(passwordField.getPassword());
 
-            Arrays.stream(users)
-                .filter(user -> user.username.equals(username) && user.password.equals(password))
-                .findFirst()
-                .ifPresentOrElse(user -> {
+            // The password hash takes a moment on purpose, so it runs off the EDT
+            loginButton.setEnabled(false);
+            statusLabel.setText("Sniffing your snack code...");
+            bookingService.authenticate(username, passwordField.getPassword()).whenCompleteAsync((user, error) -> {
+                loginButton.setEnabled(true);
+                if (error != null) {
+                    statusLabel.setText("Could not check your login");
+                } else if (user == null) {
+                    statusLabel.setText("Invalid login");
+                } else {
+                    StartupTiming.loggedIn();
                     loginFrame.dispose();
                     if (user.role.equals("admin")) {
-                        new AdminDashboard(user, slotManager, transactionManager).display();
+                        new AdminDashboard(user, bookingService).display();
                     } else {
-                        new CustomerBookingScreen(user, slotManager, transactionManager).display();
+                        new CustomerBookingScreen(user, bookingService).display();
                     }
-                }, () -> {
-                    statusLabel.setText("Invalid login");
-                });
+                }
+            }, SwingUtilities::invokeLater);
         });
 
         // Add components to main panel with spacing
@@ -179,6 +201,7 @@ public class LoginScreen {
 
         backgroundPanel.add(mainPanel);
         loginFrame.setContentPane(backgroundPanel);
+        StartupTiming.loginShown(loginFrame, bookingService);
         loginFrame.setVisible(true);
     }
 }
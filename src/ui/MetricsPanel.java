@@ -0,0 +1,125 @@
+package ui;
+
+import utils.BookingMetrics;
+import utils.LatencyHistogram;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Admin metrics page: the BookingMetrics counters and latency histograms,
+ * plus EDT stall counts, refreshed once a second. The same figures are on
+ * JMX under ComputerBookingSystems:* for jconsole.
+ */
+public final class MetricsPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final Font LABEL_FONT = new Font("Comic Sans MS", Font.PLAIN, 14);
+    private static final Color BACKGROUND = new Color(250, 244, 236);
+    private static final Color TEXT = new Color(100, 70, 20);
+    private static final Color BORDER = new Color(160, 130, 90);
+    private static final String[] COLUMNS = {"Operation", "Count", "Mean µs", "p50 µs", "p90 µs", "p99 µs", "Max µs"};
+
+    private final transient BookingMetrics metrics = BookingMetrics.get();
+    private final transient List<LatencyHistogram> histograms = metrics.getHistograms();
+    private final transient Object[][] rows = new Object[histograms.size()][COLUMNS.length];
+    private final JLabel countersLabel = new JLabel();
+    private final JLabel edtLabel = new JLabel();
+    private final AbstractTableModel tableModel = new AbstractTableModel() {
+        @Override
+        public int getRowCount() {
+            return rows.length;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            return rows[row][column];
+        }
+    };
+
+    public MetricsPanel() {
+        super(new BorderLayout(10, 10));
+        setBackground(BACKGROUND);
+        setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+
+        JPanel labels = new JPanel(new GridLayout(0, 1, 4, 4));
+        labels.setBackground(BACKGROUND);
+        for (JLabel label : new JLabel[]{countersLabel, edtLabel}) {
+            label.setFont(LABEL_FONT);
+            label.setForeground(TEXT);
+            labels.add(label);
+        }
+        add(labels, BorderLayout.NORTH);
+
+        JTable table = new JTable(tableModel);
+        table.setRowHeight(26);
+        table.setFont(LABEL_FONT);
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setBorder(BorderFactory.createLineBorder(BORDER, 3, true));
+        add(scrollPane, BorderLayout.CENTER);
+
+        if (!BookingMetrics.ENABLED) {
+            JLabel disabled = new JLabel("Recording is off (-Dbooking.metrics=false).");
+            disabled.setFont(LABEL_FONT);
+            disabled.setForeground(TEXT);
+            add(disabled, BorderLayout.SOUTH);
+        }
+        refresh();
+    }
+
+    public void refresh() {
+        countersLabel.setText(String.format("Bookings %,d · conflicts %,d · cancellations %,d · expired %,d · receipts written %,d (queued %d)",
+                metrics.getBookings(), metrics.getBookingConflicts(), metrics.getCancellations(),
+                metrics.getExpirations(), metrics.getReceiptsWritten(), metrics.getReceiptQueueDepth()));
+        EdtStallMonitor edt = EdtStallMonitor.get();
+        edtLabel.setText(String.format("Screen events %,d · over budget %,d · worst %.1f ms",
+                edt.getDispatchedCount(), edt.getStallCount(), edt.getWorstMillis()));
+        for (int i = 0; i < rows.length; i++) {
+            LatencyHistogram histogram = histograms.get(i);
+            Object[] row = rows[i];
+            row[0] = histogram.getName();
+            row[1] = histogram.getCount();
+            row[2] = micros(histogram.getMeanMicros());
+            row[3] = micros(histogram.getP50Micros());
+            row[4] = micros(histogram.getP90Micros());
+            row[5] = micros(histogram.getP99Micros());
+            row[6] = micros(histogram.getMaxMicros());
+        }
+        tableModel.fireTableRowsUpdated(0, rows.length - 1);
+    }
+
+    private static String micros(double value) {
+        return String.format("%.1f", value);
+    }
+
+    // Opens the page in its own window, refreshing every second while it is open
+    public static void showWindow(Component parent) {
+        JFrame frame = new JFrame("Metrics");
+        MetricsPanel panel = new MetricsPanel();
+        frame.setContentPane(panel);
+        frame.setSize(900, 420);
+        frame.setLocationRelativeTo(parent);
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        Timer refreshTimer = new Timer(1000, e -> panel.refresh());
+        frame.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                refreshTimer.stop();
+            }
+        });
+        refreshTimer.start();
+        frame.setVisible(true);
+    }
+}
@@ -0,0 +1,65 @@
+package ui;
+
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.Color;
+import java.awt.Component;
+
+/**
+ * Cell renderer shared by the booking grids.
+ * Colours come from the cell's SlotState, so painting a cell allocates nothing.
+ */
+public class SlotCellRenderer extends DefaultTableCellRenderer {
+    private static final long serialVersionUID = 1L;
+    private static final Color COMPUTER_BACKGROUND = new Color(245, 238, 224); // soft cream
+    private static final Color COMPUTER_FOREGROUND = new Color(70, 50, 30);
+    private static final Color AVAILABLE_BACKGROUND = new Color(212, 237, 218); // soft mint green
+    private static final Color AVAILABLE_FOREGROUND = new Color(21, 87, 36);
+    private static final Color BOOKED_BACKGROUND = new Color(248, 215, 218); // warm coral/pink
+    private static final Color BOOKED_FOREGROUND = new Color(115, 0, 15);
+    private static final Color MINE_BACKGROUND = new Color(255, 229, 153); // honey
+    private static final Color MINE_FOREGROUND = new Color(102, 70, 0);
+    private static final Color EXPIRED_BACKGROUND = new Color(230, 226, 220); // dusty grey
+    private static final Color EXPIRED_FOREGROUND = new Color(120, 110, 100);
+    private static final Color SELECTED_BACKGROUND = new Color(255, 235, 205); // warm highlight
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                   boolean hasFocus, int row, int col) {
+        SlotTableModel model = (SlotTableModel) table.getModel();
+        int modelRow = table.convertRowIndexToModel(row);
+        int modelCol = table.convertColumnIndexToModel(col);
+        super.getTableCellRendererComponent(table, model.getLabel(modelRow, modelCol), isSelected, hasFocus, row, col);
+
+        if (modelCol == 0) {
+            setBackground(COMPUTER_BACKGROUND);
+            setForeground(COMPUTER_FOREGROUND);
+            setHorizontalAlignment(LEFT);
+        } else {
+            switch ((SlotState) value) {
+                case BOOKED:
+                    setBackground(BOOKED_BACKGROUND);
+                    setForeground(BOOKED_FOREGROUND);
+                    break;
+                case MINE:
+                    setBackground(MINE_BACKGROUND);
+                    setForeground(MINE_FOREGROUND);
+                    break;
+                case EXPIRED:
+                    setBackground(EXPIRED_BACKGROUND);
+                    setForeground(EXPIRED_FOREGROUND);
+                    break;
+                default:
+                    setBackground(AVAILABLE_BACKGROUND);
+                    setForeground(AVAILABLE_FOREGROUND);
+                    break;
+            }
+            setHorizontalAlignment(CENTER);
+        }
+
+        if (isSelected) {
+            setBackground(SELECTED_BACKGROUND);
+        }
+        return this;
+    }
+}
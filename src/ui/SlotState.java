@@ -0,0 +1,8 @@
+package ui;
+
+public enum SlotState {
+    AVAILABLE,
+    BOOKED,
+    MINE,
+    EXPIRED
+}
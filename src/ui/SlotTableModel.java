@@ -0,0 +1,231 @@
+package ui;
+
+import manager.SlotChanges;
+import manager.SlotManager;
+import manager.SlotSubscription;
+import trace.TableUpdateEvent;
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Booking grid for one date, read straight from the SlotManager.
+ * It subscribes to the shown date and applies each batch of changes on the
+ * EDT, firing updates only for the cells in the batch; the clock only has to
+ * call refreshExpired(). Open one with open() and call close() when the
+ * screen goes away.
+ * Slot cells hold a SlotState; their text comes from getLabel.
+ */
+public class SlotTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    private final transient SlotManager slotManager;
+    private final String viewer;
+    private final int numComputers;
+    private final int numTimeSlots;
+    private final String[] computerNames;
+    private final String[] columnNames;
+    private transient SlotSubscription subscription;
+
+    private LocalDate date;
+    private long version = -1;
+    private int expiredSlots;
+    private int viewerId = -1;
+    private int[] shown;
+    private int[] latest;
+    private String[] bookedLabels = new String[16];
+
+    public static SlotTableModel open(SlotManager slotManager, LocalDate date) {
+        return open(slotManager, date, null);
+    }
+
+    // Cells booked by viewer show as MINE. The model subscribes once it is built
+    public static SlotTableModel open(SlotManager slotManager, LocalDate date, String viewer) {
+        SlotTableModel model = new SlotTableModel(slotManager, date, viewer);
+        // Subscribed before the first copy so no change falls between the two
+        model.subscription = slotManager.subscribe(date, SwingUtilities::invokeLater, model::apply);
+        model.version = slotManager.copyOccupants(date, model.shown);
+        model.expiredSlots = model.countExpiredSlots();
+        return model;
+    }
+
+    private SlotTableModel(SlotManager slotManager, LocalDate date, String viewer) {
+        this.slotManager = slotManager;
+        this.viewer = viewer;
+        this.numComputers = slotManager.getNumComputers();
+        this.numTimeSlots = slotManager.getNumTimeSlots();
+        this.computerNames = new String[numComputers];
+        for (int i = 0; i < numComputers; i++) {
+            computerNames[i] = "PC-" + (i + 1);
+        }
+        this.columnNames = new String[numTimeSlots + 1];
+        columnNames[0] = "Computer #";
+        for (int i = 0; i < numTimeSlots; i++) {
+            columnNames[i + 1] = SlotManager.slotLabel(i);
+        }
+        this.shown = new int[numComputers * numTimeSlots];
+        this.latest = new int[numComputers * numTimeSlots];
+        this.date = date;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    // Switching dates reloads the grid with a single table event
+    public void setDate(LocalDate newDate) {
+        if (newDate.equals(date)) {
+            refresh();
+            return;
+        }
+        TableUpdateEvent event = new TableUpdateEvent();
+        event.begin();
+        date = newDate;
+        subscription.setDate(newDate);
+        version = slotManager.copyOccupants(date, shown);
+        expiredSlots = countExpiredSlots();
+        fireTableDataChanged();
+        event.end();
+        if (event.shouldCommit()) {
+            event.date = newDate.toString();
+            event.fullReload = true;
+            event.cellsChanged = shown.length;
+            event.commit();
+        }
+    }
+
+    // Re-reads the whole date; only needed when changes could have been missed
+    public void refresh() {
+        refreshExpired();
+        if (slotManager.getVersion(date) == version) return;
+        version = slotManager.copyOccupants(date, latest);
+        int[] previous = shown;
+        shown = latest;
+        latest = previous;
+        for (int cell = 0; cell < shown.length; cell++) {
+            if (shown[cell] != previous[cell]) {
+                fireTableCellUpdated(cell / numTimeSlots, cell % numTimeSlots + 1);
+            }
+        }
+    }
+
+    // Greys out slots whose hour has passed; cheap enough for a clock tick
+    public void refreshExpired() {
+        int expired = countExpiredSlots();
+        if (expired != expiredSlots) {
+            int from = Math.min(expired, expiredSlots);
+            int to = Math.max(expired, expiredSlots);
+            expiredSlots = expired;
+            for (int row = 0; row < numComputers; row++) {
+                for (int slot = from; slot < to; slot++) {
+                    fireTableCellUpdated(row, slot + 1);
+                }
+            }
+        }
+    }
+
+    // Runs on the EDT with one date's batch; each changed cell is re-read, so
+    // a batch that overlaps the last full copy is harmless
+    private void apply(SlotChanges changes) {
+        if (!changes.date.equals(date)) return;
+        TableUpdateEvent event = new TableUpdateEvent();
+        event.begin();
+        int changed = 0;
+        for (int cell = changes.cells.nextSetBit(0); cell >= 0; cell = changes.cells.nextSetBit(cell + 1)) {
+            int row = cell / numTimeSlots;
+            int slot = cell % numTimeSlots;
+            int occupant = slotManager.getOccupantId(date, row, slot);
+            if (shown[cell] != occupant) {
+                shown[cell] = occupant;
+                fireTableCellUpdated(row, slot + 1);
+                changed++;
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.date = date.toString();
+            event.cellsChanged = changed;
+            event.commit();
+        }
+    }
+
+    public void close() {
+        subscription.close();
+    }
+
+    @Override
+    public int getRowCount() {
+        return numComputers;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return numTimeSlots + 1;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (column == 0) return computerNames[row];
+        return getState(row, column);
+    }
+
+    public SlotState getState(int row, int column) {
+        if (column - 1 < expiredSlots) return SlotState.EXPIRED;
+        int userId = shown[row * numTimeSlots + column - 1];
+        if (userId < 0) return SlotState.AVAILABLE;
+        if (viewerId < 0 && viewer != null) {
+            viewerId = slotManager.getUserId(viewer);
+        }
+        return userId == viewerId ? SlotState.MINE : SlotState.BOOKED;
+    }
+
+    public String getLabel(int row, int column) {
+        if (column == 0) return computerNames[row];
+        switch (getState(row, column)) {
+            case AVAILABLE:
+                return "Available";
+            case EXPIRED:
+                return "Expired";
+            default:
+                return bookedLabel(shown[row * numTimeSlots + column - 1]);
+        }
+    }
+
+    // Number of leading slots on the shown date whose hour is already over
+    private int countExpiredSlots() {
+        LocalDate today = LocalDate.now();
+        if (date.isBefore(today)) return numTimeSlots;
+        if (date.isAfter(today)) return 0;
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        while (expired < numTimeSlots && !slotManager.getSlotEnd(date, expired).isAfter(now)) {
+            expired++;
+        }
+        return expired;
+    }
+
+    private String bookedLabel(int userId) {
+        if (userId >= bookedLabels.length) {
+            bookedLabels = Arrays.copyOf(bookedLabels, Math.max(userId + 1, bookedLabels.length * 2));
+        }
+        String label = bookedLabels[userId];
+        if (label == null) {
+            label = "Booked by " + slotManager.getUsername(userId);
+            bookedLabels[userId] = label;
+        }
+        return label;
+    }
+}
@@ -0,0 +1,91 @@
+package ui;
+
+import manager.BookingService;
+import model.User;
+
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+import java.awt.Graphics;
+import java.util.function.LongConsumer;
+
+/**
+ * With -Dbooking.startupTiming prints the time from BookingSystemApp.main to
+ * the first painted login frame, and from a successful login to the first
+ * painted dashboard.
+ *
+ * With -Dbooking.cdsTraining the app instead opens the login screen and both
+ * dashboards once each and exits, which is the training run the cds-archive
+ * Ant target records with -XX:ArchiveClassesAtExit.
+ */
+public final class StartupTiming {
+    public static final boolean CDS_TRAINING = Boolean.getBoolean("booking.cdsTraining");
+    public static final boolean ENABLED = CDS_TRAINING || Boolean.getBoolean("booking.startupTiming");
+
+    private static long launched;
+    private static long loggedIn;
+
+    private StartupTiming() {
+    }
+
+    public static void launched() {
+        launched = System.nanoTime();
+    }
+
+    static void loggedIn() {
+        if (ENABLED) loggedIn = System.nanoTime();
+    }
+
+    // Only the first login frame is timed against main; later ones come from a logout
+    static void loginShown(JFrame frame, BookingService bookingService) {
+        if (!ENABLED || launched == 0) return;
+        onFirstPaint(frame, paintedAt -> {
+            report("main -> login frame painted", launched, paintedAt);
+            launched = 0;
+            if (CDS_TRAINING) {
+                frame.dispose();
+                loggedIn();
+                new AdminDashboard(new User("admin", "admin"), bookingService).display();
+            }
+        });
+    }
+
+    static void dashboardShown(JFrame frame, BookingService bookingService, boolean admin) {
+        if (!ENABLED || loggedIn == 0) return;
+        onFirstPaint(frame, paintedAt -> {
+            report("login -> " + (admin ? "admin dashboard" : "booking screen") + " painted", loggedIn, paintedAt);
+            loggedIn = 0;
+            if (CDS_TRAINING && admin) {
+                frame.dispose();
+                loggedIn();
+                new CustomerBookingScreen(new User("cds", "customer"), bookingService).display();
+            } else if (CDS_TRAINING) {
+                System.exit(0);
+            }
+        });
+    }
+
+    private static void report(String what, long from, long to) {
+        System.out.printf("startup: %s in %.1f ms%n", what, (to - from) / 1e6);
+    }
+
+    // A clear glass pane is painted last, so its first paint means the whole frame has been drawn
+    private static void onFirstPaint(JFrame frame, LongConsumer action) {
+        JComponent marker = new JComponent() {
+            private boolean painted;
+
+            @Override
+            protected void paintComponent(Graphics g) {
+                if (painted) return;
+                painted = true;
+                long paintedAt = System.nanoTime();
+                SwingUtilities.invokeLater(() -> {
+                    setVisible(false);
+                    action.accept(paintedAt);
+                });
+            }
+        };
+        frame.setGlassPane(marker);
+        marker.setVisible(true);
+    }
+}
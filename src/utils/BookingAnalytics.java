@@ -0,0 +1,192 @@
+package utils;
+
+import manager.RemovalCounts;
+import model.TransactionManager;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running revenue and utilization counters for the admin analytics page.
+ * TransactionManager reports every sale and SlotManager every booked or
+ * removed cell, so each query reads a handful of counters (or one per
+ * day / hour / computer bucket) instead of walking the booking history.
+ * Amounts are in centavos; a sale spanning several hours is split evenly
+ * across them for the per-hour figures.
+ */
+public class BookingAnalytics {
+    private final int numComputers;
+    private final int numTimeSlots;
+
+    private final LongAdder totalRevenue = new LongAdder();
+    private final ConcurrentSkipListMap<Integer, LongAdder> revenueByDay = new ConcurrentSkipListMap<>();
+    private final AtomicLongArray revenueByComputer;
+    private final AtomicLongArray revenueByHour;
+
+    // Booked cell-days: per cell (computer-major), per hour and per date
+    private final AtomicIntegerArray bookedCells;
+    private final AtomicIntegerArray bookedByHour;
+    private final Map<Integer, AtomicInteger> bookedByDay = new ConcurrentHashMap<>();
+    private final LongAdder totalBooked = new LongAdder();
+
+    public BookingAnalytics(int numComputers, int numTimeSlots) {
+        this.numComputers = numComputers;
+        this.numTimeSlots = numTimeSlots;
+        this.revenueByComputer = new AtomicLongArray(numComputers);
+        this.revenueByHour = new AtomicLongArray(numTimeSlots);
+        this.bookedCells = new AtomicIntegerArray(numComputers * numTimeSlots);
+        this.bookedByHour = new AtomicIntegerArray(numTimeSlots);
+    }
+
+    public int getNumComputers() {
+        return numComputers;
+    }
+
+    public int getNumTimeSlots() {
+        return numTimeSlots;
+    }
+
+    // Counts the transactions already stored; called once, under the manager lock, before hooks start
+    public void seed(TransactionManager transactionManager) {
+        for (int row = 0; row < transactionManager.size(); row++) {
+            int computerIndex = transactionManager.getComputerIndex(row);
+            int slotRange = transactionManager.getSlotRange(row);
+            int epochDay = transactionManager.getBookingEpochDay(row);
+            recordSale(epochDay, computerIndex, slotRange, transactionManager.getAmountCentavos(row));
+            if (computerIndex >= 0 && slotRange >= 0) {
+                recordBooked(epochDay, computerIndex, slotRange >>> 16, slotRange & 0xFFFF);
+            }
+        }
+    }
+
+    // slotRange is packed fromSlot << 16 | toSlot, or negative when unknown
+    public void recordSale(int bookingEpochDay, int computerIndex, int slotRange, long amountCentavos) {
+        totalRevenue.add(amountCentavos);
+        revenueByDay.computeIfAbsent(bookingEpochDay, k -> new LongAdder()).add(amountCentavos);
+        if (computerIndex >= 0 && computerIndex < numComputers) {
+            revenueByComputer.addAndGet(computerIndex, amountCentavos);
+        }
+        if (slotRange >= 0) {
+            int from = slotRange >>> 16;
+            int to = Math.min(slotRange & 0xFFFF, numTimeSlots - 1);
+            if (from > to) return;
+            int hours = to - from + 1;
+            long share = amountCentavos / hours;
+            // The remainder goes to the first hour so the hours still add up to the sale
+            revenueByHour.addAndGet(from, amountCentavos - share * (hours - 1));
+            for (int t = from + 1; t <= to; t++) {
+                revenueByHour.addAndGet(t, share);
+            }
+        }
+    }
+
+    public void recordBooked(int epochDay, int computerIndex, int fromIndex, int toIndex) {
+        adjustBooked(epochDay, computerIndex, fromIndex, toIndex, 1);
+    }
+
+    public void recordRemoved(int epochDay, int computerIndex, int timeIndex) {
+        adjustBooked(epochDay, computerIndex, timeIndex, timeIndex, -1);
+    }
+
+    // Cancellations restored as totals rather than one by one
+    public void recordRemoved(RemovalCounts removed) {
+        int cells = Math.min(removed.byCell.length, numComputers * numTimeSlots);
+        for (int cell = 0; cell < cells; cell++) {
+            int count = removed.byCell[cell];
+            if (count == 0) continue;
+            bookedCells.addAndGet(cell, -count);
+            bookedByHour.addAndGet(cell % numTimeSlots, -count);
+        }
+        for (int i = 0; i < removed.days.length; i++) {
+            bookedByDay.computeIfAbsent(removed.days[i], k -> new AtomicInteger()).addAndGet(-removed.dayCounts[i]);
+            totalBooked.add(-removed.dayCounts[i]);
+        }
+    }
+
+    private void adjustBooked(int epochDay, int computerIndex, int fromIndex, int toIndex, int delta) {
+        if (computerIndex >= numComputers) return;
+        toIndex = Math.min(toIndex, numTimeSlots - 1);
+        if (fromIndex > toIndex) return;
+        int row = computerIndex * numTimeSlots;
+        for (int t = fromIndex; t <= toIndex; t++) {
+            bookedCells.addAndGet(row + t, delta);
+            bookedByHour.addAndGet(t, delta);
+        }
+        int cells = (toIndex - fromIndex + 1) * delta;
+        bookedByDay.computeIfAbsent(epochDay, k -> new AtomicInteger()).addAndGet(cells);
+        totalBooked.add(cells);
+    }
+
+    public long getTotalRevenue() {
+        return totalRevenue.sum();
+    }
+
+    public long getRevenue(LocalDate date) {
+        LongAdder revenue = revenueByDay.get((int) date.toEpochDay());
+        return revenue == null ? 0 : revenue.sum();
+    }
+
+    // Revenue for every day in [from, to], index 0 being from
+    public long[] getDailyRevenue(LocalDate from, LocalDate to) {
+        int first = (int) from.toEpochDay();
+        int last = (int) to.toEpochDay();
+        long[] totals = new long[Math.max(last - first + 1, 0)];
+        if (totals.length == 0) return totals;
+        for (Map.Entry<Integer, LongAdder> day : revenueByDay.subMap(first, true, last, true).entrySet()) {
+            totals[day.getKey() - first] = day.getValue().sum();
+        }
+        return totals;
+    }
+
+    public long getComputerRevenue(int computerIndex) {
+        return revenueByComputer.get(computerIndex);
+    }
+
+    public long getHourRevenue(int timeIndex) {
+        return revenueByHour.get(timeIndex);
+    }
+
+    // Times the cell has been booked across all dates
+    public int getBookedCount(int computerIndex, int timeIndex) {
+        return bookedCells.get(computerIndex * numTimeSlots + timeIndex);
+    }
+
+    public int getBookedCountByHour(int timeIndex) {
+        return bookedByHour.get(timeIndex);
+    }
+
+    // Share of the date's cells that are booked, 0 to 100
+    public double getOccupancyPercent(LocalDate date) {
+        AtomicInteger booked = bookedByDay.get((int) date.toEpochDay());
+        return booked == null ? 0 : booked.get() * 100.0 / (numComputers * numTimeSlots);
+    }
+
+    // Share of cells booked over every date that has seen a booking, 0 to 100
+    public double getOverallOccupancyPercent() {
+        int days = bookedByDay.size();
+        return days == 0 ? 0 : totalBooked.sum() * 100.0 / ((long) days * numComputers * numTimeSlots);
+    }
+
+    // Time indexes ordered from most to least booked
+    public int[] getPeakHours() {
+        Integer[] order = new Integer[numTimeSlots];
+        int[] counts = new int[numTimeSlots];
+        for (int t = 0; t < numTimeSlots; t++) {
+            order[t] = t;
+            counts[t] = bookedByHour.get(t);
+        }
+        Arrays.sort(order, (a, b) -> counts[b] != counts[a] ? Integer.compare(counts[b], counts[a]) : Integer.compare(a, b));
+        int[] peaks = new int[numTimeSlots];
+        for (int t = 0; t < numTimeSlots; t++) {
+            peaks[t] = order[t];
+        }
+        return peaks;
+    }
+}
@@ -0,0 +1,478 @@
+package utils;
+
+import manager.SlotManager;
+import model.Transaction;
+import model.TransactionManager;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal of slot bookings, clears, minute reservations and transactions.
+ * Records are framed as [length][crc32][payload]. Appends only copy into an
+ * in-memory buffer; a committer thread writes the buffer and fsyncs it once
+ * per commit interval, so a burst of bookings costs a single disk flush.
+ * Slot records come from under SlotManager's row locks, so they skip this
+ * journal's lock: they go on a lock-free queue and are framed into the buffer
+ * in queue order before each commit, sync or size().
+ * On startup replay() rebuilds both managers and drops any torn tail.
+ *
+ * Offsets are logical: a file starts with a header naming the offset of its
+ * first record, so truncateBefore() can drop what a snapshot already holds
+ * while the snapshot's offset stays valid.
+ */
+public class BookingJournal implements Closeable {
+    private static final byte BOOK = 1;
+    private static final byte CLEAR = 2;
+    private static final byte TRANSACTION = 3;
+    private static final byte BOOKING = 4;
+    private static final byte RESERVE = 5;
+    private static final byte RELEASE = 6;
+    // A cleared cell that was booked: replays like CLEAR and also counts as a removal, unless
+    // the snapshot replayed onto already counts its sequence number
+    private static final byte REMOVE = 7;
+    private static final int HEADER_BYTES = 8;
+    private static final long FILE_MAGIC = 0x43424A524E4C3031L; // "CBJRNL01"
+    private static final int FILE_HEADER_BYTES = 16;
+
+    private final Path file;
+    private final long commitIntervalMillis;
+    private final Thread committer;
+    private final CRC32 crc = new CRC32();
+    // Held while the file is written, so truncateBefore() never swaps it under a commit
+    private final Object writeLock = new Object();
+
+    // Guarded by writeLock and this
+    private FileChannel channel;
+    // Logical offset of the first record
+    private long base;
+
+    // Slot record payloads; a row's records are queued under its lock, so the queue keeps their order
+    private final ConcurrentLinkedQueue<byte[]> queued = new ConcurrentLinkedQueue<>();
+
+    // Guarded by this
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer writing = ByteBuffer.allocate(64 * 1024);
+    private int recordStart;
+    private long appendedBytes;
+    private long durableBytes;
+    private volatile boolean closed;
+    private int syncWaiters;
+    private volatile IOException failure;
+
+    private long commitCount;
+
+    public BookingJournal(Path file, long commitIntervalMillis) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.commitIntervalMillis = commitIntervalMillis;
+        if (channel.size() == 0) {
+            writeFileHeader(channel, 0);
+            channel.force(true);
+        }
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        if (channel.read(header, 0) != FILE_HEADER_BYTES || header.getLong(0) != FILE_MAGIC) {
+            channel.close();
+            throw new IOException("Not a booking journal: " + file);
+        }
+        this.base = header.getLong(8);
+        this.appendedBytes = logical(channel.size());
+        this.durableBytes = appendedBytes;
+        channel.position(channel.size());
+        this.committer = new Thread(this::commitLoop, "journal-commit");
+        committer.setDaemon(true);
+    }
+
+    // Applies every intact record to the managers, truncates a torn tail and starts
+    // group commit; returns the number of records replayed
+    public int replay(SlotManager slotManager, TransactionManager transactionManager) throws IOException {
+        return replayFrom(0, slotManager, transactionManager);
+    }
+
+    public synchronized int replayFrom(long offset, SlotManager slotManager, TransactionManager transactionManager) throws IOException {
+        if (offset < base) {
+            throw new IOException(file + " starts at offset " + base + ", after the snapshot's " + offset
+                    + "; the snapshot it was truncated for is missing");
+        }
+        int records = 0;
+        long valid = Math.min(FILE_HEADER_BYTES + offset - base, channel.size());
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(channel.position(valid)), 1 << 16));
+        byte[] payload = new byte[256];
+        try {
+            while (true) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length <= 0 || length > (1 << 20)) break;
+                if (payload.length < length) payload = new byte[length];
+                in.readFully(payload, 0, length);
+                CRC32 check = new CRC32();
+                check.update(payload, 0, length);
+                if ((int) check.getValue() != checksum) break;
+                apply(ByteBuffer.wrap(payload, 0, length), slotManager, transactionManager);
+                valid += HEADER_BYTES + length;
+                records++;
+            }
+        } catch (EOFException torn) {
+            // Crash mid-record: everything before it is intact
+        }
+        if (valid < channel.size()) {
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+        appendedBytes = logical(valid);
+        durableBytes = appendedBytes;
+        if (!committer.isAlive()) {
+            committer.start();
+        }
+        return records;
+    }
+
+    private static void apply(ByteBuffer record, SlotManager slotManager, TransactionManager transactionManager) {
+        byte type = record.get();
+        switch (type) {
+            case BOOK: {
+                LocalDate date = LocalDate.ofEpochDay(record.getInt());
+                int computerIndex = record.getInt();
+                int fromIndex = record.getShort();
+                int toIndex = record.getShort();
+                slotManager.bookRange(date, computerIndex, fromIndex, toIndex, readString(record));
+                break;
+            }
+            case CLEAR:
+                slotManager.replayClear(LocalDate.ofEpochDay(record.getInt()), record.getInt(), record.getShort());
+                break;
+            case TRANSACTION: {
+                String user = readString(record);
+                String computerId = readString(record);
+                String timeSlot = readString(record);
+                double amountPaid = record.getDouble();
+                String timestamp = readString(record);
+                LocalDate bookingDate = LocalDate.ofEpochDay(record.getInt());
+                transactionManager.addTransaction(new Transaction(user, computerId, timeSlot, amountPaid, timestamp, bookingDate));
+                break;
+            }
+            case BOOKING: {
+                int computerIndex = record.getInt();
+                int fromIndex = record.getShort();
+                int toIndex = record.getShort();
+                long amountCentavos = record.getLong();
+                long timestampSeconds = record.getLong();
+                int bookingEpochDay = record.getInt();
+                transactionManager.addBookingRow(readString(record), computerIndex, fromIndex, toIndex,
+                        amountCentavos, timestampSeconds, bookingEpochDay);
+                break;
+            }
+            case RESERVE: {
+                int computerIndex = record.getInt();
+                LocalDateTime start = minute(record.getInt());
+                LocalDateTime end = minute(record.getInt());
+                slotManager.reserve(computerIndex, start, end, readString(record));
+                break;
+            }
+            case RELEASE:
+                slotManager.release(record.getInt(), minute(record.getInt()));
+                break;
+            case REMOVE:
+                slotManager.replayRemoval(LocalDate.ofEpochDay(record.getInt()), record.getInt(), record.getShort(),
+                        record.getLong());
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal record type " + type);
+        }
+    }
+
+    public void logBook(LocalDate date, int computerIndex, int fromIndex, int toIndex, String username) {
+        byte[] user = username.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(1 + 4 + 4 + 2 + 2 + 2 + user.length);
+        record.put(BOOK).putInt((int) date.toEpochDay()).putInt(computerIndex)
+                .putShort((short) fromIndex).putShort((short) toIndex);
+        putString(record, user);
+        enqueue(record);
+    }
+
+    public void logClear(LocalDate date, int computerIndex, int timeIndex) {
+        ByteBuffer record = ByteBuffer.allocate(1 + 4 + 4 + 2);
+        record.put(CLEAR).putInt((int) date.toEpochDay()).putInt(computerIndex).putShort((short) timeIndex);
+        enqueue(record);
+    }
+
+    // sequence is the removal's number from SlotManager
+    public void logRemove(LocalDate date, int computerIndex, int timeIndex, long sequence) {
+        ByteBuffer record = ByteBuffer.allocate(1 + 4 + 4 + 2 + 8);
+        record.put(REMOVE).putInt((int) date.toEpochDay()).putInt(computerIndex).putShort((short) timeIndex)
+                .putLong(sequence);
+        enqueue(record);
+    }
+
+    // Reservation bounds are epoch minutes
+    public void logReserve(int computerIndex, int startMinute, int endMinute, String username) {
+        byte[] user = username.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(1 + 4 + 4 + 4 + 2 + user.length);
+        record.put(RESERVE).putInt(computerIndex).putInt(startMinute).putInt(endMinute);
+        putString(record, user);
+        enqueue(record);
+    }
+
+    public void logRelease(int computerIndex, int minute) {
+        ByteBuffer record = ByteBuffer.allocate(1 + 4 + 4);
+        record.put(RELEASE).putInt(computerIndex).putInt(minute);
+        enqueue(record);
+    }
+
+    public void logTransaction(Transaction t) {
+        byte[] user = t.user.getBytes(StandardCharsets.UTF_8);
+        byte[] computerId = t.computerId.getBytes(StandardCharsets.UTF_8);
+        byte[] timeSlot = t.timeSlot.getBytes(StandardCharsets.UTF_8);
+        byte[] timestamp = t.timestamp.getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            ByteBuffer buffer = begin(1 + 2 * 4 + user.length + computerId.length + timeSlot.length
+                    + timestamp.length + 8 + 4);
+            buffer.put(TRANSACTION);
+            putString(buffer, user);
+            putString(buffer, computerId);
+            putString(buffer, timeSlot);
+            buffer.putDouble(t.amountPaid);
+            putString(buffer, timestamp);
+            buffer.putInt((int) t.bookingDate.toEpochDay());
+            end();
+        }
+    }
+
+    public void logBooking(String username, int computerIndex, int fromIndex, int toIndex,
+                           long amountCentavos, long timestampSeconds, int bookingEpochDay) {
+        byte[] user = username.getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            ByteBuffer buffer = begin(1 + 4 + 2 + 2 + 8 + 8 + 4 + 2 + user.length);
+            buffer.put(BOOKING).putInt(computerIndex).putShort((short) fromIndex).putShort((short) toIndex)
+                    .putLong(amountCentavos).putLong(timestampSeconds).putInt(bookingEpochDay);
+            putString(buffer, user);
+            end();
+        }
+    }
+
+    // Throws when nothing appended now would reach the disk: closed, or a commit has failed
+    public void checkWritable() {
+        if (closed) throw new IllegalStateException("Journal is closed");
+        IOException failed = failure;
+        if (failed != null) throw new UncheckedIOException("Journal " + file + " can no longer be written", failed);
+    }
+
+    // Blocks until everything appended so far is on disk
+    public synchronized void sync() throws IOException {
+        drainQueued();
+        long target = appendedBytes;
+        syncWaiters++;
+        notifyAll();
+        try {
+            while (durableBytes < target && failure == null && !closed) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for journal commit", e);
+        } finally {
+            syncWaiters--;
+        }
+        if (failure != null) throw failure;
+    }
+
+    // Logical offset just past the last record appended
+    public synchronized long size() {
+        drainQueued();
+        return appendedBytes;
+    }
+
+    // Drops every record before offset, which a snapshot now holds. The records
+    // after it are copied into a new file that replaces this one; appends carry on
+    // into memory meanwhile and go to the new file with the next commit
+    public void truncateBefore(long offset) throws IOException {
+        synchronized (writeLock) {
+            commit();
+            long start;
+            synchronized (this) {
+                if (closed || offset <= base) return;
+                if (offset > durableBytes) throw new IllegalArgumentException("Offset " + offset + " is past the journal end");
+                start = FILE_HEADER_BYTES + offset - base;
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel copy = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFileHeader(copy, offset);
+                long end = channel.size();
+                for (long at = start; at < end; ) {
+                    at += channel.transferTo(at, end - at, copy);
+                }
+                copy.force(true);
+            }
+            // Closed first so the move also works where open files cannot be replaced
+            channel.close();
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            FileChannel reopened = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            reopened.position(reopened.size());
+            synchronized (this) {
+                channel = reopened;
+                base = offset;
+            }
+        }
+    }
+
+    public synchronized long getCommitCount() {
+        return commitCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (writeLock) {
+            commit();
+            channel.close();
+        }
+    }
+
+    private ByteBuffer begin(int payloadBytes) {
+        checkWritable();
+        return reserve(payloadBytes);
+    }
+
+    private ByteBuffer reserve(int payloadBytes) {
+        if (pending.remaining() < HEADER_BYTES + payloadBytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + HEADER_BYTES + payloadBytes));
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+        recordStart = pending.position();
+        pending.position(recordStart + HEADER_BYTES);
+        return pending;
+    }
+
+    private void enqueue(ByteBuffer record) {
+        if (closed) throw new IllegalStateException("Journal is closed");
+        queued.offer(record.array());
+    }
+
+    // Frames the queued slot records into the buffer; callers hold this
+    private void drainQueued() {
+        for (byte[] record = queued.poll(); record != null; record = queued.poll()) {
+            reserve(record.length).put(record);
+            end();
+        }
+    }
+
+    private void end() {
+        int length = pending.position() - recordStart - HEADER_BYTES;
+        crc.reset();
+        crc.update(pending.array(), recordStart + HEADER_BYTES, length);
+        pending.putInt(recordStart, length);
+        pending.putInt(recordStart + 4, (int) crc.getValue());
+        appendedBytes += HEADER_BYTES + length;
+    }
+
+    private void commitLoop() {
+        while (true) {
+            synchronized (this) {
+                if (closed) return;
+                // Someone blocked in sync() gets the next commit straight away; records
+                // appended meanwhile ride along in the same fsync
+                if (syncWaiters == 0) {
+                    try {
+                        wait(Math.max(commitIntervalMillis, 1));
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            try {
+                synchronized (writeLock) {
+                    commit();
+                }
+            } catch (IOException e) {
+                System.err.println("Journal " + file + " failed, bookings are no longer saved: " + e);
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    // One write and one fsync for everything appended since the last commit; callers hold writeLock
+    private void commit() throws IOException {
+        ByteBuffer batch;
+        long target;
+        synchronized (this) {
+            drainQueued();
+            if (pending.position() == 0) return;
+            batch = pending;
+            pending = writing;
+            writing = batch;
+            target = appendedBytes;
+        }
+        batch.flip();
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        channel.force(false);
+        batch.clear();
+        synchronized (this) {
+            durableBytes = target;
+            commitCount++;
+            notifyAll();
+        }
+    }
+
+    private long logical(long position) {
+        return base + position - FILE_HEADER_BYTES;
+    }
+
+    private static void writeFileHeader(FileChannel channel, long base) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).putLong(FILE_MAGIC).putLong(base).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static LocalDateTime minute(int epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,159 @@
+package utils;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Process-wide booking metrics: striped counters plus latency histograms for
+ * the booking store, transactions, receipts and the screen clock ticks.
+ * Counters are exact; the hot-path histograms time one call in
+ * -Dbooking.metrics.sampleEvery (16 by default), so an untimed operation
+ * pays one random draw and one LongAdder increment. Run with
+ * -Dbooking.metrics=false to compile it out entirely (ENABLED is a constant).
+ * register() publishes everything under "ComputerBookingSystems:*" for
+ * jconsole / VisualVM.
+ */
+public class BookingMetrics implements BookingMetricsMXBean {
+    public static final boolean ENABLED = !"false".equals(System.getProperty("booking.metrics"));
+    private static final int SAMPLE_EVERY = Integer.getInteger("booking.metrics.sampleEvery", 16);
+    private static final BookingMetrics INSTANCE = new BookingMetrics();
+
+    public final LatencyHistogram booking = new LatencyHistogram("booking", SAMPLE_EVERY);
+    public final LatencyHistogram cancel = new LatencyHistogram("cancel", SAMPLE_EVERY);
+    public final LatencyHistogram transactionAdd = new LatencyHistogram("transactionAdd", SAMPLE_EVERY);
+    public final LatencyHistogram transactionQuery = new LatencyHistogram("transactionQuery");
+    public final LatencyHistogram receiptSubmit = new LatencyHistogram("receiptSubmit", SAMPLE_EVERY);
+    public final LatencyHistogram receiptBatchWrite = new LatencyHistogram("receiptBatchWrite");
+    public final LatencyHistogram timerTick = new LatencyHistogram("timerTick");
+
+    private final LongAdder bookings = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder transactions = new LongAdder();
+    private final LongAdder receiptsWritten = new LongAdder();
+    private volatile IntSupplier receiptQueueDepth = () -> 0;
+    private boolean registered;
+
+    private BookingMetrics() {
+    }
+
+    public static BookingMetrics get() {
+        return INSTANCE;
+    }
+
+    public List<LatencyHistogram> getHistograms() {
+        return List.of(booking, cancel, transactionAdd, transactionQuery, receiptSubmit, receiptBatchWrite, timerTick);
+    }
+
+    // Registers the MBeans on the platform server; safe to call more than once
+    public synchronized void register() {
+        if (registered) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName("ComputerBookingSystems:type=BookingMetrics"));
+            for (LatencyHistogram histogram : getHistograms()) {
+                server.registerMBean(histogram, new ObjectName("ComputerBookingSystems:type=Latency,name=" + histogram.getName()));
+            }
+            registered = true;
+        } catch (JMException e) {
+            System.err.println("Could not publish booking metrics: " + e);
+        }
+    }
+
+    // start comes from booking.start()
+    public void recordBooking(long start, boolean booked) {
+        booking.stop(start);
+        if (booked) {
+            bookings.increment();
+        } else {
+            conflicts.increment();
+        }
+    }
+
+    // A screen turned a booking away before sending it because it saw the slot taken
+    public void recordConflict() {
+        conflicts.increment();
+    }
+
+    public void recordCancel(long start, boolean removed) {
+        cancel.stop(start);
+        if (removed) cancellations.increment();
+    }
+
+    public void recordExpiry() {
+        expirations.increment();
+    }
+
+    public void recordTransaction(long start) {
+        transactionAdd.stop(start);
+        transactions.increment();
+    }
+
+    public void recordReceiptBatch(long start, int receipts) {
+        receiptBatchWrite.stop(start);
+        receiptsWritten.add(receipts);
+    }
+
+    public void setReceiptQueueDepth(IntSupplier depth) {
+        this.receiptQueueDepth = depth;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public long getBookings() {
+        return bookings.sum();
+    }
+
+    @Override
+    public long getBookingConflicts() {
+        return conflicts.sum();
+    }
+
+    @Override
+    public long getCancellations() {
+        return cancellations.sum();
+    }
+
+    @Override
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    @Override
+    public long getTransactions() {
+        return transactions.sum();
+    }
+
+    @Override
+    public long getReceiptsWritten() {
+        return receiptsWritten.sum();
+    }
+
+    @Override
+    public int getReceiptQueueDepth() {
+        return receiptQueueDepth.getAsInt();
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : getHistograms()) {
+            histogram.reset();
+        }
+        bookings.reset();
+        conflicts.reset();
+        cancellations.reset();
+        expirations.reset();
+        transactions.reset();
+        receiptsWritten.reset();
+    }
+}
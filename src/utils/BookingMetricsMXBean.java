@@ -0,0 +1,23 @@
+package utils;
+
+/** Counters and gauges published next to the latency histograms. */
+public interface BookingMetricsMXBean {
+    boolean isEnabled();
+
+    long getBookings();
+
+    // Bookings refused because a slot was already taken, at the store or at the screen
+    long getBookingConflicts();
+
+    long getCancellations();
+
+    long getExpirations();
+
+    long getTransactions();
+
+    long getReceiptsWritten();
+
+    int getReceiptQueueDepth();
+
+    void reset();
+}
@@ -0,0 +1,243 @@
+package utils;
+
+import manager.RemovalCounts;
+import manager.SlotManager;
+import model.Transaction;
+import model.TransactionManager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checkpoint of the whole booking state, laid out so it can be memory mapped
+ * and bulk-copied back on startup.
+ *
+ * Layout (big-endian): header, user table, one block per date holding every
+ * cell's occupant id as an int, the transactions as their columns, each
+ * computer's minute reservations as (start, end, user) triples, then the
+ * cancellation counts: the last removal number, one count per cell and
+ * (epoch day, count) pairs. The header records the journal size at checkpoint
+ * time, so startup only replays the journal tail.
+ */
+public class BookingSnapshot {
+    private static final long MAGIC = 0x4342534E41503035L; // "CBSNAP05"
+
+    // Writes a new snapshot next to the old one, swaps it in atomically and then
+    // drops the journal records it holds
+    public static void write(Path file, SlotManager slotManager, TransactionManager transactionManager,
+                             BookingJournal journal) throws IOException {
+        long journalOffset;
+        int transactionCount;
+        synchronized (transactionManager) {
+            journalOffset = journal != null ? journal.size() : 0;
+            transactionCount = transactionManager.size();
+        }
+        // Read after the offset, so every removal journalled before it is counted; replay
+        // skips the later ones these counts also hold by their sequence number
+        RemovalCounts removals = slotManager.copyRemovalCounts();
+
+        String[] slotUsers = slotManager.getUsernames();
+        List<String> users = new ArrayList<>(List.of(slotUsers));
+        Map<String, Integer> userIndex = new HashMap<>();
+        for (int i = 0; i < slotUsers.length; i++) {
+            userIndex.put(slotUsers[i], i);
+        }
+        for (int row = 0; row < transactionCount; row++) {
+            userIndex.computeIfAbsent(transactionManager.getUser(row), u -> {
+                users.add(u);
+                return users.size() - 1;
+            });
+        }
+        List<LocalDate> dates = new ArrayList<>(slotManager.getStoredDates());
+        int cells = slotManager.getNumComputers() * slotManager.getNumTimeSlots();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(channel), 1 << 16));
+            out.writeLong(MAGIC);
+            out.writeInt(slotManager.getNumComputers());
+            out.writeInt(slotManager.getNumTimeSlots());
+            out.writeLong(journalOffset);
+            out.writeInt(users.size());
+            out.writeInt(dates.size());
+            out.writeInt(transactionCount);
+            for (String user : users) {
+                writeString(out, user);
+            }
+            // Keep the int blocks 4-byte aligned for the IntBuffer view
+            while (out.size() % 4 != 0) {
+                out.writeByte(0);
+            }
+            // A member first seen after the user table was read booked after journalOffset, so
+            // the journal tail has that booking; the cell is written free rather than pointing
+            // past the end of the table
+            int[] occupants = new int[cells];
+            for (LocalDate date : dates) {
+                slotManager.copyOccupants(date, occupants);
+                out.writeInt((int) date.toEpochDay());
+                for (int occupant : occupants) {
+                    out.writeInt(occupant < slotUsers.length ? occupant : -1);
+                }
+            }
+            // Transactions go out as their columns; the rare row with free-form text keeps its strings
+            for (int row = 0; row < transactionCount; row++) {
+                boolean regular = transactionManager.isRegular(row);
+                out.writeInt(userIndex.get(transactionManager.getUser(row)));
+                out.writeInt(transactionManager.getBookingEpochDay(row));
+                out.writeLong(transactionManager.getAmountCentavos(row));
+                out.writeBoolean(regular);
+                if (regular) {
+                    out.writeInt(transactionManager.getComputerIndex(row));
+                    out.writeInt(transactionManager.getSlotRange(row));
+                    out.writeLong(transactionManager.getTimestampSeconds(row));
+                } else {
+                    Transaction t = transactionManager.getTransaction(row);
+                    writeString(out, t.computerId);
+                    writeString(out, t.timeSlot);
+                    writeString(out, t.timestamp);
+                }
+            }
+            // Likewise for reservations
+            for (int pc = 0; pc < slotManager.getNumComputers(); pc++) {
+                int[] triples = slotManager.copyReservations(pc);
+                int kept = 0;
+                for (int i = 0; i < triples.length; i += 3) {
+                    if (triples[i + 2] < slotUsers.length) {
+                        triples[kept++] = triples[i];
+                        triples[kept++] = triples[i + 1];
+                        triples[kept++] = triples[i + 2];
+                    }
+                }
+                out.writeInt(kept / 3);
+                for (int i = 0; i < kept; i++) {
+                    out.writeInt(triples[i]);
+                }
+            }
+            out.writeLong(removals.sequence);
+            for (int count : removals.byCell) {
+                out.writeInt(count);
+            }
+            out.writeInt(removals.days.length);
+            for (int i = 0; i < removals.days.length; i++) {
+                out.writeInt(removals.days[i]);
+                out.writeInt(removals.dayCounts[i]);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (journal != null) {
+            journal.truncateBefore(journalOffset);
+        }
+    }
+
+    // Loads the snapshot into empty managers and returns the journal offset to replay from;
+    // returns 0 when there is no usable snapshot
+    public static long load(Path file, SlotManager slotManager, TransactionManager transactionManager) throws IOException {
+        if (!Files.exists(file)) return 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getLong() != MAGIC) {
+                throw new IOException("Not a booking snapshot: " + file);
+            }
+            int numComputers = buffer.getInt();
+            int numTimeSlots = buffer.getInt();
+            if (numComputers != slotManager.getNumComputers() || numTimeSlots != slotManager.getNumTimeSlots()) {
+                System.err.println("Ignoring snapshot " + file + " taken for a " + numComputers + "x" + numTimeSlots + " grid");
+                return 0;
+            }
+            long journalOffset = buffer.getLong();
+            String[] users = new String[buffer.getInt()];
+            int dateCount = buffer.getInt();
+            int transactionCount = buffer.getInt();
+            for (int i = 0; i < users.length; i++) {
+                users[i] = readString(buffer);
+            }
+            buffer.position((buffer.position() + 3) & ~3);
+
+            int[] userIds = slotManager.internUsers(users);
+            int cells = numComputers * numTimeSlots;
+            int[] occupants = new int[cells];
+            IntBuffer ints = buffer.slice().asIntBuffer();
+            for (int d = 0; d < dateCount; d++) {
+                LocalDate date = LocalDate.ofEpochDay(ints.get());
+                ints.get(occupants);
+                for (int c = 0; c < cells; c++) {
+                    if (occupants[c] >= 0) occupants[c] = userIds[occupants[c]];
+                }
+                slotManager.restoreDate(date, occupants);
+            }
+            buffer.position(buffer.position() + ints.position() * 4);
+
+            for (int i = 0; i < transactionCount; i++) {
+                String user = users[buffer.getInt()];
+                int bookingEpochDay = buffer.getInt();
+                long amountCentavos = buffer.getLong();
+                if (buffer.get() != 0) {
+                    int computerIndex = buffer.getInt();
+                    int slotRange = buffer.getInt();
+                    transactionManager.addBookingRow(user, computerIndex, slotRange >>> 16, slotRange & 0xFFFF,
+                            amountCentavos, buffer.getLong(), bookingEpochDay);
+                } else {
+                    String computerId = readString(buffer);
+                    String timeSlot = readString(buffer);
+                    String timestamp = readString(buffer);
+                    transactionManager.addTransaction(new Transaction(user, computerId, timeSlot, amountCentavos / 100.0,
+                            timestamp, LocalDate.ofEpochDay(bookingEpochDay)));
+                }
+            }
+            for (int pc = 0; pc < numComputers; pc++) {
+                int[] triples = new int[buffer.getInt() * 3];
+                for (int i = 0; i < triples.length; i += 3) {
+                    triples[i] = buffer.getInt();
+                    triples[i + 1] = buffer.getInt();
+                    triples[i + 2] = userIds[buffer.getInt()];
+                }
+                slotManager.restoreReservations(pc, triples);
+            }
+            long removalSequence = buffer.getLong();
+            int[] removedByCell = new int[cells];
+            for (int c = 0; c < cells; c++) {
+                removedByCell[c] = buffer.getInt();
+            }
+            int[] days = new int[buffer.getInt()];
+            int[] dayCounts = new int[days.length];
+            for (int i = 0; i < days.length; i++) {
+                days[i] = buffer.getInt();
+                dayCounts[i] = buffer.getInt();
+            }
+            slotManager.restoreRemovalCounts(new RemovalCounts(removalSequence, removedByCell, days, dayCounts));
+            return journalOffset;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
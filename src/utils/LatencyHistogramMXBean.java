@@ -0,0 +1,19 @@
+package utils;
+
+/** One latency histogram as JMX sees it; times are in microseconds. */
+public interface LatencyHistogramMXBean {
+    // Calls timed so far; hot paths time one call in getSampleEvery()
+    long getCount();
+
+    int getSampleEvery();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP90Micros();
+
+    double getP99Micros();
+
+    double getMaxMicros();
+}
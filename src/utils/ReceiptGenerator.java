@@ -1,17 +1,336 @@
 package utils;
 
 import model.Transaction;
-import java.io.FileWriter;
+import trace.ReceiptWriteEvent;
+
+import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background receipt pipeline.
+ * generateReceipt hands the receipt to a bounded queue and returns its id at
+ * once; a writer thread appends queued receipts in batches to rolling text
+ * segments (receipts-000001.txt, ...) and records each receipt's segment,
+ * offset and length at id * 12 in receipts.idx, so any receipt can be read
+ * back with two positional reads. A batch that fails to write is kept and
+ * retried with a growing delay; receipts still unwritten at close are
+ * reported as lost.
+ */
+public class ReceiptGenerator implements Closeable {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int MAX_BATCH = 256;
+    private static final int INDEX_ENTRY_BYTES = 12;
+    private static final long DEFAULT_SEGMENT_BYTES = 4L * 1024 * 1024;
+    private static final long MIN_RETRY_MILLIS = 100;
+    private static final long MAX_RETRY_MILLIS = 5000;
+
+    private static volatile ReceiptGenerator defaultGenerator;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final FileChannel index;
+    private final BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    // Receipts accepted but not yet on disk, so reprints never miss them
+    private final Map<Long, String> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong nextId;
+    private final Thread writer;
+
+    // Touched by the writer thread only
+    private FileChannel segment;
+    private int segmentNumber;
+
+    private volatile boolean closed;
+    // Set while the current batch keeps failing
+    private volatile IOException failure;
+    private volatile long lostReceipts;
+
+    private static final class Pending {
+        final long id;
+        final String text;
+
+        Pending(long id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+
+    public ReceiptGenerator(Path directory, long segmentBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        this.index = FileChannel.open(directory.resolve("receipts.idx"), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.nextId = new AtomicLong(index.size() / INDEX_ENTRY_BYTES + 1);
+
+        int newest = 0;
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "receipts-*.txt")) {
+            for (Path file : segments) {
+                String name = file.getFileName().toString();
+                newest = Math.max(newest, Integer.parseInt(name.substring(9, name.length() - 4)));
+            }
+        }
+        openSegment(Math.max(newest, 1));
+
+        this.writer = new Thread(this::writeLoop, "receipt-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Shared pipeline writing under -Dbooking.receipts (default "receipts")
+    public static ReceiptGenerator getDefault() {
+        ReceiptGenerator generator = defaultGenerator;
+        if (generator == null) {
+            synchronized (ReceiptGenerator.class) {
+                generator = defaultGenerator;
+                if (generator == null) {
+                    try {
+                        generator = new ReceiptGenerator(Path.of(System.getProperty("booking.receipts", "receipts")),
+                                DEFAULT_SEGMENT_BYTES);
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Cannot open receipt archive", e);
+                    }
+                    defaultGenerator = generator;
+                    BookingMetrics.get().setReceiptQueueDepth(generator.queue::size);
+                }
+            }
+        }
+        return generator;
+    }
+
+    // Queues the receipt on the shared pipeline and returns its receipt number
+    public static long generateReceipt(Transaction transaction) {
+        return getDefault().submit(transaction);
+    }
+
+    // Drains and closes the shared pipeline if it was ever used
+    public static void closeDefault() throws IOException {
+        ReceiptGenerator generator = defaultGenerator;
+        if (generator != null) {
+            generator.close();
+        }
+    }
 
-public class ReceiptGenerator {
-    public static void generateReceipt(Transaction transaction) {
+    // Blocks only while the queue is full
+    public long submit(Transaction transaction) {
+        if (closed) throw new IllegalStateException("Receipt writer is closed");
+        long start = BookingMetrics.ENABLED ? BookingMetrics.get().receiptSubmit.start() : 0;
+        long id = nextId.getAndIncrement();
+        String text = "Receipt No: " + id + "\n" + transaction.toReceiptString() + "\n\n";
+        inFlight.put(id, text);
         try {
-            FileWriter writer = new FileWriter("receipt_" + System.currentTimeMillis() + ".txt");
-            writer.write(transaction.toReceiptString());
-            writer.close();
-        } catch (IOException e) {
-            e.printStackTrace();
+            queue.put(new Pending(id, text));
+        } catch (InterruptedException e) {
+            inFlight.remove(id);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted queueing receipt " + id, e);
         }
+        if (BookingMetrics.ENABLED) BookingMetrics.get().receiptSubmit.stop(start);
+        return id;
+    }
+
+    // Number of the newest receipt handed out, or 0 when there are none
+    public long getLastReceiptId() {
+        return nextId.get() - 1;
+    }
+
+    // The receipt's text, or null when no receipt with that number was stored
+    public String reprint(long id) throws IOException {
+        String pending = inFlight.get(id);
+        if (pending != null) return pending;
+        if (id <= 0 || id >= nextId.get()) return null;
+
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+        long position = (id - 1) * INDEX_ENTRY_BYTES;
+        while (entry.hasRemaining()) {
+            if (index.read(entry, position + entry.position()) < 0) return null;
+        }
+        entry.flip();
+        int segmentNo = entry.getInt();
+        int offset = entry.getInt();
+        int length = entry.getInt();
+        if (length == 0) {
+            // Index entry not written yet
+            return inFlight.get(id);
+        }
+        ByteBuffer text = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(segmentPath(segmentNo), StandardOpenOption.READ)) {
+            while (text.hasRemaining()) {
+                if (channel.read(text, offset + text.position()) < 0) return null;
+            }
+        }
+        text.flip();
+        return StandardCharsets.UTF_8.decode(text).toString();
+    }
+
+    // The write error the writer is retrying on, or null while writes succeed
+    public IOException getFailure() {
+        return failure;
+    }
+
+    // Receipts given up on at close because their batch could not be written
+    public long getLostReceiptCount() {
+        return lostReceipts;
+    }
+
+    // Waits until every queued receipt is on disk, or until a write fails
+    public void flush() {
+        while (!inFlight.isEmpty() && writer.isAlive() && failure == null) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segment.close();
+        index.close();
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        long retryMillis = MIN_RETRY_MILLIS;
+        while (!closed || !batch.isEmpty()) {
+            if (batch.isEmpty()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    if (closed) return;
+                    continue;
+                }
+                queue.drainTo(batch, MAX_BATCH - 1);
+            }
+            long start = BookingMetrics.ENABLED ? BookingMetrics.get().receiptBatchWrite.start() : 0;
+            ReceiptWriteEvent event = new ReceiptWriteEvent();
+            event.begin();
+            long bytes;
+            try {
+                bytes = writeBatch(batch);
+            } catch (IOException e) {
+                // The batch stays in inFlight, so reprints still find it while it is retried
+                if (failure == null) {
+                    System.err.println("Receipt write failed, retrying from receipt " + batch.get(0).id + ": " + e);
+                }
+                failure = e;
+                if (closed) {
+                    recordLoss(batch);
+                    return;
+                }
+                try {
+                    Thread.sleep(retryMillis);
+                } catch (InterruptedException interrupted) {
+                    // close() wakes the writer for one last attempt
+                }
+                retryMillis = Math.min(retryMillis * 2, MAX_RETRY_MILLIS);
+                continue;
+            }
+            if (failure != null) {
+                System.err.println("Receipt writes recovered");
+                failure = null;
+                retryMillis = MIN_RETRY_MILLIS;
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.receipts = batch.size();
+                event.bytes = bytes;
+                event.segment = segmentNumber;
+                event.firstReceipt = batch.get(0).id;
+                event.commit();
+            }
+            if (BookingMetrics.ENABLED) BookingMetrics.get().recordReceiptBatch(start, batch.size());
+            for (Pending receipt : batch) {
+                inFlight.remove(receipt.id);
+            }
+            batch.clear();
+        }
+    }
+
+    // Everything still unwritten when the writer gives up at close
+    private void recordLoss(List<Pending> batch) {
+        queue.drainTo(batch);
+        lostReceipts += batch.size();
+        System.err.println(batch.size() + " receipts were not written, receipts " + batch.get(0).id
+                + " to " + batch.get(batch.size() - 1).id + ": " + failure);
+    }
+
+    // One segment write and one index write per run of receipts, then one fsync each;
+    // returns the receipt bytes written. Safe to repeat after a failure: the index
+    // entries are rewritten to point at the new copy
+    private long writeBatch(List<Pending> batch) throws IOException {
+        if (!segment.isOpen()) {
+            openSegment(segmentNumber);
+        }
+        long written = 0;
+        ByteBuffer entries = ByteBuffer.allocate(batch.size() * INDEX_ENTRY_BYTES);
+        int i = 0;
+        while (i < batch.size()) {
+            if (segment.size() >= segmentBytes) {
+                segment.force(false);
+                segment.close();
+                openSegment(segmentNumber + 1);
+            }
+            long offset = segment.size();
+            List<ByteBuffer> chunk = new ArrayList<>();
+            long chunkBytes = 0;
+            entries.clear();
+            long firstId = batch.get(i).id;
+            // Ids in a batch are consecutive unless two kiosks raced in submit; a gap starts a new run
+            while (i < batch.size() && offset + chunkBytes < segmentBytes
+                    && batch.get(i).id == firstId + chunk.size()) {
+                byte[] bytes = batch.get(i).text.getBytes(StandardCharsets.UTF_8);
+                entries.putInt(segmentNumber).putInt((int) (offset + chunkBytes)).putInt(bytes.length);
+                chunk.add(ByteBuffer.wrap(bytes));
+                chunkBytes += bytes.length;
+                i++;
+            }
+            ByteBuffer[] buffers = chunk.toArray(new ByteBuffer[0]);
+            written += chunkBytes;
+            while (chunkBytes > 0) {
+                chunkBytes -= segment.write(buffers);
+            }
+            entries.flip();
+            long position = (firstId - 1) * INDEX_ENTRY_BYTES;
+            while (entries.hasRemaining()) {
+                position += index.write(entries, position);
+            }
+        }
+        segment.force(false);
+        index.force(false);
+        return written;
+    }
+
+    private void openSegment(int number) throws IOException {
+        segmentNumber = number;
+        segment = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("receipts-%06d.txt", number));
     }
 }
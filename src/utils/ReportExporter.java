@@ -0,0 +1,227 @@
+package utils;
+
+import model.Transaction;
+import model.TransactionManager;
+import trace.ExportWriteEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * Exports the transactions booked for a range of dates as CSV or JSON Lines.
+ * The range is cut into batches of days; the days of a batch are rendered in
+ * parallel on the fork/join pool and then written in date order with one
+ * gathering write, so memory stays bounded to one batch however long the range.
+ * The report goes to a temporary file and only replaces the target when complete.
+ */
+public class ReportExporter {
+    public enum Format {
+        CSV("csv"), JSON_LINES("jsonl");
+
+        public final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    private static final int BATCH_DAYS = 16;
+    private static final String CSV_HEADER = "user,computer,time_slot,booking_date,amount,timestamp\n";
+
+    // Returns the number of transactions written; reports the days finished so far to progress
+    // and throws CancellationException, leaving no file behind, once cancelled returns true
+    public static int export(Path file, TransactionManager transactionManager, LocalDate from, LocalDate to,
+                             Format format, BooleanSupplier cancelled, IntConsumer progress) throws IOException {
+        int totalDays = (int) (to.toEpochDay() - from.toEpochDay() + 1);
+        if (totalDays <= 0) {
+            throw new IllegalArgumentException("End date " + to + " is before " + from);
+        }
+        ExportWriteEvent event = new ExportWriteEvent();
+        event.begin();
+        Path temp = file.resolveSibling(file.getFileName() + ".part");
+        int rows = 0;
+        long bytes = 0;
+        boolean complete = false;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (format == Format.CSV) {
+                bytes += channel.write(StandardCharsets.UTF_8.encode(CSV_HEADER));
+            }
+            ByteBuffer[] days = new ByteBuffer[BATCH_DAYS];
+            int[] counts = new int[BATCH_DAYS];
+            for (int done = 0; done < totalDays; ) {
+                int batch = Math.min(BATCH_DAYS, totalDays - done);
+                ForkJoinPool.commonPool().invoke(new RenderDays(transactionManager, from.plusDays(done),
+                        format, cancelled, days, counts, 0, batch));
+                if (cancelled.getAsBoolean()) throw new CancellationException();
+                long remaining = 0;
+                for (int d = 0; d < batch; d++) {
+                    remaining += days[d].remaining();
+                    rows += counts[d];
+                }
+                bytes += remaining;
+                while (remaining > 0) {
+                    remaining -= channel.write(days, 0, batch);
+                }
+                done += batch;
+                progress.accept(done);
+            }
+            channel.force(false);
+            complete = true;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(temp);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.from = from.toString();
+                event.to = to.toString();
+                event.format = format.name();
+                event.rows = rows;
+                event.bytes = bytes;
+                event.completed = complete;
+                event.commit();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows;
+    }
+
+    // Renders days [start, end) of the batch into their own buffers, splitting until one day each
+    private static class RenderDays extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient TransactionManager transactionManager;
+        private final LocalDate firstDay;
+        private final Format format;
+        private final transient BooleanSupplier cancelled;
+        private final transient ByteBuffer[] out;
+        private final int[] counts;
+        private final int start;
+        private final int end;
+
+        RenderDays(TransactionManager transactionManager, LocalDate firstDay, Format format, BooleanSupplier cancelled,
+                   ByteBuffer[] out, int[] counts, int start, int end) {
+            this.transactionManager = transactionManager;
+            this.firstDay = firstDay;
+            this.format = format;
+            this.cancelled = cancelled;
+            this.out = out;
+            this.counts = counts;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > 1) {
+                int mid = (start + end) >>> 1;
+                invokeAll(new RenderDays(transactionManager, firstDay, format, cancelled, out, counts, start, mid),
+                        new RenderDays(transactionManager, firstDay, format, cancelled, out, counts, mid, end));
+                return;
+            }
+            List<Transaction> transactions = transactionManager.getTransactionsByDate(firstDay.plusDays(start));
+            StringBuilder text = new StringBuilder(transactions.size() * 96);
+            for (int i = 0; i < transactions.size() && !cancelled.getAsBoolean(); i++) {
+                Transaction t = transactions.get(i);
+                if (format == Format.CSV) {
+                    appendCsv(text, t);
+                } else {
+                    appendJson(text, t);
+                }
+            }
+            out[start] = StandardCharsets.UTF_8.encode(CharBuffer.wrap(text));
+            counts[start] = transactions.size();
+        }
+    }
+
+    private static void appendCsv(StringBuilder text, Transaction t) {
+        appendCsvField(text, t.user).append(',');
+        appendCsvField(text, t.computerId).append(',');
+        appendCsvField(text, t.timeSlot).append(',');
+        text.append(t.bookingDate).append(',');
+        appendAmount(text, t.amountPaid).append(',');
+        appendCsvField(text, t.timestamp).append('\n');
+    }
+
+    private static void appendJson(StringBuilder text, Transaction t) {
+        text.append("{\"user\":");
+        appendJsonString(text, t.user).append(",\"computer\":");
+        appendJsonString(text, t.computerId).append(",\"timeSlot\":");
+        appendJsonString(text, t.timeSlot).append(",\"bookingDate\":\"").append(t.bookingDate).append("\",\"amount\":");
+        appendAmount(text, t.amountPaid).append(",\"timestamp\":");
+        appendJsonString(text, t.timestamp).append("}\n");
+    }
+
+    private static StringBuilder appendAmount(StringBuilder text, double amount) {
+        long centavos = Math.round(amount * 100);
+        if (centavos < 0) {
+            text.append('-');
+            centavos = -centavos;
+        }
+        text.append(centavos / 100).append('.');
+        if (centavos % 100 < 10) text.append('0');
+        return text.append(centavos % 100);
+    }
+
+    private static StringBuilder appendCsvField(StringBuilder text, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) return text.append(value);
+        text.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') text.append('"');
+            text.append(c);
+        }
+        return text.append('"');
+    }
+
+    private static StringBuilder appendJsonString(StringBuilder text, String value) {
+        text.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    text.append("\\\"");
+                    break;
+                case '\\':
+                    text.append("\\\\");
+                    break;
+                case '\n':
+                    text.append("\\n");
+                    break;
+                case '\r':
+                    text.append("\\r");
+                    break;
+                case '\t':
+                    text.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        text.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        text.append(c);
+                    }
+            }
+        }
+        return text.append('"');
+    }
+}
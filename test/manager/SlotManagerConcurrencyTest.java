@@ -0,0 +1,105 @@
+package manager;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Races bookSlot and bookRange from many threads over the same rows and
+ * checks that every cell ended up with exactly the one thread that was told
+ * it got it.
+ */
+public class SlotManagerConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 20_000;
+    private static final int DATES = 30;
+    private static final LocalDate FIRST_DAY = LocalDate.now().plusDays(1);
+
+    @Test
+    public void manyRowsNoDoubleBookings() throws Exception {
+        race(new SlotManager(2000, 10, 0));
+    }
+
+    // Few rows, so almost every attempt collides with another thread
+    @Test
+    public void fewRowsNoDoubleBookings() throws Exception {
+        race(new SlotManager(5, 10, 0));
+    }
+
+    private static void race(SlotManager slotManager) throws Exception {
+        int computers = slotManager.getNumComputers();
+        int slots = slotManager.getNumTimeSlots();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<int[]>>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            results.add(pool.submit(() -> {
+                Random random = new Random(thread);
+                List<int[]> won = new ArrayList<>();
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    int day = random.nextInt(DATES);
+                    int pc = random.nextInt(computers);
+                    int from = random.nextInt(slots);
+                    int to = Math.min(slots - 1, from + random.nextInt(3));
+                    String user = "thread" + thread;
+                    boolean booked = from == to && random.nextBoolean()
+                            ? slotManager.bookSlot(FIRST_DAY.plusDays(day), pc, from, user)
+                            : slotManager.bookRange(FIRST_DAY.plusDays(day), pc, from, to, user);
+                    if (booked) won.add(new int[]{day, pc, from, to, thread});
+                }
+                return won;
+            }));
+        }
+        start.countDown();
+
+        // Who each cell was promised to, by day, computer and slot
+        int[][][] owner = new int[DATES][computers][slots];
+        for (int[][] day : owner) {
+            for (int[] row : day) {
+                Arrays.fill(row, -1);
+            }
+        }
+        int claims = 0;
+        for (Future<List<int[]>> result : results) {
+            for (int[] claim : result.get()) {
+                for (int slot = claim[2]; slot <= claim[3]; slot++) {
+                    int previous = owner[claim[0]][claim[1]][slot];
+                    assertEquals("Double booking on day " + claim[0] + " PC " + claim[1] + " slot " + slot,
+                            -1, previous);
+                    owner[claim[0]][claim[1]][slot] = claim[4];
+                }
+                claims++;
+            }
+        }
+        pool.shutdown();
+        assertTrue("No booking went through", claims > 0);
+
+        for (int day = 0; day < DATES; day++) {
+            for (int pc = 0; pc < computers; pc++) {
+                for (int slot = 0; slot < slots; slot++) {
+                    String bookedBy = slotManager.getBookedBy(FIRST_DAY.plusDays(day), pc, slot);
+                    int expected = owner[day][pc][slot];
+                    if (expected < 0) {
+                        assertNull("Cell booked with no winner: day " + day + " PC " + pc + " slot " + slot, bookedBy);
+                    } else {
+                        assertEquals("thread" + expected, bookedBy);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ui;
+
+import manager.BookingService;
+import manager.PricingEngine;
+import manager.SlotListener;
+import manager.SlotManager;
+import model.Transaction;
+import model.TransactionManager;
+import org.junit.Test;
+
+import javax.swing.SwingUtilities;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Screens call BookingService on the EDT and only apply results there. These
+ * tests hold the service's work at a gate: a call made on the EDT has to
+ * return while its work is still waiting, and the work has to run on another
+ * thread. Changes pushed to a SlotTableModel have to reach it on the EDT.
+ * Both run headless and check threads, not timings.
+ */
+public class OffEdtWorkTest {
+    private static final LocalDate DAY = LocalDate.now().plusDays(1);
+
+    @Test
+    public void serviceCallsReturnBeforeTheirWorkRuns() throws Exception {
+        System.setProperty("booking.receipts", Files.createTempDirectory("edt-receipts").toString());
+        CountDownLatch gate = new CountDownLatch(1);
+        List<Boolean> ranOnEdt = Collections.synchronizedList(new ArrayList<>());
+        SlotManager slotManager = new SlotManager();
+        slotManager.addListener(new SlotListener() {
+            @Override
+            public void slotsBooked(LocalDate date, int computerIndex, int fromIndex, int toIndex, String username) {
+                await(gate, ranOnEdt);
+            }
+
+            @Override
+            public void slotCleared(LocalDate date, int computerIndex, int timeIndex, boolean expired) {
+                await(gate, ranOnEdt);
+            }
+        });
+        BookingService service = new BookingService(slotManager, new GatedTransactions(gate, ranOnEdt));
+
+        List<CompletableFuture<?>> calls = new ArrayList<>();
+        SwingUtilities.invokeAndWait(() -> {
+            calls.add(service.book(DAY, 0, 2, 3, "member1", PricingEngine.DEFAULT_TIER));
+            calls.add(service.getTransactionsByDate(DAY));
+            calls.add(service.getTransactionsByUser("member1"));
+        });
+        for (CompletableFuture<?> call : calls) {
+            assertFalse("A call finished while its work was held", call.isDone());
+        }
+        gate.countDown();
+        for (CompletableFuture<?> call : calls) {
+            call.get(10, TimeUnit.SECONDS);
+        }
+        List<CompletableFuture<Boolean>> cancelled = new ArrayList<>();
+        SwingUtilities.invokeAndWait(() -> cancelled.add(service.cancel(DAY, 0, 2)));
+        assertTrue(cancelled.get(0).get(10, TimeUnit.SECONDS));
+
+        assertEquals(4, ranOnEdt.size());
+        assertFalse("Service work ran on the EDT", ranOnEdt.contains(true));
+        service.shutdown();
+    }
+
+    @Test
+    public void pushedChangesApplyOnTheEdt() throws Exception {
+        System.setProperty("booking.receipts", Files.createTempDirectory("edt-receipts").toString());
+        SlotManager slotManager = new SlotManager();
+        BookingService service = new BookingService(slotManager, new TransactionManager());
+        SlotTableModel[] model = new SlotTableModel[1];
+        List<Boolean> firedOnEdt = Collections.synchronizedList(new ArrayList<>());
+        SwingUtilities.invokeAndWait(() -> {
+            model[0] = SlotTableModel.open(slotManager, DAY, "member1");
+            model[0].addTableModelListener(e -> firedOnEdt.add(SwingUtilities.isEventDispatchThread()));
+        });
+
+        service.book(DAY, 1, 4, 5, "member1", PricingEngine.DEFAULT_TIER).get(10, TimeUnit.SECONDS);
+        // The batch was queued on the EDT while the booking ran, so it has been applied after this
+        SwingUtilities.invokeAndWait(() -> { });
+        assertEquals(2, firedOnEdt.size());
+        assertFalse("A table event fired off the EDT", firedOnEdt.contains(false));
+        SwingUtilities.invokeAndWait(() -> {
+            assertEquals(SlotState.MINE, model[0].getState(1, 5));
+            assertEquals(SlotState.MINE, model[0].getState(1, 6));
+            model[0].close();
+        });
+        service.shutdown();
+    }
+
+    // Records which thread got here and waits for the gate. Work that wrongly ran on the EDT
+    // does not wait, since the EDT is what the test is blocked on
+    private static void await(CountDownLatch gate, List<Boolean> ranOnEdt) {
+        boolean onEdt = SwingUtilities.isEventDispatchThread();
+        ranOnEdt.add(onEdt);
+        if (onEdt) return;
+        try {
+            gate.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class GatedTransactions extends TransactionManager {
+        private final CountDownLatch gate;
+        private final List<Boolean> ranOnEdt;
+
+        GatedTransactions(CountDownLatch gate, List<Boolean> ranOnEdt) {
+            this.gate = gate;
+            this.ranOnEdt = ranOnEdt;
+        }
+
+        @Override
+        public List<Transaction> getTransactionsByUser(String username) {
+            await(gate, ranOnEdt);
+            return super.getTransactionsByUser(username);
+        }
+
+        @Override
+        public List<Transaction> getTransactionsByDate(LocalDate bookingDate) {
+            await(gate, ranOnEdt);
+            return super.getTransactionsByDate(bookingDate);
+        }
+    }
+}